@@ -1,19 +1,58 @@
 package com.blocky;
 
+import com.blocky.generator.DailyPuzzle;
+import com.blocky.generator.DailyPuzzles;
+import com.blocky.generator.LevelGenerator;
+import com.blocky.interfaces.IMovementStrategy;
+import com.blocky.logic.BinaryLevelFormat;
+import com.blocky.logic.BitboardCollisionManager;
 import com.blocky.logic.CollisionManager;
+import com.blocky.logic.GameEngine;
+import com.blocky.logic.GameLoop;
+import com.blocky.logic.HintService;
+import com.blocky.logic.LevelFactory;
+import com.blocky.logic.LevelPack;
+import com.blocky.logic.SweptCollision;
+import com.blocky.main.LevelValidator;
 import com.blocky.model.Block;
+import com.blocky.model.BlockStore;
+import com.blocky.model.ColorIds;
+import com.blocky.model.Entity;
+import com.blocky.model.ExitGate;
+import com.blocky.model.ShapeCatalog;
+import com.blocky.solver.Board;
+import com.blocky.solver.DeadlockDetector;
+import com.blocky.solver.CanonicalLevel;
+import com.blocky.solver.Difficulty;
+import com.blocky.solver.DifficultyEstimator;
+import com.blocky.solver.Heuristics;
+import com.blocky.solver.Hint;
+import com.blocky.solver.HintEngine;
+import com.blocky.solver.InformedSolver;
+import com.blocky.solver.ParallelSolver;
+import com.blocky.solver.Solution;
+import com.blocky.solver.Solver;
+import com.blocky.solver.TranspositionTable;
+import com.blocky.solver.Zobrist;
+import com.blocky.view.BlockSprites;
+import com.blocky.view.BoardPanel;
+import com.blocky.view.FrameStats;
 import com.blocky.view.Theme;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 /**
  * Plan de testare:
  * 1. Testare Model (Block): Verificarea calcularii dimensiunilor si a logicii de selectie (hitbox complex).
  * 2. Testare Logica (CollisionManager): Verificarea detectiei coliziunilor cu pereti si alte blocuri.
  * 3. Testare State: Verificarea actualizarii coordonatelor la mutare.
+ * 4. Testare Solver: Verificarea solutiei optime si a detectiei nivelelor imposibile.
  */
 public class BlockyTests {
 
@@ -83,4 +122,956 @@ public class BlockyTests {
          // Click pe (50, 50) -> Rand 1, Col 1 -> 1 -> True
          Assert.assertTrue("Click pe zona plina (coltul L) ar trebui sa selecteze", block.containsPoint(50, 50));
     }
+
+    @Test
+    public void testSolverFindsOptimalSolution() {
+        // Justificare: Nivelul 1 are doua blocuri 2x2, fiecare cu poarta lui pe o parte. Solutia optima are 2 mutari.
+        Solution solution = Solver.solveLevel(1);
+        Assert.assertTrue("Nivelul 1 ar trebui sa fie rezolvabil", solution.isSolvable());
+        Assert.assertEquals("Solutia optima pentru nivelul 1 are 2 mutari", 2, solution.moveCount());
+        Assert.assertTrue("Ultima mutare scoate un bloc pe poarta", solution.moves.get(1).isExit());
+    }
+
+    @Test
+    public void testSolverReadsBinaryLevelFiles() throws Exception {
+        // Justificare: Solverul din linia de comanda primeste orice fisier de nivel, inclusiv formatul binar .blv.
+        List<Block> blocks = new ArrayList<>();
+        List<ExitGate> gates = new ArrayList<>();
+        LevelFactory.loadLevel(1, blocks, gates);
+        java.io.File f = java.io.File.createTempFile("blocky-solve", BinaryLevelFormat.EXTENSION);
+        f.deleteOnExit();
+        try (java.io.OutputStream out = new java.io.FileOutputStream(f)) {
+            BinaryLevelFormat.write(out, blocks, gates);
+        }
+        Assert.assertEquals(2, Solver.solveFile(f).moveCount());
+    }
+
+    @Test
+    public void testSolverDetectsMissingGate() {
+        // Justificare: Un bloc fara poarta de aceeasi culoare nu poate iesi niciodata, deci nivelul e imposibil.
+        List<Block> blocks = new ArrayList<>();
+        List<ExitGate> gates = new ArrayList<>();
+        blocks.add(new Block(40, 100, new int[][]{{1, 1}, {1, 1}}, Theme.RED_BLOCK));
+        gates.add(new ExitGate(0, 100, 40, 90, Theme.BLUE_BLOCK, 3));
+
+        Solution solution = Solver.solve(blocks, gates);
+        Assert.assertFalse("Nivelul fara poarta rosie nu ar trebui sa fie rezolvabil", solution.isSolvable());
+        Assert.assertEquals(-1, solution.moveCount());
+    }
+
+    @Test
+    public void testLevelValidatorFallsBackToBreadthFirst() throws Exception {
+        // Justificare: IDA* nu poate dovedi ca un nivel e imposibil si se opreste la limita de stari;
+        // validatorul trebuie sa dea atunci verdictul cautarii in latime, nu "limita atinsa".
+        List<Block> blocks = new ArrayList<>();
+        List<ExitGate> gates = new ArrayList<>();
+        blocks.add(new Block(40, 100, 270, 45, new int[][]{{1, 1, 1, 1, 1, 1}}, Theme.WALL_COLOR));
+        blocks.add(new Block(40, 280, 270, 45, new int[][]{{1, 1, 1, 1, 1, 1}}, Theme.WALL_COLOR));
+        // Rosu si albastru merg doar orizontal, pe acelasi rand, fiecare spre poarta de dincolo de celalalt
+        blocks.add(new Block(85, 145, new int[][]{{1}}, Theme.RED_BLOCK, Block.Axis.HORIZONTAL));
+        blocks.add(new Block(220, 145, new int[][]{{1}}, Theme.BLUE_BLOCK, Block.Axis.HORIZONTAL));
+        blocks.add(new Block(130, 235, new int[][]{{1}}, Theme.GREEN_BLOCK));
+        gates.add(new ExitGate(0, 145, 40, 45, Theme.BLUE_BLOCK, 3));
+        gates.add(new ExitGate(310, 145, 40, 45, Theme.RED_BLOCK, 1));
+        gates.add(new ExitGate(130, 325, 45, 40, Theme.GREEN_BLOCK, 2));
+        java.io.File f = java.io.File.createTempFile("blocky-blocked", ".txt");
+        f.deleteOnExit();
+        LevelFactory.writeLevelFile(f, blocks, gates);
+
+        Solution ida = new InformedSolver(new Board(blocks, gates), Heuristics.BLOCKING).setMaxStates(50).solveIdaStar();
+        Assert.assertEquals(Solution.Status.LIMIT_REACHED, ida.status);
+        LevelValidator.Report r = LevelValidator.validate(f, 1, 50);
+        Assert.assertEquals("UNSOLVABLE", r.status);
+        Assert.assertEquals("unsolvable", r.reason);
+    }
+
+    @Test
+    public void testBitboardMatchesCollisionManager() {
+        // Justificare: Varianta pe bitboard trebuie sa dea exact aceleasi raspunsuri ca implementarea de referinta.
+        CollisionManager reference = new CollisionManager();
+        BitboardCollisionManager bitboard = new BitboardCollisionManager();
+        Random rnd = new Random(42);
+        List<Block> blocks = new ArrayList<>();
+        List<ExitGate> gates = new ArrayList<>();
+        LevelFactory.loadLevel(4, blocks, gates);
+
+        for (Block mover : blocks) {
+            if (mover.getColor().equals(Theme.WALL_COLOR)) continue;
+            List<Block> others = new ArrayList<>(blocks);
+            others.remove(mover);
+            for (int i = 0; i < 2000; i++) {
+                int x = 40 + 45 * rnd.nextInt(20);
+                int y = 100 + 45 * rnd.nextInt(22);
+                Assert.assertEquals("Pozitia " + x + "," + y, reference.isValidMove(mover, x, y, others), bitboard.isValidMove(mover, x, y, others));
+            }
+        }
+
+        // Tablele raman intre apeluri si se actualizeaza doar pentru piesele mutate sau scoase din lista
+        Block mover = blocks.stream().filter(b -> !b.getColor().equals(Theme.WALL_COLOR)).findFirst().get();
+        List<Block> others = new ArrayList<>(blocks);
+        others.remove(mover);
+        for (int i = 0; i < 300; i++) {
+            Block other = others.get(rnd.nextInt(others.size()));
+            if (!other.getColor().equals(Theme.WALL_COLOR)) other.move(40 + 45 * rnd.nextInt(20), 100 + 45 * rnd.nextInt(22));
+            if (i % 50 == 49) others.remove(other);
+            for (int j = 0; j < 20; j++) {
+                int x = 40 + 45 * rnd.nextInt(20) + (j % 2) * 7; // si pe o alta retea
+                int y = 100 + 45 * rnd.nextInt(22);
+                Assert.assertEquals("Pozitia " + x + "," + y, reference.isValidMove(mover, x, y, others), bitboard.isValidMove(mover, x, y, others));
+            }
+        }
+    }
+
+    @Test
+    public void testZobristAndTranspositionTable() {
+        // Justificare: Hash-ul actualizat incremental trebuie sa fie identic cu cel calculat de la zero,
+        // iar tabela trebuie sa pastreze intrarile mai adanci cand fereastra de probare e plina.
+        Zobrist z = new Zobrist(3, 100);
+        short[] pos = {10, 20, 30};
+        long h = z.hash(pos);
+        h = z.update(h, 1, 20, 21);
+        h = z.update(h, 2, 30, -1);
+        Assert.assertEquals(z.hash(new short[]{10, 21, -1}), h);
+
+        TranspositionTable tt = new TranspositionTable(4);
+        Assert.assertEquals(TranspositionTable.MISSING, tt.get(h));
+        tt.put(h, 7, 7);
+        Assert.assertEquals(7, tt.get(h));
+        for (long k = 1; k <= 8; k++) tt.put(k * 0x10000_0000L, 1, 1);
+        Assert.assertEquals("Intrarea cu adancime mare nu trebuie evacuata", 7, tt.get(h));
+        Assert.assertTrue(tt.collisionRate() > 0);
+
+        // O fereastra plina doar cu stari dovedite moarte trebuie totusi sa primeasca o intrare noua
+        TranspositionTable dead = new TranspositionTable(16);
+        for (long k = 1; k <= 5; k++) dead.put(k * 16 + 1, -1, Integer.MAX_VALUE);
+        Assert.assertEquals(-1, dead.get(5 * 16 + 1));
+        for (long k = 6; k <= 9; k++) dead.put(k * 16 + 1, -1, TranspositionTable.PROVEN_DEPTH);
+        Assert.assertEquals(-1, dead.get(9 * 16 + 1));
+        Assert.assertTrue(dead.overwrites() > 0);
+    }
+
+    @Test
+    public void testParallelSolverMatchesSequential() {
+        // Justificare: Cautarea paralela pe straturi trebuie sa gaseasca aceeasi lungime optima ca BFS-ul secvential.
+        List<Block> blocks = new ArrayList<>();
+        List<ExitGate> gates = new ArrayList<>();
+        LevelFactory.loadLevel(4, blocks, gates);
+        Board board = new Board(blocks, gates);
+
+        Solution sequential = new Solver(board).solve();
+        ParallelSolver parallel = new ParallelSolver(board, 2);
+        Solution result = parallel.solve();
+        Assert.assertEquals(sequential.moveCount(), result.moveCount());
+        Assert.assertTrue(parallel.getLastReport().expanded() > 0);
+    }
+
+    @Test
+    public void testInformedSolverHeuristics() {
+        // Justificare: Euristicile admisibile nu au voie sa strice optimalitatea, dar trebuie sa reduca nodurile expandate.
+        List<Block> blocks = new ArrayList<>();
+        List<ExitGate> gates = new ArrayList<>();
+        LevelFactory.loadLevel(4, blocks, gates);
+        Board board = new Board(blocks, gates);
+        int optimal = new Solver(board).solve().moveCount();
+
+        for (InformedSolver.Algorithm algorithm : InformedSolver.Algorithm.values()) {
+            Map<String, Solution> results = InformedSolver.compare(board, algorithm, Solver.DEFAULT_MAX_STATES, Heuristics.values());
+            for (Solution s : results.values()) Assert.assertEquals(optimal, s.moveCount());
+            Assert.assertTrue(results.get("BLOCKING").statesExplored < results.get("REMAINING").statesExplored);
+        }
+
+        // Nivelul 7: blocul cyan orizontal nu se poate alinia cu poarta lui, deci nu e nevoie de cautare
+        LevelFactory.loadLevel(7, blocks, gates);
+        Solution dead = new InformedSolver(new Board(blocks, gates), Heuristics.GATE_DISTANCE).solveIdaStar();
+        Assert.assertEquals(Solution.Status.UNSOLVABLE, dead.status);
+        Assert.assertEquals(0, dead.statesExplored);
+
+        // Euristica BLOCKING nu tine Board-ul in viata pe firul care a folosit-o (firele de indicii si evaluare traiesc mult)
+        LevelFactory.loadLevel(4, blocks, gates);
+        List<java.lang.ref.WeakReference<Board>> used = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Board b = new Board(blocks, gates);
+            Heuristics.BLOCKING.estimate(b, b.stateOf(blocks));
+            used.add(new java.lang.ref.WeakReference<>(b));
+        }
+        for (int i = 0; i < 20 && used.stream().anyMatch(r -> r.get() != null); i++) System.gc();
+        Assert.assertTrue(used.stream().allMatch(r -> r.get() == null));
+    }
+
+    @Test
+    public void testDifficultyEstimatorCache() throws Exception {
+        // Justificare: Scorul trebuie sa fie stabil si calculat o singura data pentru acelasi continut.
+        DifficultyEstimator estimator = new DifficultyEstimator(null);
+        List<Block> easyBlocks = new ArrayList<>(), hardBlocks = new ArrayList<>();
+        List<ExitGate> easyGates = new ArrayList<>(), hardGates = new ArrayList<>();
+        LevelFactory.loadLevel(1, easyBlocks, easyGates);
+        LevelFactory.loadLevel(4, hardBlocks, hardGates);
+
+        Difficulty easy = estimator.estimate(easyBlocks, easyGates);
+        Difficulty hard = estimator.estimate(hardBlocks, hardGates);
+        Assert.assertTrue(easy.score < hard.score);
+
+        // Acelasi nivel, reconstruit din text: continut identic, deci direct din cache
+        List<Block> copyBlocks = new ArrayList<>();
+        List<ExitGate> copyGates = new ArrayList<>();
+        LevelFactory.parseLevel(LevelFactory.serializeLevel(hardBlocks, hardGates), copyBlocks, copyGates);
+        Assert.assertSame(hard, estimator.estimate(copyBlocks, copyGates));
+        Assert.assertEquals(2, estimator.cacheSize());
+
+        // Un fisier stricat se marcheaza o data ca neevaluat, nu se reia la fiecare cadru
+        java.io.File broken = java.io.File.createTempFile("blocky", BinaryLevelFormat.EXTENSION);
+        broken.deleteOnExit();
+        java.nio.file.Files.write(broken.toPath(), new byte[]{'B', 'L', 'K', 'V', 9});
+        Difficulty d = null;
+        for (long end = System.currentTimeMillis() + 10_000; d == null && System.currentTimeMillis() < end; Thread.sleep(5)) d = estimator.peek(broken);
+        Assert.assertSame(Difficulty.FAILED, d);
+        Assert.assertEquals("UNRATED", d.label());
+        Assert.assertSame(Difficulty.FAILED, estimator.peek(broken));
+
+        // La fel pentru un nivel din pachet care nu se mai poate citi
+        int[] loads = {0};
+        DifficultyEstimator.Loader gone = (b, g) -> { loads[0]++; throw new java.io.FileNotFoundException("sters"); };
+        d = null;
+        for (long end = System.currentTimeMillis() + 10_000; d == null && System.currentTimeMillis() < end; Thread.sleep(5)) d = estimator.peek("gone", gone);
+        Assert.assertSame(Difficulty.FAILED, d);
+        Assert.assertSame(Difficulty.FAILED, estimator.peek("gone", gone));
+        Assert.assertEquals(1, loads[0]);
+    }
+
+    @Test
+    public void testLevelGeneratorIsDeterministic() {
+        // Justificare: Acelasi seed trebuie sa dea aceeasi harta, iar solverul trebuie sa confirme lungimea minima.
+        LevelGenerator.Level a = new LevelGenerator(7).setMoveRange(4, 20).generate(0);
+        LevelGenerator.Level b = new LevelGenerator(7).setMoveRange(4, 20).generate(0);
+        Assert.assertNotNull(a);
+        Assert.assertEquals(a.serialize(), b.serialize());
+
+        List<Block> blocks = new ArrayList<>();
+        List<ExitGate> gates = new ArrayList<>();
+        LevelFactory.parseLevel(a.serialize(), blocks, gates);
+        Solution s = new Solver(blocks, gates).solve();
+        Assert.assertEquals(a.moves, s.moveCount());
+        Assert.assertTrue(s.moveCount() >= 4);
+    }
+
+    @Test
+    public void testDailyPuzzleIsStoredWithSolution() throws Exception {
+        // Justificare: Puzzle-ul zilei se incarca din fisier, cu solutia deja calculata, fara sa mai ruleze solverul.
+        java.io.File dir = java.nio.file.Files.createTempDirectory("daily").toFile();
+        java.time.LocalDate date = java.time.LocalDate.of(2026, 10, 19);
+        DailyPuzzles daily = new DailyPuzzles(dir);
+
+        DailyPuzzle created = daily.loadOrCreate(date);
+        Assert.assertTrue(daily.fileFor(date).exists());
+        Assert.assertEquals(created.moves, created.solution.size());
+        Assert.assertTrue(created.solution.get(created.moves - 1).isExit());
+
+        DailyPuzzle loaded = daily.load(date);
+        Assert.assertEquals(created.hash, loaded.hash);
+        Assert.assertEquals(created.level, loaded.level);
+        Assert.assertEquals(created.solution.size(), loaded.solution.size());
+        Assert.assertEquals("Acelasi seed de data trebuie sa dea acelasi puzzle", created.hash, DailyPuzzles.create(date, 0).hash);
+
+        // Alt calculator, cu alte fisiere pentru zilele dinainte (aici chiar acelasi puzzle ieri): tot acelasi puzzle azi
+        java.io.File other = java.nio.file.Files.createTempDirectory("daily").toFile();
+        DailyPuzzles elsewhere = new DailyPuzzles(other);
+        java.nio.file.Files.copy(daily.fileFor(date).toPath(), elsewhere.fileFor(date.minusDays(1)).toPath());
+        Assert.assertEquals(created.hash, elsewhere.loadOrCreate(date).hash);
+
+        for (java.io.File d : new java.io.File[]{dir, other}) {
+            for (java.io.File f : d.listFiles()) f.delete();
+            d.delete();
+        }
+    }
+
+    @Test
+    public void testCanonicalHashIgnoresSymmetry() {
+        // Justificare: O harta oglindita, recolorata si deplasata e acelasi puzzle, deci trebuie sa aiba acelasi hash si aceeasi solutie.
+        List<Block> blocks = new ArrayList<>();
+        List<ExitGate> gates = new ArrayList<>();
+        LevelFactory.loadLevel(4, blocks, gates);
+
+        // Oglindire stanga-dreapta fata de x = 1000, rosu <-> albastru, plus deplasarea +40/+100 din joc
+        List<Block> mirrorBlocks = new ArrayList<>();
+        List<ExitGate> mirrorGates = new ArrayList<>();
+        for (Block b : blocks) {
+            int[][] m = new int[b.shapeMatrix.length][];
+            for (int r = 0; r < m.length; r++) {
+                m[r] = new int[b.shapeMatrix[r].length];
+                for (int c = 0; c < m[r].length; c++) m[r][c] = b.shapeMatrix[r][m[r].length - 1 - c];
+            }
+            mirrorBlocks.add(new Block(1000 - b.getX() - b.getWidth() + 40, b.getY() + 100, b.getWidth(), b.getHeight(), m, swap(b.getColor()), b.restriction));
+        }
+        for (ExitGate g : gates) {
+            int side = g.side == 1 || g.side == 3 ? 4 - g.side : g.side;
+            mirrorGates.add(new ExitGate(1000 - g.getX() - g.getWidth() + 40, g.getY() + 100, g.getWidth(), g.getHeight(), swap(g.getColor()), side));
+        }
+
+        Assert.assertEquals(CanonicalLevel.hash(blocks, gates), CanonicalLevel.hash(mirrorBlocks, mirrorGates));
+        Assert.assertEquals(new Solver(blocks, gates).solve().moveCount(), new Solver(mirrorBlocks, mirrorGates).solve().moveCount());
+
+        List<Block> otherBlocks = new ArrayList<>();
+        List<ExitGate> otherGates = new ArrayList<>();
+        LevelFactory.loadLevel(5, otherBlocks, otherGates);
+        Assert.assertNotEquals(CanonicalLevel.hash(blocks, gates), CanonicalLevel.hash(otherBlocks, otherGates));
+    }
+
+    private static Color swap(Color c) {
+        if (c.equals(Theme.RED_BLOCK)) return Theme.BLUE_BLOCK;
+        if (c.equals(Theme.BLUE_BLOCK)) return Theme.RED_BLOCK;
+        return c;
+    }
+
+    @Test
+    public void testHintEngineFollowsOptimalLine() throws Exception {
+        // Justificare: Indiciile urmate pas cu pas trebuie sa termine nivelul in numarul minim de mutari, iar dupa prima cautare restul vin din cache.
+        List<Block> blocks = new ArrayList<>();
+        List<ExitGate> gates = new ArrayList<>();
+        LevelFactory.loadLevel(4, blocks, gates);
+        int optimal = new Solver(blocks, gates).solve().moveCount();
+
+        HintEngine engine = new HintEngine(blocks, gates);
+        // O cerere anulata din start nu trebuie sa ruleze cautarea in latime pana la capat
+        Hint cancelled = engine.next(engine.getBoard().stateOf(blocks), HintEngine.DEFAULT_BUDGET_NANOS, () -> true);
+        Assert.assertEquals(Hint.Status.PENDING, cancelled.status);
+        Assert.assertTrue(cancelled.statesExplored < 1000);
+        int drags = 0;
+        for (Hint h = engine.next(blocks); h.status != Hint.Status.SOLVED; h = engine.next(blocks)) {
+            if (h.status == Hint.Status.PENDING) continue; // bugetul de 50ms s-a terminat, continua de unde a ramas
+            Assert.assertEquals(Hint.Status.MOVE, h.status);
+            Assert.assertEquals(optimal - drags, h.movesLeft);
+            Assert.assertEquals(drags > 0, h.cached);
+            if (h.move.isExit()) blocks.remove(h.block); else h.block.move(h.targetX, h.targetY);
+            drags++;
+        }
+        Assert.assertEquals(optimal, drags);
+
+        // Acelasi lucru asincron: raspunsul vine prin poll(), iar cancel() il arunca
+        blocks.clear();
+        gates.clear();
+        LevelFactory.loadLevel(4, blocks, gates);
+        HintService service = new HintService();
+        service.reset(blocks, gates);
+        Assert.assertTrue(service.request(blocks));
+        Hint h = null;
+        for (long end = System.currentTimeMillis() + 10_000; h == null && System.currentTimeMillis() < end; Thread.sleep(5)) h = service.poll();
+        Assert.assertNotNull(h);
+        Assert.assertEquals(optimal, h.movesLeft);
+        service.request(blocks);
+        service.cancel();
+        Thread.sleep(50);
+        Assert.assertNull(service.poll());
+    }
+
+    @Test
+    public void testDeadlockDetector() {
+        // Justificare: Jucatorul trebuie avertizat cand pozitia nu mai are solutie, atat prin verificarile statice cat si prin cautare.
+        List<Block> blocks = new ArrayList<>();
+        List<ExitGate> gates = new ArrayList<>();
+        LevelFactory.loadLevel(7, blocks, gates);
+        DeadlockDetector.Result r = DeadlockDetector.staticCheck(new Board(blocks, gates), new Board(blocks, gates).initialState());
+        Assert.assertEquals(DeadlockDetector.Verdict.DEADLOCKED, r.verdict);
+        Assert.assertNotNull(r.stuck);
+
+        blocks.clear();
+        gates.clear();
+        LevelFactory.loadLevel(4, blocks, gates);
+        HintEngine engine = new HintEngine(blocks, gates);
+        r = DeadlockDetector.check(engine, engine.getBoard().stateOf(blocks), 10_000_000_000L, () -> false);
+        Assert.assertEquals(DeadlockDetector.Verdict.SOLVABLE, r.verdict);
+        Assert.assertEquals(new Solver(blocks, gates).solve().moveCount(), r.movesLeft);
+
+        // Coridor orizontal: rosul si albastrul trebuie sa treaca unul pe langa altul, deci doar cautarea vede blocajul
+        blocks.clear();
+        gates.clear();
+        for (int x = 0; x <= 405; x += 45) {
+            blocks.add(new Block(x, 0, 45, 45, LevelFactory.createRect(45, 45, 45), Theme.WALL_COLOR));
+            blocks.add(new Block(x, 135, 45, 45, LevelFactory.createRect(45, 45, 45), Theme.WALL_COLOR));
+        }
+        gates.add(new ExitGate(0, 45, 45, 90, Theme.RED_BLOCK, 3));
+        gates.add(new ExitGate(405, 45, 45, 90, Theme.BLUE_BLOCK, 1));
+        blocks.add(new Block(45, 45, LevelFactory.expandTiles(LevelFactory.S_1x1), Theme.BLUE_BLOCK, Block.Axis.HORIZONTAL));
+        blocks.add(new Block(135, 45, LevelFactory.expandTiles(LevelFactory.S_1x1), Theme.RED_BLOCK, Block.Axis.HORIZONTAL));
+        engine = new HintEngine(blocks, gates);
+        Assert.assertNull(DeadlockDetector.staticCheck(engine.getBoard(), engine.getBoard().stateOf(blocks)));
+        r = DeadlockDetector.check(engine, engine.getBoard().stateOf(blocks), 10_000_000_000L, () -> false);
+        Assert.assertEquals(DeadlockDetector.Verdict.DEADLOCKED, r.verdict);
+    }
+
+    @Test
+    public void testGameLoopRunsFasterThanRealTime() {
+        // Justificare: Cu pas fix, timpul simulat nu depinde de cadre; 4 secunde de joc trebuie sa ruleze instant in teste.
+        GameEngine engine = GameEngine.getInstance();
+        engine.startGame(4);
+        engine.timerStarted = true;
+        long before = engine.timeRemaining;
+        GameLoop loop = new GameLoop(engine, null);
+
+        long t0 = System.nanoTime();
+        Assert.assertEquals(GameLoop.TICKS_PER_SECOND, loop.advance(1_000_000_000L));
+        Assert.assertEquals(before - 1000, engine.timeRemaining, 1);
+
+        // Un bloc care iese trebuie sa dispara dupa acelasi numar de pasi, oricare ar fi frame rate-ul
+        Block exiting = null;
+        for (Block b : engine.blocks) {
+            for (ExitGate g : engine.gates) {
+                if (exiting == null && g.getColor().equals(b.getColor())) { exiting = b; b.targetGate = g; }
+            }
+        }
+        Assert.assertNotNull(exiting);
+        exiting.isExiting = true;
+        loop.advance(3_000_000_000L);
+        Assert.assertFalse(engine.blocks.contains(exiting));
+        Assert.assertEquals(4 * GameLoop.TICKS_PER_SECOND, loop.getTicks());
+        Assert.assertTrue(System.nanoTime() - t0 < 4_000_000_000L);
+        engine.goToMenu();
+    }
+
+    @Test
+    public void testFrameStatsPercentiles() {
+        // Justificare: Percentilele timpilor de cadru sunt cifrele dupa care comparam modul Swing cu randarea activa.
+        FrameStats stats = new FrameStats("test");
+        long t = 0;
+        stats.record(t, t);
+        for (int ms = 1; ms <= 100; ms++) {
+            t += ms * 1_000_000L;
+            stats.record(t, t + 500_000L);
+        }
+        Assert.assertEquals(100, stats.frameCount());
+        Assert.assertEquals(50_000_000L, stats.framePercentile(50));
+        Assert.assertEquals(99_000_000L, stats.framePercentile(99));
+        Assert.assertEquals(100_000_000L, stats.framePercentile(100));
+        Assert.assertEquals(500_000L, stats.renderPercentile(95));
+
+        // Scena se poate desena si in afara Swing (cum face ActiveRenderer), chiar si headless
+        GameEngine engine = GameEngine.getInstance();
+        engine.startGame(4);
+        engine.publishFrame(); // altfel il publica GameLoop dupa pasul urmator
+        java.awt.image.BufferedImage frame = new java.awt.image.BufferedImage(900, 965, java.awt.image.BufferedImage.TYPE_INT_RGB);
+        java.awt.Graphics2D g2 = frame.createGraphics();
+        new BoardPanel().render(g2, frame.getWidth(), frame.getHeight()); // fara lock: deseneaza ultimul Frame publicat
+        g2.dispose();
+        Assert.assertNotEquals(frame.getRGB(0, 0), frame.getRGB(450, 500));
+
+        // Frame-ul e o copie: ce schimba pasul urmator nu apare in cadrul deja publicat si tinut de desenare
+        GameEngine.Frame published = engine.acquireFrame();
+        Block live = engine.blocks.get(0);
+        int x0 = published.blocks.get(0).getX();
+        for (int i = 0; i < 3; i++) {
+            synchronized (engine.lock) {
+                live.move(live.getX() + 45, live.getY());
+                engine.invalidateFrame();
+            }
+            engine.publishFrame();
+            Assert.assertEquals(live.getX(), engine.getFrame().blocks.get(0).getX());
+        }
+        Assert.assertEquals(x0, published.blocks.get(0).getX());
+        engine.releaseFrame(published);
+
+        // Fara schimbari nu se publica nimic; cadrele se refolosesc, deci publicarea nu aloca piese noi
+        GameEngine.Frame last = engine.getFrame();
+        engine.publishFrame();
+        Assert.assertSame(last, engine.getFrame());
+        Block view = last.blocks.get(0);
+        for (int i = 0; i < 4; i++) {
+            engine.invalidateFrame();
+            engine.publishFrame();
+        }
+        Assert.assertSame(last, engine.getFrame());
+        Assert.assertSame(view, engine.getFrame().blocks.get(0));
+        engine.goToMenu();
+    }
+
+    @Test
+    public void testStaticLayerIsCached() {
+        // Justificare: Fundalul, grila si peretii se randeaza o singura data pe nivel si pe scara, nu la fiecare cadru.
+        GameEngine engine = GameEngine.getInstance();
+        engine.startGame(4);
+        engine.publishFrame();
+        BoardPanel panel = new BoardPanel();
+        java.awt.image.BufferedImage frame = new java.awt.image.BufferedImage(900, 965, java.awt.image.BufferedImage.TYPE_INT_RGB);
+        java.awt.image.BufferedImage small = new java.awt.image.BufferedImage(500, 540, java.awt.image.BufferedImage.TYPE_INT_RGB);
+        synchronized (engine.lock) {
+            for (int i = 0; i < 5; i++) {
+                java.awt.Graphics2D g2 = frame.createGraphics();
+                panel.render(g2, frame.getWidth(), frame.getHeight());
+                g2.dispose();
+            }
+            Assert.assertEquals(1, panel.getStaticLayer().getBuilds());
+
+            java.awt.Graphics2D g2 = small.createGraphics();
+            panel.render(g2, small.getWidth(), small.getHeight()); // alta scara
+            g2.dispose();
+            Assert.assertEquals(2, panel.getStaticLayer().getBuilds());
+
+            engine.startGame(5); // alt nivel
+            engine.publishFrame();
+            g2 = small.createGraphics();
+            panel.render(g2, small.getWidth(), small.getHeight());
+            g2.dispose();
+            Assert.assertEquals(3, panel.getStaticLayer().getBuilds());
+        }
+        engine.goToMenu();
+    }
+
+    @Test
+    public void testBlockSpritesAreReusedAndBounded() {
+        // Justificare: Fiecare piesa se rasterizeaza o data si apoi se copiaza; ciclarea culorilor in editor nu umple memoria.
+        GameEngine engine = GameEngine.getInstance();
+        engine.startGame(4);
+        engine.publishFrame();
+        BoardPanel panel = new BoardPanel();
+        BlockSprites sprites = panel.getSprites();
+        java.awt.image.BufferedImage frame = new java.awt.image.BufferedImage(450, 480, java.awt.image.BufferedImage.TYPE_INT_RGB);
+        synchronized (engine.lock) {
+            for (int i = 0; i < 3; i++) {
+                java.awt.Graphics2D g2 = frame.createGraphics();
+                panel.render(g2, frame.getWidth(), frame.getHeight());
+                g2.dispose();
+            }
+            int movable = 0;
+            for (Block b : engine.blocks) if (!b.getColor().equals(Theme.WALL_COLOR)) movable++;
+            Assert.assertEquals(movable, sprites.getMisses());
+            Assert.assertEquals(2 * movable, sprites.getHits());
+
+            Block b = engine.blocks.stream().filter(x -> !x.getColor().equals(Theme.WALL_COLOR)).findFirst().get();
+            // Animatia de iesire micsoreaza piesa la fiecare cadru, dar foloseste acelasi sprite
+            for (float scale = 1f; scale > 0.05f; scale -= 0.05f) {
+                b.scale = scale;
+                engine.invalidateFrame();
+                engine.publishFrame();
+                java.awt.Graphics2D g2 = frame.createGraphics();
+                panel.render(g2, frame.getWidth(), frame.getHeight());
+                g2.dispose();
+            }
+            b.scale = 1f;
+            Assert.assertEquals(movable, sprites.getMisses());
+            for (int i = 0; i < BlockSprites.CAPACITY + 50; i++) {
+                b.setColor(new Color(i % 256, i / 256, 200));
+                engine.invalidateFrame();
+                engine.publishFrame();
+                java.awt.Graphics2D g2 = frame.createGraphics();
+                panel.render(g2, frame.getWidth(), frame.getHeight());
+                g2.dispose();
+            }
+        }
+        Assert.assertEquals(BlockSprites.CAPACITY, sprites.size());
+        Assert.assertTrue(sprites.getEvictions() > 0);
+        Assert.assertTrue(sprites.hitRate() > 0.5);
+        engine.goToMenu();
+    }
+
+    @Test
+    public void testDamageTracksOnlyWhatChanged() {
+        // Justificare: In timpul jocului se redeseneaza doar zona schimbata (piesa mutata, portile animate), nu tot panoul.
+        GameEngine engine = GameEngine.getInstance();
+        synchronized (engine.lock) {
+            engine.takeDamage(); // ce au lasat testele anterioare
+            engine.startGame(4);
+            Assert.assertTrue(engine.takeDamage().isEmpty()); // nepublicat inca
+            engine.publishFrame();
+            Assert.assertNull(engine.takeDamage()); // nivel nou: totul
+            Assert.assertTrue(engine.takeDamage().isEmpty());
+
+            Block b = engine.blocks.stream().filter(x -> !x.getColor().equals(Theme.WALL_COLOR)).findFirst().get();
+            for (int c = 0; engine.selectedBlock == null; c++) {
+                if (b.shapeMatrix[0][c] == 1) engine.selectBlock(b.getX() + c * Block.CELL_SIZE + 10, b.getY() + 10);
+            }
+            b = engine.selectedBlock;
+            engine.publishFrame();
+            java.awt.Rectangle dirty = engine.takeDamage();
+            Assert.assertNotNull(dirty);
+            Assert.assertTrue(dirty.contains(b.getBounds()));
+            Assert.assertTrue(dirty.width < b.getWidth() + 20 && dirty.height < b.getHeight() + 20);
+            engine.releaseBlock();
+            engine.publishFrame();
+            engine.takeDamage();
+
+            // Dintii portilor avanseaza o data la TEETH_TICKS pasi; ceilalti pasi lasa tabla curata
+            GameLoop loop = new GameLoop(engine, null);
+            java.awt.Rectangle gates = new java.awt.Rectangle(engine.gates.get(0).getBounds());
+            for (ExitGate g : engine.gates) gates.add(g.getBounds());
+            int teeth = 0;
+            for (int i = 0; i < 2 * GameEngine.TEETH_TICKS; i++) {
+                int phase = engine.teethPhase;
+                loop.advance(GameLoop.TICK_NANOS);
+                dirty = engine.takeDamage();
+                Assert.assertNotNull(dirty);
+                if (engine.teethPhase == phase) {
+                    Assert.assertTrue(dirty.isEmpty());
+                    continue;
+                }
+                teeth++;
+                Assert.assertTrue(dirty.contains(gates));
+                Assert.assertFalse(dirty.intersects(new java.awt.Rectangle(0, 0, 800, 60)));
+            }
+            Assert.assertEquals(2, teeth);
+
+            // Un indiciu pulseaza: fiecare pas murdareste piesa si fantoma ei, nu si restul tablei
+            HintEngine hints = new HintEngine(engine.blocks, engine.gates);
+            Hint h = hints.next(engine.blocks);
+            while (h.status == Hint.Status.PENDING) h = hints.next(engine.blocks);
+            Assert.assertEquals(Hint.Status.MOVE, h.status);
+            engine.currentHint = h;
+            for (int phase = engine.teethPhase; engine.teethPhase == phase; ) loop.advance(GameLoop.TICK_NANOS);
+            engine.takeDamage(); // urmatorul pas nu misca dintii
+            loop.advance(GameLoop.TICK_NANOS);
+            dirty = engine.takeDamage();
+            java.awt.Rectangle ghost = h.block.getBounds().union(new java.awt.Rectangle(h.targetX, h.targetY, h.block.getWidth(), h.block.getHeight()));
+            Assert.assertTrue(dirty.contains(ghost));
+            Assert.assertTrue(dirty.width <= ghost.width + 16 && dirty.height <= ghost.height + 16);
+        }
+        engine.goToMenu();
+    }
+
+    @Test
+    public void testDragBlockDoesNotAllocate() {
+        // Justificare: Tragerea unei piese ruleaza la fiecare eveniment de mouse; fara alocari nu apar pauze de GC in timpul jocului.
+        java.lang.management.ThreadMXBean mx = java.lang.management.ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(mx instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) mx;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        // Pe drumul real: ascultatorul de mouse al panoului, apoi publicarea cadrului de catre GameLoop
+        GameEngine engine = GameEngine.getInstance();
+        engine.startGame(4);
+        engine.publishFrame();
+        BoardPanel panel = new BoardPanel();
+        java.awt.image.BufferedImage frame = new java.awt.image.BufferedImage(1000, 1075, java.awt.image.BufferedImage.TYPE_INT_RGB);
+        java.awt.Graphics2D g2 = frame.createGraphics();
+        panel.render(g2, frame.getWidth(), frame.getHeight()); // scara 1, panoul centrat: x ecran = x nivel + 100
+        g2.dispose();
+        java.awt.event.MouseMotionListener input = panel.getMouseMotionListeners()[0];
+        synchronized (engine.lock) {
+            Block b = engine.blocks.stream().filter(x -> !x.getColor().equals(Theme.WALL_COLOR)).findFirst().get();
+            for (int c = 0; engine.selectedBlock == null; c++) {
+                if (b.shapeMatrix[0][c] == 1) engine.selectBlock(b.getX() + c * Block.CELL_SIZE + 10, b.getY() + 10);
+            }
+            int mx0 = engine.selectedBlock.getX() + 10 + 100, my0 = engine.selectedBlock.getY() + 10;
+            java.awt.event.MouseEvent[] drags = new java.awt.event.MouseEvent[6];
+            for (int i = 0; i < drags.length; i++) {
+                drags[i] = new java.awt.event.MouseEvent(panel, java.awt.event.MouseEvent.MOUSE_DRAGGED, 0, 0, mx0 + (i % 2 == 0 ? 12 : -12), my0 + (i % 3) * 4, 0, false);
+            }
+            for (int i = 0; i < 50_000; i++) { // incalzire JIT
+                input.mouseDragged(drags[i % 6]);
+                engine.publishFrame();
+            }
+            input.mouseDragged(drags[0]);
+            engine.publishFrame();
+            java.awt.Rectangle at0 = engine.getFrame().selectedBlock.getBounds();
+            input.mouseDragged(drags[1]);
+            engine.publishFrame();
+            Assert.assertNotEquals(at0, engine.getFrame().selectedBlock.getBounds()); // piesa chiar se misca si cadrul o urmeaza
+            long id = Thread.currentThread().getId();
+            long before = threads.getThreadAllocatedBytes(id);
+            for (int i = 0; i < 10_000; i++) {
+                input.mouseDragged(drags[i % 6]);
+                engine.publishFrame();
+            }
+            long allocated = threads.getThreadAllocatedBytes(id) - before;
+            engine.releaseBlock();
+            Assert.assertTrue("drag allocated " + allocated + " bytes", allocated < 10_000); // orice alocare per eveniment ar depasi 160000
+        }
+        engine.goToMenu();
+    }
+
+    @Test
+    public void testSweptCollisionMatchesStepping() {
+        // Justificare: Ciocnirea calculata analitic trebuie sa se opreasca exact unde s-ar opri mersul pixel cu pixel,
+        // iar pe diagonala sa alunece fara sa treaca prin obstacole, oricat de departe ar sari mouse-ul.
+        CollisionManager reference = new CollisionManager();
+        SweptCollision sweeper = new SweptCollision();
+        Random rnd = new Random(7);
+        for (int level = 1; level <= 12; level++) {
+            List<Block> blocks = new ArrayList<>();
+            List<ExitGate> gates = new ArrayList<>();
+            LevelFactory.loadLevel(level, blocks, gates);
+            for (Block mover : blocks) {
+                if (mover.getColor().equals(Theme.WALL_COLOR)) continue;
+                List<Block> others = new ArrayList<>(blocks);
+                others.remove(mover);
+                int x0 = mover.getX(), y0 = mover.getY();
+                if (!reference.isValidMove(mover, x0, y0, others)) continue;
+                for (int i = 0; i < 200; i++) {
+                    int dx = rnd.nextInt(601) - 300, dy = rnd.nextInt(601) - 300;
+                    if (i % 2 == 0) dy = 0; else if (i % 3 == 0) dx = 0;
+                    sweeper.sweep(mover, x0, y0, x0 + dx, y0 + dy, others);
+                    Assert.assertTrue(reference.isValidMove(mover, sweeper.x, sweeper.y, others));
+                    if (dx == 0 || dy == 0) {
+                        // Pe o axa: exact ultimul pixel liber inainte de primul obstacol
+                        int sx = Integer.signum(dx), sy = Integer.signum(dy), x = x0, y = y0;
+                        while ((x != x0 + dx || y != y0 + dy) && reference.isValidMove(mover, x + sx, y + sy, others)) { x += sx; y += sy; }
+                        Assert.assertEquals("Nivel " + level, x, sweeper.x);
+                        Assert.assertEquals("Nivel " + level, y, sweeper.y);
+                    }
+                }
+            }
+        }
+
+        // Lipit de un perete, o tragere pe diagonala aluneca de-a lungul lui
+        Block mover = new Block(100, 100, new int[][]{{1}}, Theme.BLUE_BLOCK);
+        List<Block> wall = new ArrayList<>();
+        wall.add(new Block(145, 0, 45, 1000, new int[][]{{1}}, Theme.WALL_COLOR));
+        sweeper.sweep(mover, 100, 100, 400, 300, wall);
+        Assert.assertEquals(102, sweeper.x); // reducerea de 2px lasa piesa sa intre putin
+        Assert.assertEquals(300, sweeper.y);
+
+        // Pornind suprapusa peste perete, piesa poate fi scoasa de acolo, si cu pasii impliciti ai interfetei
+        wall.set(0, new Block(90, 0, 45, 1000, new int[][]{{1}}, Theme.WALL_COLOR));
+        sweeper.sweep(mover, 100, 100, 300, 100, wall);
+        Assert.assertEquals(300, sweeper.x);
+        IMovementStrategy stepping = reference::isValidMove;
+        java.awt.Point out = new java.awt.Point();
+        stepping.sweep(mover, 100, 100, 300, 100, wall, out);
+        Assert.assertEquals(new java.awt.Point(300, 100), out);
+
+        // Tragerea foloseste strategia aleasa: una care nu accepta decat pozitia de start nu lasa piesa sa plece
+        GameEngine engine = GameEngine.getInstance();
+        synchronized (engine.lock) {
+            engine.startGame(4);
+            try {
+                engine.setMovementStrategy((m, x, y, others) -> x == m.getX() && y == m.getY());
+                Block b = engine.blocks.stream().filter(x -> !x.getColor().equals(Theme.WALL_COLOR)).findFirst().get();
+                for (int c = 0; engine.selectedBlock == null; c++) {
+                    if (b.shapeMatrix[0][c] == 1) engine.selectBlock(b.getX() + c * Block.CELL_SIZE + 10, b.getY() + 10);
+                }
+                int x0 = engine.selectedBlock.getX(), y0 = engine.selectedBlock.getY();
+                engine.dragBlock(x0 + 40, y0 + 40);
+                Assert.assertEquals(x0, engine.selectedBlock.getX());
+                Assert.assertEquals(y0, engine.selectedBlock.getY());
+                engine.releaseBlock();
+            } finally {
+                engine.setMovementStrategy(new CollisionManager());
+                engine.goToMenu();
+            }
+        }
+    }
+
+    @Test
+    public void testSpatialGridMatchesLinearScan() {
+        // Justificare: Indexul spatial trebuie sa gaseasca exact ce gaseste parcurgerea completa, si dupa mutari.
+        Random rnd = new Random(3);
+        List<Block> all = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            all.add(new Block(rnd.nextInt(3000) - 500, rnd.nextInt(3000) - 500, 45 * (1 + rnd.nextInt(3)), 45, new int[][]{{1}}, Theme.WALL_COLOR));
+        }
+        com.blocky.logic.SpatialGrid<Block> grid = new com.blocky.logic.SpatialGrid<>();
+        grid.rebuild(all);
+        List<Block> found = new ArrayList<>();
+        for (int q = 0; q < 2000; q++) {
+            if (q % 2 == 0) all.get(rnd.nextInt(all.size())).move(rnd.nextInt(3000) - 500, rnd.nextInt(3000) - 500);
+            int x = rnd.nextInt(3000) - 500, y = rnd.nextInt(3000) - 500, w = 1 + rnd.nextInt(200), h = 1 + rnd.nextInt(200);
+            found.clear();
+            grid.query(x, y, w, h, found);
+            java.util.Set<Block> expected = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+            for (Block b : all) if (b.getBounds().intersects(new java.awt.Rectangle(x, y, w, h))) expected.add(b);
+            Assert.assertEquals(expected.size(), found.size());
+            Assert.assertTrue(expected.containsAll(found));
+
+            // Alegerea cu mouse-ul: tot piesa cea mai de sus
+            Block top = null;
+            for (Block b : all) if (b.getBounds().contains(x, y)) top = b;
+            Assert.assertSame(top, grid.pick(x, y, true, b -> b.getBounds().contains(x, y)));
+        }
+    }
+
+    @Test
+    public void testEntityKindsReplaceColorChecks() {
+        // Justificare: Tipul entitatii si id-ul culorii inlocuiesc comparatiile de Color pe caile fierbinti.
+        Block wall = new Block(0, 60, new int[][]{{1}}, new Color(80, 80, 90));
+        Block red = new Block(90, 60, new int[][]{{1}}, Theme.RED_BLOCK);
+        ExitGate gate = new ExitGate(0, 45, 90, 15, Theme.BLUE_BLOCK, 0);
+        Assert.assertEquals(Entity.Kind.WALL, wall.getKind());
+        Assert.assertEquals(ColorIds.WALL, wall.getColorId());
+        Assert.assertEquals(Entity.Kind.MOVABLE, red.getKind());
+        Assert.assertEquals(Entity.Kind.GATE, gate.getKind());
+        Assert.assertEquals(ColorIds.of(new Color(Theme.RED_BLOCK.getRGB())), red.getColorId());
+        Assert.assertEquals(Theme.RED_BLOCK, ColorIds.color(red.getColorId()));
+
+        // Schimbarea culorii schimba si tipul
+        red.setColor(Theme.WALL_COLOR);
+        Assert.assertTrue(red.isObstacle());
+        red.setColor(Theme.BLUE_BLOCK);
+        Assert.assertEquals(gate.getColorId(), red.getColorId());
+
+        // Obstacolul de poarta se comporta ca un perete, oricare i-ar fi culoarea
+        Block obstacle = Block.gateObstacle(gate);
+        Assert.assertEquals(Entity.Kind.GATE_OBSTACLE, obstacle.getKind());
+        Assert.assertTrue(obstacle.isObstacle());
+        List<Block> others = new ArrayList<>();
+        others.add(obstacle);
+        Block mover = new Block(0, 60, new int[][]{{1}}, Theme.RED_BLOCK);
+        Assert.assertFalse(new CollisionManager().isValidMove(mover, 20, 50, others));
+
+        // Motorul imparte piesele in pereti si piese mobile
+        GameEngine engine = GameEngine.getInstance();
+        engine.startGame(4);
+        synchronized (engine.lock) {
+            int walls = 0;
+            for (Block b : engine.blocks) if (b.getKind() == Entity.Kind.WALL) walls++;
+            Assert.assertTrue(walls > 0);
+            Assert.assertEquals(walls, engine.getWalls().size());
+            Assert.assertEquals(engine.blocks.size() - walls, engine.getMovables().size());
+        }
+        engine.goToMenu();
+    }
+
+    @Test
+    public void testBlockStoreCopiesAndUndoes() {
+        // Justificare: Starea pieselor se copiaza dintr-o bucata, iar undo/redo din editor o folosesc fara pierderi.
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Block b = new Block(45 * i, 90, new int[][]{{1, 1}, {0, 1}}, i % 2 == 0 ? Theme.RED_BLOCK : Theme.WALL_COLOR,
+                    i % 3 == 0 ? Block.Axis.VERTICAL : Block.Axis.NONE);
+            b.isExiting = i == 5;
+            blocks.add(b);
+        }
+        BlockStore store = new BlockStore();
+        store.capture(blocks);
+        BlockStore copy = store.copy();
+        store.setPosition(0, 999, 999);
+        Assert.assertEquals(0, copy.x(0));
+
+        List<Block> back = new ArrayList<>();
+        copy.toBlocks(back);
+        Assert.assertEquals(blocks.size(), back.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            Block a = blocks.get(i), b = back.get(i);
+            Assert.assertEquals(a.getBounds(), b.getBounds());
+            Assert.assertEquals(a.getColor(), b.getColor());
+            Assert.assertEquals(a.getKind(), b.getKind());
+            Assert.assertEquals(a.restriction, b.restriction);
+            Assert.assertEquals(a.isExiting, b.isExiting);
+        }
+        // Matrici egale, o singura instanta
+        Assert.assertSame(back.get(0).shapeMatrix, back.get(39).shapeMatrix);
+
+        GameEngine engine = GameEngine.getInstance();
+        synchronized (engine.lock) {
+            engine.createEditorLevel();
+            engine.spawnEditorBlock();
+            engine.spawnEditorGate();
+            java.awt.Rectangle first = engine.blocks.get(0).getBounds();
+            engine.spawnEditorWall();
+            Assert.assertEquals(2, engine.blocks.size());
+            engine.undo();
+            Assert.assertEquals(1, engine.blocks.size());
+            Assert.assertEquals(1, engine.gates.size());
+            Assert.assertEquals(first, engine.blocks.get(0).getBounds());
+            engine.redo();
+            Assert.assertEquals(2, engine.blocks.size());
+            Assert.assertEquals(Entity.Kind.WALL, engine.blocks.get(1).getKind());
+        }
+        engine.goToMenu();
+    }
+
+    @Test
+    public void testShapeCatalogInternsShapes() {
+        // Justificare: Formele egale au aceeasi matrice si acelasi id, iar ciclarea din editor parcurge toate formele.
+        ShapeCatalog.Shape l = ShapeCatalog.ofTiles(LevelFactory.L_TR);
+        Assert.assertSame(l.cells, LevelFactory.expandTiles(LevelFactory.L_TR));
+        Assert.assertSame(l, ShapeCatalog.of(new int[][]{{1, 1, 1, 1}, {1, 1, 1, 1}, {0, 0, 1, 1}, {0, 0, 1, 1}}));
+        Assert.assertSame(l, ShapeCatalog.get(l.id));
+        Assert.assertEquals(12, l.cellCount);
+        Assert.assertEquals(4, l.rows);
+        Assert.assertEquals(4, l.cols);
+        Assert.assertEquals(0b1100L, l.rowMasks[3]);
+        Assert.assertEquals(14.0 / 12, l.centroidRow, 1e-9);
+        Assert.assertEquals(22.0 / 12, l.centroidCol, 1e-9);
+
+        // Ciclul editorului: 20 de forme distincte, apoi inapoi la prima
+        int[][] start = LevelFactory.expandTiles(LevelFactory.S_1x1), cur = start;
+        java.util.Set<Integer> seen = new java.util.HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            seen.add(ShapeCatalog.of(cur).id);
+            cur = LevelFactory.nextEditorShape(cur).cells;
+        }
+        Assert.assertEquals(20, seen.size());
+        Assert.assertSame(start, cur);
+        // O forma din afara ciclului incepe de la prima
+        Assert.assertSame(start, LevelFactory.nextEditorShape(LevelFactory.createRect(450, 45, 45)).cells);
+    }
+
+    @Test
+    public void testBinaryLevelFormatRoundTrips() throws Exception {
+        // Justificare: Formatul binar trebuie sa pastreze exact nivelul din formatul text si sa refuze fisierele stricate.
+        for (int level = 1; level <= 6; level++) {
+            List<Block> blocks = new ArrayList<>();
+            List<ExitGate> gates = new ArrayList<>();
+            LevelFactory.loadLevel(level, blocks, gates);
+            blocks.add(new Block(-90, -45, LevelFactory.expandTiles(LevelFactory.CROSS), Theme.RED_BLOCK, Block.Axis.VERTICAL));
+            String text = LevelFactory.serializeLevel(blocks, gates);
+            byte[] binary = BinaryLevelFormat.fromText(text);
+            Assert.assertEquals(text, BinaryLevelFormat.toText(binary));
+            Assert.assertTrue(binary.length * 3 < text.length());
+        }
+
+        List<Block> blocks = new ArrayList<>();
+        List<ExitGate> gates = new ArrayList<>();
+        LevelFactory.loadLevel(4, blocks, gates);
+        byte[] binary = BinaryLevelFormat.fromText(LevelFactory.serializeLevel(blocks, gates));
+        binary[binary.length / 2] ^= 0x10;
+        try {
+            BinaryLevelFormat.toText(binary);
+            Assert.fail("corrupt level was accepted");
+        } catch (java.io.IOException expected) { }
+
+        // Fisierele se citesc si se scriu dupa extensie
+        java.io.File dir = java.nio.file.Files.createTempDirectory("blocky").toFile();
+        java.io.File text = new java.io.File(dir, "a.txt"), bin = new java.io.File(dir, "a" + BinaryLevelFormat.EXTENSION);
+        LevelFactory.writeLevelFile(text, blocks, gates);
+        LevelFactory.writeLevelFile(bin, blocks, gates);
+        Assert.assertTrue(bin.length() * 3 < text.length());
+        List<Block> readBlocks = new ArrayList<>();
+        List<ExitGate> readGates = new ArrayList<>();
+        LevelFactory.readLevelFile(bin, readBlocks, readGates);
+        Assert.assertEquals(LevelFactory.serializeLevel(blocks, gates), LevelFactory.serializeLevel(readBlocks, readGates));
+        text.delete();
+        bin.delete();
+        dir.delete();
+    }
+
+    @Test
+    public void testLevelPackReadsLevelsOnDemand() throws Exception {
+        // Justificare: Arhiva de nivele trebuie sa gaseasca orice nivel dupa nume si sa-l decodeze identic, fara sa le citeasca pe toate.
+        java.io.File file = java.io.File.createTempFile("blocky", LevelPack.EXTENSION);
+        List<Block> blocks = new ArrayList<>();
+        List<ExitGate> gates = new ArrayList<>();
+        String[] texts = new String[6];
+        Difficulty rated = new Difficulty(12, 4, 2.5, 30, 900);
+        try (LevelPack.Writer w = new LevelPack.Writer(file)) {
+            for (int i = 0; i < 3000; i++) {
+                LevelFactory.loadLevel(1 + i % 6, blocks, gates);
+                for (Block b : blocks) b.move(b.getX() + 45 * (i / 6), b.getY());
+                if (i < 6) texts[i] = LevelFactory.serializeLevel(blocks, gates);
+                Assert.assertTrue(w.add("level-" + i, blocks, gates, i == 7 ? rated : null, i == 8 ? new byte[]{1, 2, 3} : null));
+            }
+            Assert.assertFalse(w.add("level-5", blocks, gates, null, null));
+        }
+
+        try (LevelPack pack = LevelPack.open(file)) {
+            Assert.assertEquals(3000, pack.size());
+            Assert.assertEquals(-1, pack.find("level-3000"));
+            for (int i = 0; i < 6; i++) {
+                int k = pack.find("level-" + i);
+                Assert.assertEquals("level-" + i, pack.name(k));
+                pack.read(k, blocks, gates);
+                Assert.assertEquals(texts[i], LevelFactory.serializeLevel(blocks, gates));
+                Assert.assertEquals(com.blocky.solver.CanonicalLevel.hash(blocks, gates), pack.hash(k));
+            }
+            // Numele sunt sortate, deci cautarea binara gaseste orice nivel
+            for (int i = 0; i < 3000; i += 97) Assert.assertEquals("level-" + i, pack.name(pack.find("level-" + i)));
+
+            Assert.assertNull(pack.difficulty(pack.find("level-6")));
+            Difficulty d = pack.difficulty(pack.find("level-7"));
+            Assert.assertEquals(rated.moves, d.moves);
+            Assert.assertEquals(rated.states, d.states);
+            Assert.assertEquals(rated.score, d.score, 1e-9);
+            Assert.assertNull(pack.thumbnail(pack.find("level-7")));
+            Assert.assertEquals(3, pack.thumbnail(pack.find("level-8")).remaining());
+        } finally {
+            file.delete();
+        }
+    }
 }
@@ -0,0 +1,64 @@
+package com.blocky.generator;
+
+import com.blocky.solver.Move;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One day's puzzle with everything the game needs to show it without solving: the level in the
+ * levels/ text format, its optimal solution and its difficulty. The stored file is itself a valid
+ * level, since LevelFactory.parseLevel skips the DAILY and SOLUTION lines.
+ */
+public final class DailyPuzzle {
+    public final LocalDate date;
+    public final String level;
+    public final int moves;
+    public final double score;
+    public final String hash;
+    public final List<Move> solution;
+
+    public DailyPuzzle(LocalDate date, String level, int moves, double score, String hash, List<Move> solution) {
+        this.date = date;
+        this.level = level;
+        this.moves = moves;
+        this.score = score;
+        this.hash = hash;
+        this.solution = Collections.unmodifiableList(new ArrayList<>(solution));
+    }
+
+    public String serialize() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "DAILY %s %d %.1f %s\n", date, moves, score, hash));
+        for (Move m : solution) {
+            sb.append(String.format("SOLUTION %d %d %d %d %d %d\n", m.piece, m.fromRow, m.fromCol, m.toRow, m.toCol, m.gate));
+        }
+        return sb.append(level).toString();
+    }
+
+    /** Inverse of serialize(); throws IllegalArgumentException if the header is missing. */
+    public static DailyPuzzle parse(String data) {
+        String[] header = null;
+        List<Move> solution = new ArrayList<>();
+        StringBuilder level = new StringBuilder();
+        for (String line : data.split("\n")) {
+            String[] parts = line.trim().split(" ");
+            if (parts[0].equals("DAILY")) header = parts;
+            else if (parts[0].equals("SOLUTION")) {
+                solution.add(new Move(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]),
+                        Integer.parseInt(parts[4]), Integer.parseInt(parts[5]), Integer.parseInt(parts[6])));
+            } else if (!line.trim().isEmpty()) level.append(line).append("\n");
+        }
+        if (header == null) throw new IllegalArgumentException("Not a daily puzzle");
+        return new DailyPuzzle(LocalDate.parse(header[1]), level.toString(), Integer.parseInt(header[2]),
+                Double.parseDouble(header[3]), header[4], solution);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s moves=%d score=%.1f hash=%s", date, moves, score, hash.substring(0, 12));
+    }
+}
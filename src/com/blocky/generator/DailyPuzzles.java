@@ -0,0 +1,197 @@
+package com.blocky.generator;
+
+import com.blocky.logic.LevelFactory;
+import com.blocky.model.Block;
+import com.blocky.model.ExitGate;
+import com.blocky.solver.Board;
+import com.blocky.solver.CanonicalLevel;
+import com.blocky.solver.Difficulty;
+import com.blocky.solver.DifficultyEstimator;
+import com.blocky.solver.Heuristics;
+import com.blocky.solver.InformedSolver;
+import com.blocky.solver.Solution;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Daily puzzles stored ahead of time as levels/daily/YYYY-MM-DD.txt. Each day's generator seed is
+ * derived from the date, so every machine produces the same puzzle for the same day. The week
+ * ramps up: Monday asks for 5-9 moves, Sunday for 11-15. Every puzzle is re-solved from its text
+ * form before it is stored, and a puzzle that matches, up to symmetry, the first variant of one of
+ * the DEDUP_DAYS days before it is replaced by the next variant of the same date seed. The choice
+ * depends only on the date, never on which files a machine already has.
+ */
+public class DailyPuzzles {
+    private static final long SALT = 0xDA11_7C0DE5L;
+    private static final int MAX_VARIANTS = 50;
+    private static final int DEDUP_DAYS = 7;
+
+    private final File dir;
+
+    public DailyPuzzles(File dir) {
+        this.dir = dir;
+    }
+
+    public static DailyPuzzles getDefault() {
+        return new DailyPuzzles(new File("levels", "daily"));
+    }
+
+    public static long seedFor(LocalDate date) {
+        return date.toEpochDay() * 0x9E3779B97F4A7C15L ^ SALT;
+    }
+
+    static int minMoves(LocalDate date) {
+        return 4 + date.getDayOfWeek().getValue();
+    }
+
+    public File fileFor(LocalDate date) {
+        return new File(dir, date + ".txt");
+    }
+
+    /** Stored puzzle for the date, or null when it was not generated (or the file is unreadable). */
+    public DailyPuzzle load(LocalDate date) {
+        File f = fileFor(date);
+        if (!f.exists()) return null;
+        try {
+            return DailyPuzzle.parse(new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Stored puzzle, or generates and stores it when the batch job has not covered this date. That
+     * can take seconds, so the game calls it off the EDT. Throws IllegalStateException when no
+     * variant of the date's seed is both valid and unique.
+     */
+    public DailyPuzzle loadOrCreate(LocalDate date) throws IOException {
+        DailyPuzzle p = load(date);
+        if (p != null) return p;
+        Map<LocalDate, DailyPuzzle> firsts = new HashMap<>();
+        for (LocalDate d : window(date)) firsts.put(d, create(d, 0));
+        p = choose(date, firsts);
+        store(p);
+        return p;
+    }
+
+    /**
+     * Batch mode: generates the days in [from, from + days) that are not stored yet, in parallel,
+     * with the first variants of the days each of them is deduplicated against. A day with no
+     * unique variant is logged and skipped; the rest of the batch is still stored.
+     */
+    public List<DailyPuzzle> generate(LocalDate from, int days, int threads) throws IOException, InterruptedException {
+        List<LocalDate> dates = new ArrayList<>();
+        for (int d = 0; d < days; d++) {
+            LocalDate date = from.plusDays(d);
+            if (!fileFor(date).exists()) dates.add(date);
+        }
+
+        Set<LocalDate> needed = new TreeSet<>();
+        for (LocalDate date : dates) needed.addAll(window(date));
+        Map<LocalDate, DailyPuzzle> firsts = new HashMap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<LocalDate> order = new ArrayList<>(needed);
+            List<Callable<DailyPuzzle>> tasks = new ArrayList<>();
+            for (LocalDate date : order) tasks.add(() -> create(date, 0));
+            List<Future<DailyPuzzle>> results = pool.invokeAll(tasks);
+            for (int i = 0; i < order.size(); i++) {
+                try {
+                    firsts.put(order.get(i), results.get(i).get());
+                } catch (ExecutionException e) {
+                    e.printStackTrace();
+                    firsts.put(order.get(i), null);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<DailyPuzzle> stored = new ArrayList<>();
+        for (LocalDate date : dates) {
+            DailyPuzzle p;
+            try {
+                p = choose(date, firsts);
+            } catch (IllegalStateException e) {
+                System.err.println(e.getMessage() + ", skipped");
+                continue;
+            }
+            store(p);
+            stored.add(p);
+        }
+        return stored;
+    }
+
+    /** Variant n of the date's puzzle, validated and rated, or null if the generator found none. */
+    public static DailyPuzzle create(LocalDate date, int variant) {
+        int min = minMoves(date);
+        LevelGenerator.Level level = new LevelGenerator(seedFor(date)).setMoveRange(min, min + 4).generate(variant);
+        if (level == null) return null;
+
+        // Validate what will actually be stored: the text form, solved from scratch
+        String text = level.serialize();
+        List<Block> blocks = new ArrayList<>();
+        List<ExitGate> gates = new ArrayList<>();
+        LevelFactory.parseLevel(text, blocks, gates);
+        InformedSolver solver = new InformedSolver(new Board(blocks, gates), Heuristics.BLOCKING).setMaxStates(DifficultyEstimator.MAX_STATES);
+        Solution s = solver.solveIdaStar();
+        if (!s.isSolvable() || s.moveCount() != level.moves) return null;
+
+        Difficulty d = DifficultyEstimator.rate(solver, s);
+        return new DailyPuzzle(date, text, s.moveCount(), d.score, CanonicalLevel.hash(blocks, gates), s.moves);
+    }
+
+    // The date and the DEDUP_DAYS days before it
+    private static List<LocalDate> window(LocalDate date) {
+        List<LocalDate> days = new ArrayList<>();
+        for (int k = DEDUP_DAYS; k >= 0; k--) days.add(date.minusDays(k));
+        return days;
+    }
+
+    /**
+     * The date's puzzle: its first valid variant unlike the first variants of the days before it.
+     * firsts holds variant 0 (or null) of every day in window(date).
+     */
+    private static DailyPuzzle choose(LocalDate date, Map<LocalDate, DailyPuzzle> firsts) {
+        Set<String> earlier = new HashSet<>();
+        for (int k = 1; k <= DEDUP_DAYS; k++) {
+            DailyPuzzle p = firsts.get(date.minusDays(k));
+            if (p != null) earlier.add(p.hash);
+        }
+        DailyPuzzle p = firsts.get(date);
+        return p != null && !earlier.contains(p.hash) ? p : firstUnique(date, 1, earlier);
+    }
+
+    private static DailyPuzzle firstUnique(LocalDate date, int fromVariant, Set<String> seen) {
+        for (int variant = fromVariant; variant < MAX_VARIANTS; variant++) {
+            DailyPuzzle p = create(date, variant);
+            if (p != null && !seen.contains(p.hash)) return p;
+        }
+        throw new IllegalStateException("No unique puzzle for " + date);
+    }
+
+    private void store(DailyPuzzle p) throws IOException {
+        dir.mkdirs();
+        try (PrintWriter pw = new PrintWriter(fileFor(p.date), "UTF-8")) {
+            pw.print(p.serialize());
+        }
+    }
+}
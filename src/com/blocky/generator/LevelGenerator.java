@@ -0,0 +1,304 @@
+package com.blocky.generator;
+
+import com.blocky.logic.LevelFactory;
+import com.blocky.model.Block;
+import com.blocky.model.ExitGate;
+import com.blocky.solver.Board;
+import com.blocky.solver.Heuristics;
+import com.blocky.solver.InformedSolver;
+import com.blocky.solver.Solution;
+import com.blocky.solver.TranspositionTable;
+import com.blocky.view.Theme;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Procedural levels in the editor layout (45px cells, walls and gates on the border, 2x2-cell
+ * tiles inside). A candidate gets a random border of gates and walls and is packed with shapes
+ * from the LevelFactory catalogue; the solver then proves its optimal length. Candidates that are
+ * solvable but too short are hill-climbed: one piece is moved or added at a time, and the change
+ * is kept when the optimal solution does not get shorter.
+ *
+ * Level k only depends on (seed, k), so the output is identical for any thread count.
+ */
+public class LevelGenerator {
+    public static final int CELL = 45;
+    public static final int TILE = 90;
+    private static final int TABLE_SIZE = 1 << 16;
+
+    static final int[][][] SHAPES = {
+            LevelFactory.S_1x1, LevelFactory.S_2x2, LevelFactory.S_1x2, LevelFactory.S_1x3, LevelFactory.S_2x1,
+            LevelFactory.S_3x1, LevelFactory.L_TL, LevelFactory.L_TR, LevelFactory.L_BL, LevelFactory.L_BR,
+            LevelFactory.L_TL3x3, LevelFactory.L_TR3x3, LevelFactory.L_BL3x3, LevelFactory.L_BR3x3,
+            LevelFactory.CROSS, LevelFactory.U_UP, LevelFactory.U_DOWN
+    };
+    static final Color[] PALETTE = {
+            Theme.RED_BLOCK, Theme.BLUE_BLOCK, Theme.GREEN_BLOCK, Theme.ORANGE_BLOCK,
+            Theme.YELLOW_BLOCK, Theme.CYAN_BLOCK, Theme.PURPLE_BLOCK, Theme.PINK_BLOCK
+    };
+
+    private final long seed;
+    private int minMoves = 8;
+    private int maxMoves = Integer.MAX_VALUE;
+    private int minTiles = 4, maxTiles = 6;
+    private int attempts = 200;
+    private int climbSteps = 60;
+    private long maxStates = 20_000;
+
+    public LevelGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public LevelGenerator setMoveRange(int minMoves, int maxMoves) {
+        this.minMoves = minMoves;
+        this.maxMoves = maxMoves;
+        return this;
+    }
+
+    /** Arena width and height in tiles, both picked in [min, max]. */
+    public LevelGenerator setArenaSize(int minTiles, int maxTiles) {
+        this.minTiles = minTiles;
+        this.maxTiles = maxTiles;
+        return this;
+    }
+
+    /** Random candidates tried per level before giving up. */
+    public LevelGenerator setAttempts(int attempts) {
+        this.attempts = attempts;
+        return this;
+    }
+
+    /** Solver budget per candidate; candidates that exceed it are discarded. */
+    public LevelGenerator setMaxStates(long maxStates) {
+        this.maxStates = maxStates;
+        return this;
+    }
+
+    /** Generates levels 0..count-1 on the given number of threads. Failed slots are null. */
+    public List<Level> generate(int count, int threads) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Callable<Level>> tasks = new ArrayList<>();
+            for (int k = 0; k < count; k++) {
+                final int index = k;
+                tasks.add(() -> generate(index));
+            }
+            List<Level> levels = new ArrayList<>();
+            for (Future<Level> f : pool.invokeAll(tasks)) {
+                try {
+                    levels.add(f.get());
+                } catch (ExecutionException e) {
+                    e.printStackTrace();
+                    levels.add(null);
+                }
+            }
+            return levels;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Level number `index` of this seed, or null if no candidate met the move range. */
+    public Level generate(int index) {
+        SplittableRandom rnd = new SplittableRandom(seed ^ (index * 0x9E3779B97F4A7C15L));
+        TranspositionTable table = new TranspositionTable(TABLE_SIZE); // reused by every candidate of this level
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            Candidate c = new Candidate(rnd.nextInt(minTiles, maxTiles + 1), rnd.nextInt(minTiles, maxTiles + 1));
+            c.buildBorder(rnd);
+            c.fill(rnd, 0.45 + rnd.nextDouble() * 0.3);
+            int moves = c.solve(table);
+            if (moves < 0) continue;
+
+            for (int step = 0; step < climbSteps && moves < minMoves; step++) {
+                Candidate next = c.mutate(rnd);
+                int m = next.solve(table);
+                if (m >= moves && m <= maxMoves) { c = next; moves = m; }
+            }
+            if (moves >= minMoves && moves <= maxMoves) return new Level(index, c.blocks(), c.gates, moves);
+        }
+        return null;
+    }
+
+    /** A generated level with its proven optimal move count. */
+    public static final class Level {
+        public final int index;
+        public final List<Block> blocks;
+        public final List<ExitGate> gates;
+        public final int moves;
+
+        Level(int index, List<Block> blocks, List<ExitGate> gates, int moves) {
+            this.index = index;
+            this.blocks = blocks;
+            this.gates = gates;
+            this.moves = moves;
+        }
+
+        /** levels/*.txt format, loadable by the editor and LevelFactory.parseLevel. */
+        public String serialize() {
+            return LevelFactory.serializeLevel(blocks, gates);
+        }
+    }
+
+    private static final class Piece {
+        final int[][] shape;
+        final Color color;
+        final Block.Axis axis;
+        final int row, col; // tile coordinates inside the arena
+
+        Piece(int[][] shape, Color color, Block.Axis axis, int row, int col) {
+            this.shape = shape;
+            this.color = color;
+            this.axis = axis;
+            this.row = row;
+            this.col = col;
+        }
+
+        Piece at(int row, int col) { return new Piece(shape, color, axis, row, col); }
+    }
+
+    private final class Candidate {
+        final int w, h; // arena size in tiles
+        final List<ExitGate> gates = new ArrayList<>();
+        final List<Block> walls = new ArrayList<>();
+        final List<Piece> pieces = new ArrayList<>();
+
+        Candidate(int w, int h) {
+            this.w = w;
+            this.h = h;
+        }
+
+        Candidate copy() {
+            Candidate c = new Candidate(w, h);
+            c.gates.addAll(gates);
+            c.walls.addAll(walls);
+            c.pieces.addAll(pieces);
+            return c;
+        }
+
+        // Each side is cut into runs of 1-3 tiles; every run becomes a gate or a wall segment
+        void buildBorder(SplittableRandom rnd) {
+            int right = CELL + w * TILE, bottom = CELL + h * TILE;
+            wall(0, 0, CELL, CELL);
+            wall(right, 0, CELL, CELL);
+            wall(0, bottom, CELL, CELL);
+            wall(right, bottom, CELL, CELL);
+            for (int side = 0; side < 4; side++) {
+                int length = side % 2 == 0 ? w : h;
+                for (int t = 0; t < length; ) {
+                    int run = Math.min(length - t, rnd.nextInt(1, 4));
+                    int from = CELL + t * TILE, size = run * TILE;
+                    boolean gate = rnd.nextInt(100) < 55;
+                    Color color = PALETTE[rnd.nextInt(PALETTE.length)];
+                    switch (side) {
+                        case 0: if (gate) gates.add(new ExitGate(from, 0, size, CELL, color, 0)); else wall(from, 0, size, CELL); break;
+                        case 1: if (gate) gates.add(new ExitGate(right, from, CELL, size, color, 1)); else wall(right, from, CELL, size); break;
+                        case 2: if (gate) gates.add(new ExitGate(from, bottom, size, CELL, color, 2)); else wall(from, bottom, size, CELL); break;
+                        default: if (gate) gates.add(new ExitGate(0, from, CELL, size, color, 3)); else wall(0, from, CELL, size);
+                    }
+                    t += run;
+                }
+            }
+        }
+
+        void wall(int x, int y, int width, int height) {
+            walls.add(new Block(x, y, width, height, LevelFactory.createRect(width, height, CELL), Theme.WALL_COLOR));
+        }
+
+        void fill(SplittableRandom rnd, double ratio) {
+            int target = (int) (w * h * ratio);
+            for (int tries = 0; tries < 200 && filledTiles() < target; tries++) {
+                Piece p = randomPiece(rnd);
+                if (p != null) pieces.add(p);
+            }
+        }
+
+        Candidate mutate(SplittableRandom rnd) {
+            Candidate next = copy();
+            if (next.pieces.isEmpty() || rnd.nextInt(4) == 0) {
+                Piece p = next.randomPiece(rnd);
+                if (p != null) next.pieces.add(p);
+            } else {
+                int i = rnd.nextInt(next.pieces.size());
+                Piece p = next.pieces.remove(i);
+                Piece moved = next.place(rnd, p);
+                next.pieces.add(i, moved == null ? p : moved);
+            }
+            return next;
+        }
+
+        /** A catalogue shape in a color that has a gate wide enough for it, at a free spot; null if none fits. */
+        Piece randomPiece(SplittableRandom rnd) {
+            int[][] shape = SHAPES[rnd.nextInt(SHAPES.length)];
+            List<ExitGate> fitting = new ArrayList<>();
+            for (ExitGate g : gates) {
+                int span = g.side % 2 == 0 ? g.getWidth() : g.getHeight();
+                int extent = (g.side % 2 == 0 ? shape[0].length : shape.length) * TILE;
+                if (extent <= span) fitting.add(g);
+            }
+            if (fitting.isEmpty()) return null;
+            ExitGate gate = fitting.get(rnd.nextInt(fitting.size()));
+            Block.Axis axis = Block.Axis.NONE;
+            if (rnd.nextInt(100) < 15) axis = gate.side % 2 == 0 ? Block.Axis.VERTICAL : Block.Axis.HORIZONTAL;
+            return place(rnd, new Piece(shape, gate.getColor(), axis, 0, 0));
+        }
+
+        Piece place(SplittableRandom rnd, Piece p) {
+            int rows = p.shape.length, cols = p.shape[0].length;
+            if (rows > h || cols > w) return null;
+            boolean[][] used = occupied();
+            for (int tries = 0; tries < 20; tries++) {
+                int r = rnd.nextInt(h - rows + 1), c = rnd.nextInt(w - cols + 1);
+                if (free(used, p.shape, r, c)) return p.at(r, c);
+            }
+            return null;
+        }
+
+        boolean[][] occupied() {
+            boolean[][] used = new boolean[h][w];
+            for (Piece p : pieces) {
+                for (int r = 0; r < p.shape.length; r++) {
+                    for (int c = 0; c < p.shape[0].length; c++) if (p.shape[r][c] == 1) used[p.row + r][p.col + c] = true;
+                }
+            }
+            return used;
+        }
+
+        boolean free(boolean[][] used, int[][] shape, int row, int col) {
+            for (int r = 0; r < shape.length; r++) {
+                for (int c = 0; c < shape[0].length; c++) if (shape[r][c] == 1 && used[row + r][col + c]) return false;
+            }
+            return true;
+        }
+
+        int filledTiles() {
+            int n = 0;
+            for (boolean[] row : occupied()) for (boolean b : row) if (b) n++;
+            return n;
+        }
+
+        List<Block> blocks() {
+            List<Block> blocks = new ArrayList<>();
+            for (Block wall : walls) blocks.add(new Block(wall.getX(), wall.getY(), wall.getWidth(), wall.getHeight(), wall.shapeMatrix, wall.getColor()));
+            for (Piece p : pieces) {
+                blocks.add(new Block(CELL + p.col * TILE, CELL + p.row * TILE, LevelFactory.expandTiles(p.shape), p.color, p.axis));
+            }
+            return blocks;
+        }
+
+        /** Optimal move count, or -1 when unsolvable, undecided within the budget or empty. */
+        int solve(TranspositionTable table) {
+            if (pieces.isEmpty()) return -1;
+            Solution s = new InformedSolver(new Board(blocks(), gates), Heuristics.BLOCKING)
+                    .setMaxStates(maxStates).setTranspositionTable(table).solveIdaStar();
+            return s.isSolvable() ? s.moveCount() : -1;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.blocky.interfaces;
+
+import com.blocky.model.Entity;
+
+public interface IBoundsListener {
+    /** Called after e moved or was resized; the arguments are its bounds before the change. */
+    void boundsChanged(Entity e, int oldX, int oldY, int oldW, int oldH);
+}
@@ -1,8 +1,33 @@
 package com.blocky.interfaces;
 
 import com.blocky.model.Block;
+import java.awt.Point;
 import java.util.List;
 
 public interface IMovementStrategy {
     boolean isValidMove(Block mover, int newX, int newY, List<Block> others);
-}
\ No newline at end of file
+
+    /**
+     * Furthest position a drag from (fromX, fromY) towards (toX, toY) reaches under these rules,
+     * sliding along whatever stops it; the result goes into out. A mover that starts overlapping
+     * something may move until it is free, after which the usual rules apply. This default walks
+     * the drag one pixel at a time through isValidMove; strategies with a closed form override it.
+     */
+    default void sweep(Block mover, int fromX, int fromY, int toX, int toY, List<Block> others, Point out) {
+        boolean free = isValidMove(mover, fromX, fromY, others);
+        int dx = toX - fromX, dy = toY - fromY, steps = Math.max(Math.abs(dx), Math.abs(dy));
+        int x = fromX, y = fromY;
+        for (int i = 1; i <= steps; i++) {
+            int nx = fromX + Math.round((float) dx * i / steps), ny = fromY + Math.round((float) dy * i / steps);
+            boolean valid = isValidMove(mover, nx, ny, others);
+            if (!valid && free) break;
+            free |= valid;
+            x = nx;
+            y = ny;
+        }
+        // Stopped on the way: whichever axis is still open takes the rest of the move
+        while (free && x != toX && isValidMove(mover, x + Integer.signum(toX - x), y, others)) x += Integer.signum(toX - x);
+        while (free && y != toY && isValidMove(mover, x, y + Integer.signum(toY - y), others)) y += Integer.signum(toY - y);
+        out.setLocation(x, y);
+    }
+}
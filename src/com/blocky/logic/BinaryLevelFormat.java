@@ -0,0 +1,286 @@
+package com.blocky.logic;
+
+import com.blocky.model.Block;
+import com.blocky.model.ExitGate;
+import com.blocky.model.ShapeCatalog;
+
+import java.awt.Color;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary form of the levels/*.txt format (levels/*.blv), several times smaller and faster to read.
+ *
+ *   "BLKV", version byte
+ *   palette: count, then 3 bytes RGB per color
+ *   shapes:  count, then rows, cols and the cells as bits, row by row, low bit first
+ *   gates:   count, then x, y, w, h, palette index, side byte
+ *   blocks:  count, then x, y, w, h, shape index, palette index, axis byte
+ *   CRC32 of everything before it, 4 bytes big-endian
+ *
+ * Counts and indices are unsigned varints, coordinates and sizes zigzag varints. Colors and shapes
+ * are stored once per file and referenced by index. Both directions stream; the reader buffers
+ * ahead, so give it a stream that holds just the level. It checks the version and the checksum and
+ * throws IOException on anything it cannot trust.
+ */
+public class BinaryLevelFormat {
+    public static final String EXTENSION = ".blv";
+    public static final int VERSION = 1;
+    private static final byte[] MAGIC = {'B', 'L', 'K', 'V'};
+    private static final Block.Axis[] AXES = Block.Axis.values();
+
+    public static void write(OutputStream out, List<Block> blocks, List<ExitGate> gates) throws IOException {
+        // File-local tables, in first-use order
+        Map<Integer, Integer> palette = new HashMap<>(), shapes = new HashMap<>();
+        List<Integer> colors = new ArrayList<>();
+        List<int[][]> shapeList = new ArrayList<>();
+        for (ExitGate g : gates) index(palette, colors, g.getColor().getRGB() & 0xFFFFFF);
+        for (Block b : blocks) {
+            index(palette, colors, b.getColor().getRGB() & 0xFFFFFF);
+            ShapeCatalog.Shape s = ShapeCatalog.of(b.shapeMatrix);
+            if (shapes.putIfAbsent(s.id, shapes.size()) == null) shapeList.add(s.cells);
+        }
+
+        CRC32 crc = new CRC32();
+        OutputStream buffered = new BufferedOutputStream(out);
+        CheckedOutputStream o = new CheckedOutputStream(buffered, crc);
+        o.write(MAGIC);
+        o.write(VERSION);
+        writeVarint(o, colors.size());
+        for (int rgb : colors) {
+            o.write(rgb >>> 16);
+            o.write(rgb >>> 8);
+            o.write(rgb);
+        }
+        writeVarint(o, shapeList.size());
+        for (int[][] m : shapeList) {
+            int rows = m.length, cols = m[0].length;
+            writeVarint(o, rows);
+            writeVarint(o, cols);
+            int bits = 0, n = 0;
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    if (c < m[r].length && m[r][c] == 1) bits |= 1 << n;
+                    if (++n == 8) {
+                        o.write(bits);
+                        bits = n = 0;
+                    }
+                }
+            }
+            if (n > 0) o.write(bits);
+        }
+        writeVarint(o, gates.size());
+        for (ExitGate g : gates) {
+            writeBounds(o, g.getX(), g.getY(), g.getWidth(), g.getHeight());
+            writeVarint(o, palette.get(g.getColor().getRGB() & 0xFFFFFF));
+            o.write(g.side);
+        }
+        writeVarint(o, blocks.size());
+        for (Block b : blocks) {
+            writeBounds(o, b.getX(), b.getY(), b.getWidth(), b.getHeight());
+            writeVarint(o, shapes.get(ShapeCatalog.of(b.shapeMatrix).id));
+            writeVarint(o, palette.get(b.getColor().getRGB() & 0xFFFFFF));
+            o.write(b.restriction.ordinal());
+        }
+        long sum = crc.getValue();
+        buffered.write((int) (sum >>> 24));
+        buffered.write((int) (sum >>> 16));
+        buffered.write((int) (sum >>> 8));
+        buffered.write((int) sum);
+        buffered.flush();
+    }
+
+    /** Replaces the contents of blocks and gates with the level read from in; leaves them alone when it throws. */
+    public static void read(InputStream in, List<Block> blocks, List<ExitGate> gates) throws IOException {
+        read(new Input(in), blocks, gates);
+    }
+
+    /**
+     * Same, straight from the remaining bytes of buf (e.g. a slice of a mapped LevelPack) without
+     * copying them; buf's position ends up after the level.
+     */
+    public static void read(ByteBuffer buf, List<Block> blocks, List<ExitGate> gates) throws IOException {
+        read(new Input(buf), blocks, gates);
+    }
+
+    // Decodes into its own lists; blocks and gates are only touched once the checksum matched
+    private static void read(Input i, List<Block> blocks, List<ExitGate> gates) throws IOException {
+        for (byte m : MAGIC) if (readByte(i) != m) throw new IOException("Not a binary level");
+        int version = readByte(i);
+        if (version != VERSION) throw new IOException("Unsupported binary level version " + version);
+
+        Color[] palette = new Color[readCount(i)];
+        for (int p = 0; p < palette.length; p++) palette[p] = new Color(readByte(i), readByte(i), readByte(i));
+        int[][][] shapes = new int[readCount(i)][][];
+        for (int s = 0; s < shapes.length; s++) {
+            int rows = readCount(i), cols = readCount(i);
+            if ((long) rows * cols > 1 << 20) throw new IOException("Implausible shape " + rows + "x" + cols);
+            int[][] m = new int[rows][cols];
+            int bits = 0, n = 8;
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    if (n == 8) {
+                        bits = readByte(i);
+                        n = 0;
+                    }
+                    m[r][c] = (bits >>> n++) & 1;
+                }
+            }
+            shapes[s] = ShapeCatalog.of(m).cells;
+        }
+        int gateCount = readCount(i);
+        List<ExitGate> readGates = new ArrayList<>(gateCount);
+        for (int g = 0; g < gateCount; g++) {
+            int x = readZigzag(i), y = readZigzag(i), w = readZigzag(i), h = readZigzag(i);
+            Color c = palette[readIndex(i, palette.length)];
+            readGates.add(new ExitGate(x, y, w, h, c, readByte(i)));
+        }
+        int blockCount = readCount(i);
+        List<Block> readBlocks = new ArrayList<>(blockCount);
+        for (int b = 0; b < blockCount; b++) {
+            int x = readZigzag(i), y = readZigzag(i), w = readZigzag(i), h = readZigzag(i);
+            int[][] m = shapes[readIndex(i, shapes.length)];
+            Color c = palette[readIndex(i, palette.length)];
+            readBlocks.add(new Block(x, y, w, h, m, c, AXES[readIndex(i, AXES.length)]));
+        }
+        long expected = i.checksum();
+        long stored = ((long) readByte(i) << 24) | (readByte(i) << 16) | (readByte(i) << 8) | readByte(i);
+        if (stored != expected) throw new IOException("Binary level checksum mismatch");
+        blocks.clear();
+        gates.clear();
+        blocks.addAll(readBlocks);
+        gates.addAll(readGates);
+    }
+
+    /** levels/*.txt content to the binary format. */
+    public static byte[] fromText(String text) throws IOException {
+        List<Block> blocks = new ArrayList<>();
+        List<ExitGate> gates = new ArrayList<>();
+        LevelFactory.parseLevel(text, blocks, gates);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, blocks, gates);
+        return out.toByteArray();
+    }
+
+    /** Binary content to GATE/BLOCK text lines. */
+    public static String toText(byte[] data) throws IOException {
+        List<Block> blocks = new ArrayList<>();
+        List<ExitGate> gates = new ArrayList<>();
+        read(new ByteArrayInputStream(data), blocks, gates);
+        return LevelFactory.serializeLevel(blocks, gates);
+    }
+
+    private static void index(Map<Integer, Integer> palette, List<Integer> colors, int rgb) {
+        if (palette.putIfAbsent(rgb, palette.size()) == null) colors.add(rgb);
+    }
+
+    private static void writeBounds(OutputStream o, int x, int y, int w, int h) throws IOException {
+        writeVarint(o, (x << 1) ^ (x >> 31));
+        writeVarint(o, (y << 1) ^ (y >> 31));
+        writeVarint(o, (w << 1) ^ (w >> 31));
+        writeVarint(o, (h << 1) ^ (h >> 31));
+    }
+
+    private static void writeVarint(OutputStream o, int v) throws IOException {
+        while ((v & ~0x7F) != 0) {
+            o.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        o.write(v);
+    }
+
+    // Own buffer instead of Buffered/CheckedInputStream: those lock and update the CRC once per byte.
+    // Over a ByteBuffer it reads the buffer in place.
+    private static final class Input {
+        final InputStream in;
+        final ByteBuffer src;
+        final byte[] buf;
+        final CRC32 crc = new CRC32();
+        int pos, lim, mark; // bytes before mark (buffer positions for src) are in the CRC already
+
+        Input(InputStream in) {
+            this.in = in;
+            this.src = null;
+            this.buf = new byte[8192];
+        }
+
+        Input(ByteBuffer src) {
+            this.in = null;
+            this.src = src;
+            this.buf = null;
+            this.mark = src.position();
+        }
+
+        int read() throws IOException {
+            if (src != null) {
+                if (!src.hasRemaining()) throw new EOFException("Truncated binary level");
+                return src.get() & 0xFF;
+            }
+            if (pos == lim) {
+                crc.update(buf, mark, pos - mark);
+                pos = mark = 0;
+                lim = Math.max(0, in.read(buf, 0, buf.length));
+                if (lim == 0) throw new EOFException("Truncated binary level");
+            }
+            return buf[pos++] & 0xFF;
+        }
+
+        // CRC of everything read so far
+        long checksum() {
+            if (src != null) {
+                ByteBuffer read = src.duplicate();
+                read.limit(src.position()).position(mark);
+                crc.update(read);
+                mark = src.position();
+            } else {
+                crc.update(buf, mark, pos - mark);
+                mark = pos;
+            }
+            return crc.getValue();
+        }
+    }
+
+    private static int readByte(Input i) throws IOException {
+        return i.read();
+    }
+
+    private static int readVarint(Input i) throws IOException {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte(i);
+            v |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static int readZigzag(Input i) throws IOException {
+        int v = readVarint(i);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    // Counts size arrays, so a corrupt file must not ask for a huge one before the checksum is seen
+    private static int readCount(Input i) throws IOException {
+        int n = readVarint(i);
+        if (n < 0 || n > 1 << 20) throw new IOException("Implausible count " + n);
+        return n;
+    }
+
+    private static int readIndex(Input i, int size) throws IOException {
+        int v = readVarint(i);
+        if (v < 0 || v >= size) throw new IOException("Index " + v + " out of range");
+        return v;
+    }
+}
@@ -0,0 +1,79 @@
+package com.blocky.logic;
+
+import java.util.Arrays;
+
+/**
+ * Occupancy of a cell lattice as one long per row (bit c = column c, so at most 64 columns).
+ * Shapes are passed as row masks, placing a shape at (row, col) shifts each mask left by col.
+ */
+public final class BitBoard {
+    public static final int MAX_COLS = 64;
+
+    private final long[] rows;
+
+    public BitBoard(int rowCount) {
+        this.rows = new long[rowCount];
+    }
+
+    public int rowCount() { return rows.length; }
+    public long row(int r) { return rows[r]; }
+    public void clear() { Arrays.fill(rows, 0L); }
+
+    public void copyFrom(BitBoard other) {
+        System.arraycopy(other.rows, 0, rows, 0, rows.length);
+    }
+
+    public void or(BitBoard other) {
+        for (int r = 0; r < rows.length; r++) rows[r] |= other.rows[r];
+    }
+
+    public void set(int r, int c) { rows[r] |= 1L << c; }
+    public void clear(int r, int c) { rows[r] &= ~(1L << c); }
+    public boolean get(int r, int c) { return (rows[r] & (1L << c)) != 0; }
+
+    /** Marks columns [fromCol, toCol] on rows [fromRow, toRow], clipped to the board. */
+    public void fillRect(int fromRow, int toRow, int fromCol, int toCol) {
+        fromRow = Math.max(0, fromRow);
+        toRow = Math.min(rows.length - 1, toRow);
+        fromCol = Math.max(0, fromCol);
+        toCol = Math.min(MAX_COLS - 1, toCol);
+        if (fromRow > toRow || fromCol > toCol) return;
+        long mask = span(toCol - fromCol + 1) << fromCol;
+        for (int r = fromRow; r <= toRow; r++) rows[r] |= mask;
+    }
+
+    public void or(int row, int col, long[] shape) {
+        for (int r = 0; r < shape.length; r++) rows[row + r] |= shape[r] << col;
+    }
+
+    public void andNot(int row, int col, long[] shape) {
+        for (int r = 0; r < shape.length; r++) rows[row + r] &= ~(shape[r] << col);
+    }
+
+    /** Caller guarantees the shape lies inside the board (row/col >= 0, fits in rows and 64 columns). */
+    public boolean intersects(int row, int col, long[] shape) {
+        for (int r = 0; r < shape.length; r++) {
+            if ((rows[row + r] & (shape[r] << col)) != 0) return true;
+        }
+        return false;
+    }
+
+    public static long span(int width) {
+        return width >= 64 ? -1L : (1L << width) - 1;
+    }
+
+    public static long[] rowMasks(int[][] matrix) {
+        long[] masks = new long[matrix.length];
+        for (int r = 0; r < matrix.length; r++) {
+            if (matrix[r].length > MAX_COLS) throw new IllegalArgumentException("Shape wider than " + MAX_COLS + " cells");
+            for (int c = 0; c < matrix[r].length; c++) if (matrix[r][c] == 1) masks[r] |= 1L << c;
+        }
+        return masks;
+    }
+
+    public static long[] rectMask(int height, int width) {
+        long[] masks = new long[height];
+        Arrays.fill(masks, span(width));
+        return masks;
+    }
+}
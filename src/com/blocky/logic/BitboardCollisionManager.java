@@ -0,0 +1,167 @@
+package com.blocky.logic;
+
+import com.blocky.interfaces.IMovementStrategy;
+import com.blocky.model.Block;
+import java.awt.Point;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Same rules as CollisionManager, evaluated on bitboards. Obstacles are rasterized onto a lattice
+ * anchored at the mover's own position: a lattice cell is marked when the mover's 2px-reduced cell
+ * would touch the obstacle, so the final test is a few shift-and-AND operations per row.
+ * Walls are tested against the mover's bounding box, other blocks against its shape, exactly like
+ * the reference implementation.
+ *
+ * The rasterized boards are kept per lattice (position modulo CELL_SIZE, the last LATTICES used)
+ * with a count per cell, so a call only takes off and puts back the obstacles that moved, changed
+ * or left the list since the previous call on that lattice; a static layout is rasterized once.
+ * Keeps scratch boards, so use one instance per thread.
+ */
+public class BitboardCollisionManager implements IMovementStrategy {
+    private static final int CELL = Block.CELL_SIZE;
+    private static final int TOLERANCE = 2;
+    // Playfield limits from CollisionManager.isValidMove
+    private static final int MIN_X = 0, MIN_Y = 60, MAX_X = 1000, MAX_Y = 1200;
+    private static final int ROWS = MAX_Y / CELL + 3;
+    private static final int COLS = BitBoard.MAX_COLS;
+    private static final int LATTICES = 8; // snapping uses one, a few more cover tests and tools
+
+    private final Map<Integer, Lattice> lattices = new LinkedHashMap<Integer, Lattice>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Lattice> eldest) { return size() > LATTICES; }
+    };
+    private Lattice current;
+    private final SweptCollision sweeper = new SweptCollision(); // drags: the rules are CollisionManager's
+
+    @Override
+    public boolean isValidMove(Block mover, int newX, int newY, List<Block> others) {
+        if (!withinPlayfield(mover, newX, newY)) return false;
+        prepare(newX, newY, others);
+        return fits(mover, newX, newY);
+    }
+
+    @Override
+    public void sweep(Block mover, int fromX, int fromY, int toX, int toY, List<Block> others, Point out) {
+        sweeper.sweep(mover, fromX, fromY, toX, toY, others);
+        out.setLocation(sweeper.x, sweeper.y);
+    }
+
+    public static boolean withinPlayfield(Block mover, int newX, int newY) {
+        return newX >= MIN_X && newY >= MIN_Y && newX + mover.getWidth() <= MAX_X && newY + mover.getHeight() <= MAX_Y;
+    }
+
+    /**
+     * Brings the obstacles for movers whose position is congruent to (anchorX, anchorY) modulo
+     * CELL_SIZE up to date with others. Several fits() calls on that lattice can reuse one prepare().
+     */
+    public void prepare(int anchorX, int anchorY, List<Block> others) {
+        int phaseX = Math.floorMod(anchorX, CELL), phaseY = Math.floorMod(anchorY, CELL);
+        Integer key = phaseY * CELL + phaseX;
+        current = lattices.get(key);
+        if (current == null) {
+            current = new Lattice(phaseX - CELL, phaseY - CELL);
+            lattices.put(key, current);
+        }
+        current.sync(others);
+    }
+
+    /** Valid only for positions on the lattice of the last prepare() call. */
+    public boolean fits(Block mover, int newX, int newY) {
+        if (!withinPlayfield(mover, newX, newY)) return false;
+        int col = (newX - current.originX) / CELL;
+        int row = (newY - current.originY) / CELL;
+        return !current.walls.intersects(row, col, mover.getBoundsMasks()) && !current.solids.intersects(row, col, mover.getRowMasks());
+    }
+
+    // Obstacles rasterized for one lattice; a cell stays marked while any obstacle covers it
+    private static final class Lattice {
+        final int originX, originY;
+        final BitBoard walls = new BitBoard(ROWS), solids = new BitBoard(ROWS);
+        final short[] wallCount = new short[ROWS * COLS], solidCount = new short[ROWS * COLS];
+        final Map<Block, Placed> placed = new IdentityHashMap<>();
+        int generation;
+
+        Lattice(int originX, int originY) {
+            this.originX = originX;
+            this.originY = originY;
+        }
+
+        void sync(List<Block> others) {
+            generation++;
+            for (int i = 0; i < others.size(); i++) {
+                Block o = others.get(i);
+                Placed p = placed.get(o);
+                if (p == null) {
+                    p = new Placed(o);
+                    placed.put(o, p);
+                    apply(p, 1);
+                } else if (!p.matches(o)) {
+                    apply(p, -1);
+                    p.capture(o);
+                    apply(p, 1);
+                }
+                p.seen = generation;
+            }
+            for (Iterator<Placed> it = placed.values().iterator(); it.hasNext(); ) {
+                Placed p = it.next();
+                if (p.seen != generation) {
+                    apply(p, -1);
+                    it.remove();
+                }
+            }
+        }
+
+        private void apply(Placed p, int delta) {
+            if (p.w <= 0 || p.h <= 0) return;
+            if (p.obstacle) {
+                mark(walls, wallCount, p.x, p.y, p.w, p.h, delta);
+                return;
+            }
+            int[][] m = p.shape;
+            for (int r = 0; r < m.length; r++)
+                for (int c = 0; c < m[r].length; c++)
+                    if (m[r][c] == 1) mark(solids, solidCount, p.x + c * CELL, p.y + r * CELL, CELL, CELL, delta);
+        }
+
+        // Lattice cell c is hit when [originX + c*CELL + 2, originX + (c+1)*CELL - 2) overlaps [x, x + w)
+        private void mark(BitBoard board, short[] count, int x, int y, int w, int h, int delta) {
+            int cLo = Math.max(0, Math.floorDiv(x - originX - (CELL - TOLERANCE), CELL) + 1);
+            int cHi = Math.min(COLS - 1, -Math.floorDiv(-(x + w - originX - TOLERANCE), CELL) - 1);
+            int rLo = Math.max(0, Math.floorDiv(y - originY - (CELL - TOLERANCE), CELL) + 1);
+            int rHi = Math.min(ROWS - 1, -Math.floorDiv(-(y + h - originY - TOLERANCE), CELL) - 1);
+            for (int r = rLo; r <= rHi; r++) {
+                for (int c = cLo; c <= cHi; c++) {
+                    int n = count[r * COLS + c] += delta;
+                    if (n > 0) board.set(r, c); else board.clear(r, c);
+                }
+            }
+        }
+    }
+
+    // An obstacle as it was rasterized: position, size, shape and kind
+    private static final class Placed {
+        int x, y, w, h, seen;
+        int[][] shape;
+        boolean obstacle;
+
+        Placed(Block b) { capture(b); }
+
+        void capture(Block b) {
+            x = b.getX();
+            y = b.getY();
+            w = b.getWidth();
+            h = b.getHeight();
+            shape = b.shapeMatrix;
+            obstacle = b.isObstacle();
+        }
+
+        // Shape matrices are replaced, never edited, so identity says whether the shape changed
+        boolean matches(Block b) {
+            return x == b.getX() && y == b.getY() && w == b.getWidth() && h == b.getHeight() && shape == b.shapeMatrix && obstacle == b.isObstacle();
+        }
+    }
+}
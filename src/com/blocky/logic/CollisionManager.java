@@ -2,33 +2,36 @@ package com.blocky.logic;
 
 import com.blocky.interfaces.IMovementStrategy;
 import com.blocky.model.Block;
-import java.awt.Rectangle;
+import java.awt.Point;
 import java.util.List;
 
 public class CollisionManager implements IMovementStrategy {
+    private final SweptCollision sweeper = new SweptCollision(); // same rules in closed form, for drags
 
     @Override
     public boolean isValidMove(Block mover, int newX, int newY, List<Block> others) {
         // 1. Limite Ecran (Relaxate)
+        int w = mover.getWidth(), h = mover.getHeight();
         if (newX < 0 || newY < 60) return false;
-        if (newX + mover.getBounds().width > 1000) return false;
-        if (newY + mover.getBounds().height > 1200) return false;
+        if (newX + w > 1000) return false;
+        if (newY + h > 1200) return false;
 
         // 2. HITBOX REDUS (Secretul pentru a intra usor in porti)
         // Verificăm coliziunea cu un dreptunghi cu 4 pixeli mai mic decat piesa.
         // Asta iti permite sa "stergi" peretii fara sa te blochezi instant.
-        Rectangle looseBounds = new Rectangle(newX + 2, newY + 2, mover.getBounds().width - 4, mover.getBounds().height - 4);
+        // (plain ints instead of Rectangles: this runs several times per drag event)
+        int looseX = newX + 2, looseY = newY + 2, looseW = w - 4, looseH = h - 4;
 
-        for (Block other : others) {
-            Rectangle otherBounds = other.getBounds();
+        for (int i = 0; i < others.size(); i++) {
+            Block other = others.get(i);
 
             // Dacă bounding box-urile nu se ating, ignorăm
-            if (!looseBounds.intersects(otherBounds)) continue;
+            if (!intersects(looseX, looseY, looseW, looseH, other.getX(), other.getY(), other.getWidth(), other.getHeight())) continue;
 
             // STRICT COLLISION FOR WALLS (Fix for "passing through walls")
             // If the obstacle is a wall (gray), we treat it as a solid block 
             // and deny movement immediately upon intersection, skipping complex pixel checks.
-            if (other.getColor().equals(com.blocky.view.Theme.WALL_COLOR)) {
+            if (other.isObstacle()) {
                 return false;
             }
 
@@ -40,6 +43,18 @@ public class CollisionManager implements IMovementStrategy {
         return true;
     }
 
+    @Override
+    public void sweep(Block mover, int fromX, int fromY, int toX, int toY, List<Block> others, Point out) {
+        sweeper.sweep(mover, fromX, fromY, toX, toY, others);
+        out.setLocation(sweeper.x, sweeper.y);
+    }
+
+    /** Rectangle.intersects without the Rectangles: empty rectangles never intersect. */
+    public static boolean intersects(int x1, int y1, int w1, int h1, int x2, int y2, int w2, int h2) {
+        if (w1 <= 0 || h1 <= 0 || w2 <= 0 || h2 <= 0) return false;
+        return x2 < x1 + w1 && y2 < y1 + h1 && x2 + w2 > x1 && y2 + h2 > y1;
+    }
+
     private boolean checkPixelPerfectCollision(Block mover, int nextX, int nextY, Block other) {
         int cellSize = Block.CELL_SIZE;
         // Toleranță la suprapunere (permitem 2px overlap)
@@ -25,7 +25,11 @@ public class GameEngine {
     public final int TOTAL_LEVELS = 12;
     public int coins = 0;
     public long timeRemaining;
-    private long lastTimeUpdate;
+    private long timerCarryNanos; // sub-millisecond part of the ticks not yet taken off timeRemaining
+    /** Held by GameLoop for every simulation step and by the EDT for input; rendering draws the published Frame instead. */
+    public final Object lock = new Object();
+    /** Bumped whenever walls or gates may have changed (level load, editor edit); BoardPanel re-renders its static layer then. */
+    public int layoutVersion;
     public Block selectedBlock = null; 
     public ExitGate selectedGate = null; 
     private int dragOffsetX, dragOffsetY;
@@ -34,6 +38,21 @@ public class GameEngine {
     private int startGateX, startGateY;
     private int lockedAxis = 0;
     private static final int DRAG_THRESHOLD = 10;
+    private static final int EXIT_SPEED = 8; // px per tick
+    // Drag scratch: obstacle list refilled on every drag event, gate obstacles cached per mover color
+    private final List<Block> dragObstacles = new ArrayList<>();
+    private final java.awt.Point swept = new java.awt.Point();
+    private final List<List<Block>> gateObstaclesByColor = new ArrayList<>(); // by color id
+    private int gateObstaclesVersion = -1;
+
+    // --- SPATIAL INDEX ---
+    // Broad phase for picking, collision and gate queries; follows moves itself, see syncIndex()
+    private final SpatialGrid<Block> blockIndex = new SpatialGrid<>();
+    private final SpatialGrid<ExitGate> gateIndex = new SpatialGrid<>();
+    private int indexedVersion = -1;
+    private final List<Block> nearbyBlocks = new ArrayList<>();
+    private final List<ExitGate> nearbyGates = new ArrayList<>();
+    private final List<Block> wallBlocks = new ArrayList<>(), movableBlocks = new ArrayList<>(); // blocks by kind, in list order
     private IMovementStrategy movementStrategy;
     private List<IObserver> observers;
 
@@ -43,21 +62,156 @@ public class GameEngine {
     public boolean showReward = false;
     private Preferences prefs;
     public String currentCustomLevelName; 
+    public com.blocky.generator.DailyPuzzle currentDailyPuzzle; // set while playing a daily puzzle
+    public volatile java.time.LocalDate dailyGenerating; // a day's puzzle being generated in the background, else null
+    private final java.util.concurrent.ExecutorService dailyExecutor = java.util.concurrent.Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "blocky-daily");
+        t.setDaemon(true);
+        return t;
+    });
     public String currentEditingLevelName; // For overwriting saves
+
+    // --- HINTS ---
+    public com.blocky.solver.Hint currentHint;
+    public boolean hintPending = false;
+    public com.blocky.solver.DeadlockDetector.Result solvability; // latest verdict for the live position, null until one arrives
+    private final HintService hints = new HintService();
+    
+    // --- DAMAGE ---
+    // Level-space area changed since the last publishFrame(), everything while fullDamage is set;
+    // publishFrame() moves it to the published* fields, which BoardPanel takes with the frame
+    private final Rectangle damage = new Rectangle(), publishedDamage = new Rectangle();
+    private boolean damaged, fullDamage = true, publishedDamaged, publishedFull;
+    private static final Rectangle HUD_AREA = new Rectangle(0, 0, 800, 60);
+    // Gate teeth slide TEETH_STEP px every TEETH_TICKS steps (50 px/s): the gates span the board, so
+    // damaging them every step would repaint nearly all of it every step
+    public static final int TEETH_TICKS = 6, TEETH_STEP = 5;
+    private int teethTicks;
+    public int teethPhase; // 0 .. StaticLayer.TEETH_PHASES - 1
     
+    // --- SAVED LEVELS ---
+    private LevelPack pack;
+    private long packStamp;
+    private List<String> savedLevels; // see getSavedLevels
+    private long savedLevelsStamp;
+    private LevelPack savedLevelsPack;
+
     // --- UNDO/REDO ---
-    private Stack<String> undoStack = new Stack<>();
-    private Stack<String> redoStack = new Stack<>();
+    // Editor states as block columns plus copied gates; a snapshot is one array copy, not a text round trip
+    private static final class Snapshot {
+        final BlockStore blocks;
+        final List<ExitGate> gates = new ArrayList<>();
+
+        Snapshot(BlockStore blocks, List<ExitGate> gates) {
+            this.blocks = blocks;
+            for (ExitGate g : gates) this.gates.add(new ExitGate(g.getX(), g.getY(), g.getWidth(), g.getHeight(), g.getColor(), g.side));
+        }
+    }
+    private final BlockStore store = new BlockStore(); // scratch capture, copied into each snapshot
+    private Stack<Snapshot> undoStack = new Stack<>();
+    private Stack<Snapshot> redoStack = new Stack<>();
+
+    // --- FRAME ---
+    /**
+     * Everything BoardPanel draws, filled under lock by publishFrame(). The blocks are captured into
+     * a BlockStore and mirrored into Block objects the frame owns, like its gates and particles, so
+     * a frame is drawn on any thread while the next step runs and a step never shows half done.
+     * Frames are recycled: hold one with acquireFrame() while drawing it, and do not modify it.
+     */
+    public static final class Frame {
+        public GameState state;
+        public int layoutVersion, currentLevel, coins, maxUnlockedLevel;
+        public long timeRemaining;
+        public int teethPhase;
+        public boolean showReward, hintPending, hasSave;
+        public String currentCustomLevelName;
+        public java.time.LocalDate dailyGenerating;
+        public com.blocky.solver.Hint currentHint;
+        public com.blocky.solver.DeadlockDetector.Result solvability;
+        /** The blocks in list (drawing) order, and the same objects split into walls and the rest. */
+        public final List<Block> blocks, walls, movables;
+        public final List<ExitGate> gates;
+        public final List<Particle> particles;
+        /** The frame's selectedBlock, hint block and stuck block; null when there is none. */
+        public Block selectedBlock, hintBlock, stuckBlock;
+        public ExitGate selectedGate;
+
+        private final BlockStore store = new BlockStore();
+        private final List<Block> blockList = new ArrayList<>(), wallList = new ArrayList<>(), movableList = new ArrayList<>();
+        private final List<ExitGate> gateList = new ArrayList<>();
+        private final List<Particle> particleList = new ArrayList<>();
+        private final java.util.concurrent.atomic.AtomicInteger readers = new java.util.concurrent.atomic.AtomicInteger();
+
+        private Frame() {
+            blocks = java.util.Collections.unmodifiableList(blockList);
+            walls = java.util.Collections.unmodifiableList(wallList);
+            movables = java.util.Collections.unmodifiableList(movableList);
+            gates = java.util.Collections.unmodifiableList(gateList);
+            particles = java.util.Collections.unmodifiableList(particleList);
+        }
+
+        // Allocates only for blocks, gates and particles beyond the ones this frame already holds
+        private void fill(GameEngine e) {
+            state = e.state;
+            layoutVersion = e.layoutVersion;
+            currentLevel = e.currentLevel;
+            coins = e.coins;
+            maxUnlockedLevel = e.maxUnlockedLevel;
+            timeRemaining = e.timeRemaining;
+            teethPhase = e.teethPhase;
+            showReward = e.showReward;
+            hintPending = e.hintPending;
+            hasSave = e.hasSave();
+            currentCustomLevelName = e.currentCustomLevelName;
+            dailyGenerating = e.dailyGenerating;
+            currentHint = e.currentHint;
+            solvability = e.solvability;
+
+            store.capture(e.blocks);
+            int n = store.size();
+            while (blockList.size() > n) blockList.remove(blockList.size() - 1);
+            while (blockList.size() < n) blockList.add(store.toBlock(blockList.size()));
+            wallList.clear();
+            movableList.clear();
+            selectedBlock = hintBlock = stuckBlock = null;
+            for (int i = 0; i < n; i++) {
+                Block b = e.blocks.get(i), c = blockList.get(i);
+                store.copyTo(i, c);
+                (c.getKind() == Entity.Kind.WALL ? wallList : movableList).add(c);
+                if (b == e.selectedBlock) selectedBlock = c;
+                if (currentHint != null && b == currentHint.block) hintBlock = c;
+                if (solvability != null && b == solvability.stuck) stuckBlock = c;
+            }
+
+            List<ExitGate> g = e.gates;
+            while (gateList.size() > g.size()) gateList.remove(gateList.size() - 1);
+            while (gateList.size() < g.size()) gateList.add(g.get(gateList.size()).copy());
+            selectedGate = null;
+            for (int i = 0; i < g.size(); i++) {
+                gateList.get(i).copyFrom(g.get(i));
+                if (g.get(i) == e.selectedGate) selectedGate = gateList.get(i);
+            }
+
+            List<Particle> p = e.particles;
+            while (particleList.size() > p.size()) particleList.remove(particleList.size() - 1);
+            while (particleList.size() < p.size()) particleList.add(p.get(particleList.size()).copy());
+            for (int i = 0; i < p.size(); i++) particleList.get(i).copyFrom(p.get(i));
+        }
+    }
+    private final List<Frame> frames = new ArrayList<>(); // published one, ones being drawn, spares; see publishFrame
+    private volatile Frame frame;
+    private boolean frameStale = true; // something drawn changed since the last publishFrame()
 
     private GameEngine() {
         blocks = new ArrayList<>();
         gates = new ArrayList<>();
         particles = new ArrayList<>();
         observers = new ArrayList<>();
-        movementStrategy = new CollisionManager();
-        lastTimeUpdate = System.currentTimeMillis();
+        // -Dblocky.collision=bitboard selects the bitboard implementation (same answers, no allocation)
+        movementStrategy = "bitboard".equals(System.getProperty("blocky.collision")) ? new BitboardCollisionManager() : new CollisionManager();
         prefs = Preferences.userNodeForPackage(GameEngine.class);
         loadProgress();
+        publishFrame();
     }
 
     public static synchronized GameEngine getInstance() {
@@ -132,123 +286,190 @@ public class GameEngine {
         selectedBlock = null;
         selectedGate = null;
         
-        // Check Blocks (Reverse order for top-most)
-        for (int i = blocks.size() - 1; i >= 0; i--) {
-            Block b = blocks.get(i);
-            if (b.getBounds().contains(mouseX, mouseY)) {
-                selectedBlock = b;
-                startBlockX = b.getX();
-                startBlockY = b.getY();
-                return;
-            }
+        syncIndex();
+        // Check Blocks (top-most first)
+        Block b = blockIndex.pick(mouseX, mouseY, true, x -> x.getBounds().contains(mouseX, mouseY));
+        if (b != null) {
+            selectedBlock = b;
+            startBlockX = b.getX();
+            startBlockY = b.getY();
+            return;
         }
         
-        // Check Gates
-        for (ExitGate g : gates) {
-            if (g.getBounds().contains(mouseX, mouseY)) {
-                selectedGate = g;
-                startGateX = g.getX();
-                startGateY = g.getY();
-                return;
-            }
+        // Check Gates (first in the list)
+        ExitGate g = gateIndex.pick(mouseX, mouseY, false, x -> x.getBounds().contains(mouseX, mouseY));
+        if (g != null) {
+            selectedGate = g;
+            startGateX = g.getX();
+            startGateY = g.getY();
         }
     }
 
-    public List<String> getSavedLevels() {
+    /**
+     * Loose levels/*.txt and *.blv files, then the levels of levels/levels.pack that no loose file
+     * overrides. Rebuilt only when the directory or the pack changes; the pack part is a view that
+     * reads names from the mapped index for the rows asked for.
+     */
+    public synchronized List<String> getSavedLevels() {
         java.io.File dir = new java.io.File("levels");
-        if (!dir.exists()) return new ArrayList<>();
-        String[] files = dir.list((d, name) -> name.endsWith(".txt"));
-        if (files == null) return new ArrayList<>();
-        List<String> levels = new ArrayList<>();
-        for (String f : files) levels.add(f.substring(0, f.length() - 4));
-        return levels;
+        LevelPack p = pack();
+        long stamp = dir.lastModified();
+        if (savedLevels != null && stamp == savedLevelsStamp && p == savedLevelsPack) return savedLevels;
+        String[] files = dir.list((d, name) -> name.endsWith(".txt") || name.endsWith(BinaryLevelFormat.EXTENSION));
+        List<String> loose = new ArrayList<>();
+        if (files != null) {
+            for (String f : files) {
+                String name = f.substring(0, f.lastIndexOf('.'));
+                if (!loose.contains(name) && (p == null || p.find(name) < 0)) loose.add(name); // pack rows show overridden names
+            }
+        }
+        savedLevels = new java.util.AbstractList<String>() {
+            @Override public String get(int i) {
+                if (i < loose.size()) return loose.get(i);
+                synchronized (GameEngine.this) {
+                    return p.isOpen() ? p.name(i - loose.size()) : ""; // pack replaced since: blank until the list is rebuilt
+                }
+            }
+            @Override public int size() { return loose.size() + (p == null ? 0 : p.size()); }
+        };
+        savedLevelsStamp = stamp;
+        savedLevelsPack = p;
+        return savedLevels;
+    }
+
+    // The saved level list is read by the renderer without lock, so it and the pack have their own monitor (this)
+    private synchronized void forgetSavedLevels() { savedLevels = null; }
+
+    // levels/levels.pack, reopened when the file changes; null when there is none
+    private synchronized LevelPack pack() {
+        java.io.File file = new java.io.File("levels", "levels" + LevelPack.EXTENSION);
+        long stamp = file.lastModified(); // 0 when missing
+        if (stamp != packStamp) {
+            if (pack != null) {
+                try { pack.close(); } catch (java.io.IOException e) { e.printStackTrace(); }
+            }
+            pack = null;
+            packStamp = stamp;
+            if (stamp != 0) {
+                try { pack = LevelPack.open(file); } catch (java.io.IOException e) { e.printStackTrace(); }
+            }
+        }
+        return pack;
+    }
+
+    // Loose file of a saved level, or null when it only lives in the pack (or nowhere)
+    private java.io.File looseLevelFile(String name) {
+        java.io.File binary = new java.io.File("levels", name + BinaryLevelFormat.EXTENSION);
+        if (binary.exists()) return binary;
+        java.io.File text = new java.io.File("levels", name + ".txt");
+        return text.exists() ? text : null;
+    }
+
+    /**
+     * File a level is saved to: its loose file when it has one, else a new one, text unless
+     * -Dblocky.levelFormat=binary. Saving a pack level this way overrides it.
+     */
+    private java.io.File levelFile(String name) {
+        java.io.File f = looseLevelFile(name);
+        if (f != null) return f;
+        String ext = "binary".equals(System.getProperty("blocky.levelFormat")) ? BinaryLevelFormat.EXTENSION : ".txt";
+        return new java.io.File("levels", name + ext);
     }
 
+    /** Difficulty of a saved level, or null while it is still being rated in the background. */
+    public synchronized com.blocky.solver.Difficulty getSavedLevelDifficulty(String name) {
+        java.io.File f = looseLevelFile(name);
+        LevelPack p = f == null ? pack() : null;
+        int i = p == null ? -1 : p.find(name);
+        if (i < 0) return com.blocky.solver.DifficultyEstimator.getInstance().peek(levelFile(name));
+        com.blocky.solver.Difficulty d = p.difficulty(i);
+        if (d != null) return d;
+        return com.blocky.solver.DifficultyEstimator.getInstance().peek(p.hash(i), (b, g) -> {
+            if (!readPackLevel(name, b, g)) throw new java.io.FileNotFoundException(name + " is no longer in the level pack");
+        });
+    }
+
+    // Reads a level from the pack as it is now, under the monitor that replaces it (a replaced pack is
+    // unmapped); false when the pack does not have it
+    private synchronized boolean readPackLevel(String name, List<Block> blocks, List<ExitGate> gates) throws java.io.IOException {
+        LevelPack p = pack();
+        int i = p == null ? -1 : p.find(name);
+        if (i < 0) return false;
+        p.read(i, blocks, gates);
+        return true;
+    }
+
+    /** Deletes the loose files of a level, in every format; levels that only live in the pack stay. */
     public void deleteSavedLevel(String name) {
-        java.io.File file = new java.io.File("levels", name + ".txt");
-        if(file.exists()) file.delete();
+        new java.io.File("levels", name + BinaryLevelFormat.EXTENSION).delete();
+        new java.io.File("levels", name + ".txt").delete();
+        forgetSavedLevels();
         notifyObservers();
     }
     
     public void saveState() {
-        undoStack.push(serializeState());
+        layoutVersion++; // every editor edit saves the state just before changing it
+        undoStack.push(snapshot());
         redoStack.clear();
     }
 
     public void undo() {
         if (undoStack.isEmpty()) return;
-        redoStack.push(serializeState());
+        redoStack.push(snapshot());
         restoreState(undoStack.pop());
         notifyObservers();
     }
 
     public void redo() {
         if (redoStack.isEmpty()) return;
-        undoStack.push(serializeState());
+        undoStack.push(snapshot());
         restoreState(redoStack.pop());
         notifyObservers();
     }
 
-    private String serializeState() {
-        StringBuilder sb = new StringBuilder();
-        for (ExitGate g : gates) {
-            sb.append(String.format("GATE %d %d %d %d %d %d %d %d\n", g.getX(), g.getY(), g.getWidth(), g.getHeight(), g.getColor().getRed(), g.getColor().getGreen(), g.getColor().getBlue(), g.side));
-        }
-        for (Block b : blocks) {
-            sb.append(String.format("BLOCK %d %d %d %d %d %d %d %s %d %d", b.getX(), b.getY(), b.getWidth(), b.getHeight(), b.getColor().getRed(), b.getColor().getGreen(), b.getColor().getBlue(), b.restriction, b.shapeMatrix.length, b.shapeMatrix[0].length));
-            for(int[] row : b.shapeMatrix) for(int val : row) sb.append(" ").append(val);
-            sb.append("\n");
-        }
-        return sb.toString();
+    private Snapshot snapshot() {
+        store.capture(blocks);
+        return new Snapshot(store.copy(), gates);
     }
 
-    private void restoreState(String data) {
-        blocks.clear();
+    private void restoreState(Snapshot snap) {
+        selectedBlock = null;
+        selectedGate = null;
+        snap.blocks.toBlocks(blocks);
+        for (Block b : blocks) b.isSelected = false; // nothing is selected after an undo
         gates.clear();
+        for (ExitGate g : snap.gates) gates.add(new ExitGate(g.getX(), g.getY(), g.getWidth(), g.getHeight(), g.getColor(), g.side));
+        layoutVersion++;
+    }
+
+    private void loadSavedLevel(String name) throws java.io.IOException {
         selectedBlock = null;
         selectedGate = null;
-        if (data.trim().isEmpty()) return;
-        
-        String[] lines = data.split("\n");
-        for (String line : lines) {
-            if (line.trim().isEmpty()) continue;
-            String[] parts = line.split(" ");
-            if (parts[0].equals("GATE")) {
-                gates.add(new ExitGate(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]), Integer.parseInt(parts[4]), new Color(Integer.parseInt(parts[5]), Integer.parseInt(parts[6]), Integer.parseInt(parts[7])), Integer.parseInt(parts[8])));
-            } else if (parts[0].equals("BLOCK")) {
-                int x = Integer.parseInt(parts[1]);
-                int y = Integer.parseInt(parts[2]);
-                int w = Integer.parseInt(parts[3]);
-                int h = Integer.parseInt(parts[4]);
-                Color c = new Color(Integer.parseInt(parts[5]), Integer.parseInt(parts[6]), Integer.parseInt(parts[7]));
-                Block.Axis ax = Block.Axis.valueOf(parts[8]);
-                int rows = Integer.parseInt(parts[9]);
-                int cols = Integer.parseInt(parts[10]);
-                int[][] m = new int[rows][cols];
-                int idx = 11;
-                for(int r=0; r<rows; r++) for(int col=0; col<cols; col++) m[r][col] = Integer.parseInt(parts[idx++]);
-                blocks.add(new Block(x, y, w, h, m, c, ax));
-            }
-        }
+        if (looseLevelFile(name) != null || !readPackLevel(name, blocks, gates)) LevelFactory.readLevelFile(levelFile(name), blocks, gates);
+        layoutVersion++;
+    }
+
+    private void restoreState(String data) {
+        selectedBlock = null;
+        selectedGate = null;
+        LevelFactory.parseLevel(data, blocks, gates);
+        layoutVersion++;
     }
 
     public void saveLevel(String name) {
         try {
             java.io.File dir = new java.io.File("levels");
             if (!dir.exists()) dir.mkdirs();
-            java.io.File file = new java.io.File(dir, name + ".txt");
-            try (java.io.PrintWriter pw = new java.io.PrintWriter(file)) {
-                pw.print(serializeState());
-            }
+            LevelFactory.writeLevelFile(levelFile(name), blocks, gates);
+            forgetSavedLevels();
             this.currentEditingLevelName = name;
         } catch (Exception e) { e.printStackTrace(); }
     }
 
     public void loadEditorLevel(String name) {
         try {
-            java.io.File file = new java.io.File("levels", name + ".txt");
-            byte[] encoded = java.nio.file.Files.readAllBytes(file.toPath());
-            restoreState(new String(encoded, java.nio.charset.StandardCharsets.UTF_8));
+            loadSavedLevel(name);
+            cancelHint();
             this.currentEditingLevelName = name;
             this.undoStack.clear();
             this.redoStack.clear();
@@ -259,26 +480,70 @@ public class GameEngine {
     
     public void playEditorLevel(String name) {
         try {
-            java.io.File file = new java.io.File("levels", name + ".txt");
-            byte[] encoded = java.nio.file.Files.readAllBytes(file.toPath());
-            restoreState(new String(encoded, java.nio.charset.StandardCharsets.UTF_8));
-            
-            // SHIFT FOR GAMEPLAY ALIGNMENT
-            for(Block b : blocks) b.move(b.getX() + 40, b.getY() + 100);
-            for(ExitGate g : gates) g.setBounds(g.getX() + 40, g.getY() + 100, g.getWidth(), g.getHeight());
-            
+            loadSavedLevel(name);
             this.currentCustomLevelName = name;
-            this.currentLevel = -1; 
-            this.timeRemaining = 5 * 60 * 1000;
-            this.particles.clear();
-            this.lockedAxis = 0;
-            this.selectedBlock = null;
-            this.timerStarted = false;
-            this.state = GameState.PLAYING;
-            notifyObservers();
+            this.currentDailyPuzzle = null;
+            playLoadedLevel();
         } catch(Exception e) { e.printStackTrace(); }
     }
 
+    /**
+     * Today's (or any day's) puzzle; stored ahead of time by the daily batch job. A day the job has
+     * not covered is generated on a background thread, without the lock; dailyGenerating is set
+     * meanwhile and the puzzle starts when it is ready, if the player is still on the level select.
+     */
+    public void playDailyPuzzle(java.time.LocalDate date) {
+        com.blocky.generator.DailyPuzzles daily = com.blocky.generator.DailyPuzzles.getDefault();
+        com.blocky.generator.DailyPuzzle stored = daily.load(date);
+        if (stored != null) {
+            playDailyPuzzle(stored);
+            return;
+        }
+        if (dailyGenerating != null) return;
+        dailyGenerating = date;
+        notifyObservers();
+        dailyExecutor.submit(() -> {
+            com.blocky.generator.DailyPuzzle created = null;
+            try {
+                created = daily.loadOrCreate(date);
+            } catch (Exception e) { e.printStackTrace(); }
+            synchronized (lock) {
+                dailyGenerating = null;
+                if (created != null && state == GameState.LEVEL_SELECT) playDailyPuzzle(created);
+                else notifyObservers();
+            }
+        });
+    }
+
+    private void playDailyPuzzle(com.blocky.generator.DailyPuzzle puzzle) {
+        this.currentCustomLevelName = null;
+        this.currentDailyPuzzle = puzzle;
+        playLevelData(puzzle.level);
+    }
+
+    private void playLevelData(String data) {
+        restoreState(data);
+        playLoadedLevel();
+    }
+
+    // Levels in the editor layout (custom and daily), already in blocks and gates
+    private void playLoadedLevel() {
+        // SHIFT FOR GAMEPLAY ALIGNMENT
+        for(Block b : blocks) b.move(b.getX() + 40, b.getY() + 100);
+        for(ExitGate g : gates) g.setBounds(g.getX() + 40, g.getY() + 100, g.getWidth(), g.getHeight());
+
+        this.currentLevel = -1;
+        this.timeRemaining = 5 * 60 * 1000;
+        this.timerCarryNanos = 0;
+        this.particles.clear();
+        this.lockedAxis = 0;
+        this.selectedBlock = null;
+        this.timerStarted = false;
+        resetHints();
+        this.state = GameState.PLAYING;
+        notifyObservers();
+    }
+
     public void spawnEditorWall() {
         saveState();
         Block b = new Block(-100, -100, 45, 45, LevelFactory.createRect(45, 45, Block.CELL_SIZE), com.blocky.view.Theme.WALL_COLOR);
@@ -299,17 +564,7 @@ public class GameEngine {
 
     public void spawnEditorBlock() {
         saveState();
-        int[][] shape = LevelFactory.S_1x1;
-        int[][] expanded = new int[shape.length*2][shape[0].length*2];
-        for(int r=0; r<shape.length; r++) {
-            for(int c=0; c<shape[0].length; c++) {
-                if(shape[r][c]==1) {
-                    expanded[r*2][c*2]=1; expanded[r*2][c*2+1]=1;
-                    expanded[r*2+1][c*2]=1; expanded[r*2+1][c*2+1]=1;
-                }
-            }
-        }
-        Block b = new Block(-100, -100, expanded, com.blocky.view.Theme.BLUE_BLOCK);
+        Block b = new Block(-100, -100, LevelFactory.expandTiles(LevelFactory.S_1x1), com.blocky.view.Theme.BLUE_BLOCK);
         blocks.add(b);
         selectedBlock = b;
         placingNewObject = true;
@@ -336,34 +591,7 @@ public class GameEngine {
 
     public void cycleBlockShape(Block b) {
         saveState();
-        int[][][] shapes = {
-            LevelFactory.S_1x1, LevelFactory.S_1x2, LevelFactory.S_2x1, LevelFactory.S_2x2,
-            LevelFactory.S_1x3, LevelFactory.S_3x1, LevelFactory.S_1x4, LevelFactory.S_4x1, LevelFactory.S_3x3,
-            LevelFactory.L_TL, LevelFactory.L_TR, LevelFactory.L_BL, LevelFactory.L_BR, LevelFactory.L_BR3x3,
-            LevelFactory.L_TL3x3, LevelFactory.L_TR3x3, LevelFactory.L_BL3x3,
-            LevelFactory.CROSS, LevelFactory.U_UP, LevelFactory.U_DOWN
-        };
-        
-        int currentIdx = -1;
-        for(int i=0; i<shapes.length; i++) {
-            int[][] s = shapes[i];
-            int[][] expanded = new int[s.length*2][s[0].length*2];
-            for(int r=0; r<s.length; r++) for(int c=0; c<s[0].length; c++) if(s[r][c]==1) {
-                expanded[r*2][c*2]=1; expanded[r*2][c*2+1]=1; expanded[r*2+1][c*2]=1; expanded[r*2+1][c*2+1]=1;
-            }
-            if(java.util.Arrays.deepEquals(b.shapeMatrix, expanded)) {
-                currentIdx = i; break;
-            }
-        }
-        
-        int nextIdx = (currentIdx + 1) % shapes.length;
-        int[][] nextShape = shapes[nextIdx];
-        int[][] nextExpanded = new int[nextShape.length*2][nextShape[0].length*2];
-        for(int r=0; r<nextShape.length; r++) for(int c=0; c<nextShape[0].length; c++) if(nextShape[r][c]==1) {
-            nextExpanded[r*2][c*2]=1; nextExpanded[r*2][c*2+1]=1; nextExpanded[r*2+1][c*2]=1; nextExpanded[r*2+1][c*2+1]=1;
-        }
-        
-        b.shapeMatrix = nextExpanded;
+        b.shapeMatrix = LevelFactory.nextEditorShape(b.shapeMatrix).cells;
         b.recalculateBounds();
         notifyObservers();
     }
@@ -398,18 +626,42 @@ public class GameEngine {
     public void startGame(int level) {
         this.currentLevel = level;
         this.timeRemaining = 5 * 60 * 1000;
+        this.timerCarryNanos = 0;
         this.particles.clear();
         this.lockedAxis = 0;
         this.selectedBlock = null;
         this.timerStarted = false;
         loadCurrentLevel();
+        resetHints();
         this.state = GameState.PLAYING;
         notifyObservers();
     }
 
-    public void goToMenu() { this.state = GameState.MENU; notifyObservers(); }
-    public void goToLevelSelect() { this.state = GameState.LEVEL_SELECT; notifyObservers(); }
-    public void loadCurrentLevel() { LevelFactory.loadLevel(currentLevel, blocks, gates); }
+    /** Starts looking for the next optimal move from the current position; see HintService. */
+    public void requestHint() {
+        if (state != GameState.PLAYING || hintPending) return;
+        currentHint = null;
+        hintPending = hints.request(blocks);
+        notifyObservers();
+    }
+
+    private void cancelHint() {
+        if (currentHint != null || hintPending) damageAll(); // the hint's ghost and the HINT button go away
+        hints.cancel();
+        currentHint = null;
+        hintPending = false;
+    }
+
+    private void resetHints() {
+        currentHint = null;
+        hintPending = false;
+        solvability = null;
+        hints.reset(blocks, gates);
+    }
+
+    public void goToMenu() { cancelHint(); this.state = GameState.MENU; notifyObservers(); }
+    public void goToLevelSelect() { cancelHint(); this.state = GameState.LEVEL_SELECT; notifyObservers(); }
+    public void loadCurrentLevel() { LevelFactory.loadLevel(currentLevel, blocks, gates); layoutVersion++; }
 
     public void pauseGame() {
         if (state == GameState.PLAYING) {
@@ -426,7 +678,9 @@ public class GameEngine {
     }
 
     public void restartLevel() {
-        if (currentLevel == -1 && currentCustomLevelName != null) {
+        if (currentLevel == -1 && currentDailyPuzzle != null) {
+            playLevelData(currentDailyPuzzle.level);
+        } else if (currentLevel == -1 && currentCustomLevelName != null) {
             playEditorLevel(currentCustomLevelName);
         } else {
             startGame(currentLevel);
@@ -439,16 +693,37 @@ public class GameEngine {
         }
     }
 
+    /** Advances the game by one fixed GameLoop.TICK_NANOS step; call with lock held. */
     public void update() {
-        long now = System.currentTimeMillis();
-        long delta = now - lastTimeUpdate;
-        lastTimeUpdate = now;
-
         if (state == GameState.PAUSED || state == GameState.LEVEL_COMPLETE || state == GameState.CUSTOM_LEVEL_COMPLETE || state == GameState.GAME_OVER) return;
 
         if (state == GameState.PLAYING) {
+            if (hintPending) {
+                com.blocky.solver.Hint hint = hints.poll();
+                if (hint != null) { currentHint = hint; hintPending = false; damageAll(); }
+            }
+            com.blocky.solver.DeadlockDetector.Result verdict = hints.pollVerdict();
+            if (verdict != null) { solvability = verdict; notifyObservers(); }
+
+            // Animated every tick: the hint button while searching, the restart button while stuck, the hint's ghost
+            if (++teethTicks == TEETH_TICKS) {
+                teethTicks = 0;
+                teethPhase = (teethPhase + TEETH_STEP) % com.blocky.view.StaticLayer.TEETH_PHASES;
+                for (ExitGate g : gates) damage(g.getX() - 3, g.getY() - 3, g.getWidth() + 6, g.getHeight() + 6);
+            }
+            if (currentHint != null && currentHint.status == com.blocky.solver.Hint.Status.MOVE) {
+                Block hb = currentHint.block;
+                damage(hb);
+                damage(currentHint.targetX - 8, currentHint.targetY - 8, hb.getWidth() + 16, hb.getHeight() + 16);
+            }
+            if (hintPending || (solvability != null && solvability.verdict == com.blocky.solver.DeadlockDetector.Verdict.DEADLOCKED)) damage(HUD_AREA);
+
             if (timerStarted && timeRemaining > 0) {
-                timeRemaining -= delta;
+                long shownSecond = timeRemaining / 1000;
+                timerCarryNanos += GameLoop.TICK_NANOS;
+                timeRemaining -= timerCarryNanos / 1_000_000;
+                timerCarryNanos %= 1_000_000;
+                if (timeRemaining / 1000 != shownSecond) damage(HUD_AREA);
                 if (timeRemaining <= 0) {
                     timeRemaining = 0;
                     state = GameState.GAME_OVER;
@@ -459,14 +734,20 @@ public class GameEngine {
 
             if(!particles.isEmpty()) {
                 Iterator<Particle> pIt = particles.iterator();
-                while (pIt.hasNext()) { if (pIt.next().update()) pIt.remove(); }
+                while (pIt.hasNext()) {
+                    Particle p = pIt.next();
+                    damage(p.getBounds());
+                    if (p.update()) pIt.remove(); else damage(p.getBounds());
+                }
             }
 
             boolean needsCleanup = false;
             for (int i = blocks.size() - 1; i >= 0; i--) {
                 Block b = blocks.get(i);
                 if (b.isExiting) {
+                    damage(b);
                     animateExit(b);
+                    damage(b);
                     boolean destroyed = false;
                     ExitGate g = b.targetGate;
                     if (g != null) {
@@ -479,6 +760,8 @@ public class GameEngine {
                     }
                     if (destroyed) {
                         blocks.remove(i);
+                        blockIndex.remove(b);
+                        movableBlocks.remove(b);
                         createExplosion(b.getX() + b.getWidth()/2, b.getY() + b.getHeight()/2, b.getColor());
                         needsCleanup = true;
                     }
@@ -509,11 +792,11 @@ public class GameEngine {
             }
             if (needsCleanup) notifyObservers();
         }
-        notifyObservers();
+        // No unconditional notify: the frame is drawn by GameLoop's repaint or ActiveRenderer's thread
     }
 
     private boolean isLevelComplete() {
-        for(Block b : blocks) if(!b.getColor().equals(com.blocky.view.Theme.WALL_COLOR)) return false;
+        for (int i = 0; i < blocks.size(); i++) if (blocks.get(i).getKind() == Entity.Kind.MOVABLE) return false;
         return true;
     }
 
@@ -524,7 +807,7 @@ public class GameEngine {
     private void animateExit(Block b) {
         ExitGate g = b.targetGate;
         if (g != null) {
-            int speed = 8;
+            int speed = EXIT_SPEED;
             if (g.side == 0) b.move(b.getX(), b.getY() - speed);
             else if (g.side == 2) b.move(b.getX(), b.getY() + speed);
             else if (g.side == 3) b.move(b.getX() - speed, b.getY());
@@ -535,17 +818,16 @@ public class GameEngine {
 
     public void selectBlock(int mouseX, int mouseY) {
         if (state != GameState.PLAYING) return;
-        for (int i = blocks.size() - 1; i >= 0; i--) {
-            Block b = blocks.get(i);
-            if (b.getColor().equals(com.blocky.view.Theme.WALL_COLOR)) continue;
-            if (!b.isExiting && b.containsPoint(mouseX, mouseY)) {
-                selectedBlock = b; b.isSelected = true;
-                this.startMouseX = mouseX; this.startMouseY = mouseY;
-                this.startBlockX = b.getX(); this.startBlockY = b.getY();
-                this.dragOffsetX = mouseX - b.getX(); this.dragOffsetY = mouseY - b.getY();
-                this.lockedAxis = 0;
-                break;
-            }
+        syncIndex();
+        Block b = blockIndex.pick(mouseX, mouseY, true, x -> x.getKind() == Entity.Kind.MOVABLE && !x.isExiting && x.containsPoint(mouseX, mouseY));
+        if (b != null) {
+            cancelHint(); // the position is about to change
+            selectedBlock = b; b.isSelected = true;
+            damage(b);
+            this.startMouseX = mouseX; this.startMouseY = mouseY;
+            this.startBlockX = b.getX(); this.startBlockY = b.getY();
+            this.dragOffsetX = mouseX - b.getX(); this.dragOffsetY = mouseY - b.getY();
+            this.lockedAxis = 0;
         }
     }
 
@@ -559,50 +841,84 @@ public class GameEngine {
         if (selectedBlock.restriction == Block.Axis.VERTICAL) targetX = startBlockX;
         else if (selectedBlock.restriction == Block.Axis.HORIZONTAL) targetY = startBlockY;
         
-        List<Block> others = new ArrayList<>();
-        for(Block b : blocks) if(b != selectedBlock && !b.isExiting) others.add(b);
-        for (ExitGate gate : gates) {
-            if (!selectedBlock.getColor().equals(gate.getColor())) {
-                Rectangle r = gate.getBounds();
-                int[][] gateMatrix = new int[(int)Math.ceil((double)r.height/Block.CELL_SIZE)][(int)Math.ceil((double)r.width/Block.CELL_SIZE)];
-                for(int i=0; i<gateMatrix.length; i++) for(int j=0; j<gateMatrix[i].length; j++) gateMatrix[i][j] = 1;
-                others.add(new Block(r.x, r.y, r.width, r.height, gateMatrix, com.blocky.view.Theme.WALL_COLOR));
-            }
-        }
-
-        // CONTINUOUS COLLISION DETECTION (CCD)
-        // Instead of jumping directly to targetX/Y, we move in small steps to prevent tunneling through walls.
         int currentX = selectedBlock.getX();
         int currentY = selectedBlock.getY();
-        
-        double totalDist = Math.hypot(targetX - currentX, targetY - currentY);
-        int stepSize = 5; // Check every 5 pixels
-        int steps = (int) Math.ceil(totalDist / stepSize);
-        
-        int lastValidX = currentX;
-        int lastValidY = currentY;
 
-        for (int i = 1; i <= steps; i++) {
-            double t = (double) i / steps;
-            int nextX = (int) (currentX + (targetX - currentX) * t);
-            int nextY = (int) (currentY + (targetY - currentY) * t);
-            
-            if (movementStrategy.isValidMove(selectedBlock, nextX, nextY, others)) {
-                lastValidX = nextX;
-                lastValidY = nextY;
-            } else {
-                // Hit a wall/obstacle, stop here.
-                break;
-            }
-        }
-        
+        // Reused lists, only the blocks the move could reach, gates as walls from the per-level cache:
+        // a drag event allocates nothing
+        List<Block> others = dragObstacles;
+        others.clear();
+        int minX = Math.min(currentX, targetX), minY = Math.min(currentY, targetY);
+        collectObstacles(minX, minY, Math.max(currentX, targetX) - minX + selectedBlock.getWidth(), Math.max(currentY, targetY) - minY + selectedBlock.getHeight(), others);
+        List<Block> gateWalls = gateObstacles(selectedBlock.getColorId());
+        for (int i = 0; i < gateWalls.size(); i++) others.add(gateWalls.get(i)); // addAll would copy through toArray()
+
+        // SWEPT COLLISION: the furthest free position along the drag under the selected strategy,
+        // sliding along whatever stops it, so nothing is tunnelled through however far the mouse jumped
+        movementStrategy.sweep(selectedBlock, currentX, currentY, targetX, targetY, others, swept);
+        int lastValidX = swept.x;
+        int lastValidY = swept.y;
+
         // Move to the furthest valid position found
         if (lastValidX != currentX || lastValidY != currentY) {
+            damage(selectedBlock);
             selectedBlock.move(lastValidX, lastValidY);
+            damage(selectedBlock);
             checkGateInteraction();
         }
     }
 
+    /**
+     * Gates a block of this color cannot pass, as gate obstacles; built once per color id and reused
+     * until the layout changes (layoutVersion).
+     */
+    private List<Block> gateObstacles(int colorId) {
+        if (gateObstaclesVersion != layoutVersion) {
+            gateObstaclesByColor.clear();
+            gateObstaclesVersion = layoutVersion;
+        }
+        while (gateObstaclesByColor.size() <= colorId) gateObstaclesByColor.add(null);
+        List<Block> list = gateObstaclesByColor.get(colorId);
+        if (list == null) {
+            list = new ArrayList<>();
+            for (ExitGate gate : gates) if (gate.getColorId() != colorId) list.add(Block.gateObstacle(gate));
+            gateObstaclesByColor.set(colorId, list);
+        }
+        return list;
+    }
+
+    // Rebuilt when the lists were replaced or edited (layoutVersion, or sizes that no longer match);
+    // moves and resizes reach the index by themselves through the entities' bounds listener
+    private void syncIndex() {
+        if (indexedVersion == layoutVersion && blockIndex.size() == blocks.size() && gateIndex.size() == gates.size()) return;
+        blockIndex.rebuild(blocks);
+        gateIndex.rebuild(gates);
+        wallBlocks.clear();
+        movableBlocks.clear();
+        for (int i = 0; i < blocks.size(); i++) {
+            Block b = blocks.get(i);
+            (b.getKind() == Entity.Kind.WALL ? wallBlocks : movableBlocks).add(b);
+        }
+        indexedVersion = layoutVersion;
+    }
+
+    /** The level's walls in list order, kept with the spatial index; call with lock held. */
+    public List<Block> getWalls() { syncIndex(); return wallBlocks; }
+
+    /** The blocks that are not walls, in list (drawing) order; call with lock held. */
+    public List<Block> getMovables() { syncIndex(); return movableBlocks; }
+
+    // Blocks other than the selected one, not exiting, within one cell of the w x h area at (x, y)
+    private void collectObstacles(int x, int y, int w, int h, List<Block> out) {
+        syncIndex();
+        nearbyBlocks.clear();
+        blockIndex.query(x - Block.CELL_SIZE, y - Block.CELL_SIZE, w + 2 * Block.CELL_SIZE, h + 2 * Block.CELL_SIZE, nearbyBlocks);
+        for (int i = 0; i < nearbyBlocks.size(); i++) {
+            Block b = nearbyBlocks.get(i);
+            if (b != selectedBlock && !b.isExiting) out.add(b);
+        }
+    }
+
     public void releaseBlock() {
         if (selectedBlock != null) {
             int cellSize = Block.CELL_SIZE;
@@ -632,13 +948,16 @@ public class GameEngine {
             }
 
             List<Block> others = new ArrayList<>();
-            for(Block b : blocks) if(b != selectedBlock && !b.isExiting) others.add(b);
+            collectObstacles(snapX, snapY, selectedBlock.getWidth(), selectedBlock.getHeight(), others);
             
+            damage(selectedBlock);
             if (movementStrategy.isValidMove(selectedBlock, snapX, snapY, others)) selectedBlock.move(snapX, snapY);
+            damage(selectedBlock);
             
             if (state != GameState.EDITOR) {
                 selectedBlock.isSelected = false;
                 selectedBlock = null;
+                hints.analyze(blocks); // the verdict arrives in update() once the background check is done
             }
         }
         
@@ -658,29 +977,114 @@ public class GameEngine {
     private void checkGateInteraction() {
         if (selectedBlock == null) return;
         int tolerance = 30;
-        for (ExitGate gate : gates) {
-            if (selectedBlock.getColor().equals(gate.getColor()) && selectedBlock.getBounds().intersects(gate.getBounds())) {
+        Block b = selectedBlock;
+        syncIndex();
+        nearbyGates.clear();
+        gateIndex.query(b.getX(), b.getY(), b.getWidth(), b.getHeight(), nearbyGates);
+        for (int i = 0; i < nearbyGates.size(); i++) {
+            ExitGate gate = nearbyGates.get(i);
+            if (b.getColorId() == gate.getColorId() && CollisionManager.intersects(b.getX(), b.getY(), b.getWidth(), b.getHeight(), gate.getX(), gate.getY(), gate.getWidth(), gate.getHeight())) {
                 boolean sideIsVertical = (gate.side == 0 || gate.side == 2);
                 if (selectedBlock.restriction == Block.Axis.VERTICAL && !sideIsVertical) continue;
                 if (selectedBlock.restriction == Block.Axis.HORIZONTAL && sideIsVertical) continue;
                 boolean aligned = false;
-                Rectangle bRect = selectedBlock.getBounds();
-                Rectangle gRect = gate.getBounds();
                 if (sideIsVertical) { 
-                    if (bRect.x >= gRect.x - tolerance && bRect.x + bRect.width <= gRect.x + gRect.width + tolerance) aligned = true;
+                    if (b.getX() >= gate.getX() - tolerance && b.getX() + b.getWidth() <= gate.getX() + gate.getWidth() + tolerance) aligned = true;
                 } else { 
-                    if (bRect.y >= gRect.y - tolerance && bRect.y + bRect.height <= gRect.y + gRect.height + tolerance) aligned = true;
+                    if (b.getY() >= gate.getY() - tolerance && b.getY() + b.getHeight() <= gate.getY() + gate.getHeight() + tolerance) aligned = true;
                 }
                 if (aligned) {
                     selectedBlock.isExiting = true;
                     selectedBlock.targetGate = gate;
                     selectedBlock.isSelected = false;
                     selectedBlock = null;
+                    hints.analyze(blocks);
                     break;
                 }
             }
         }
     }
+    public void setMovementStrategy(IMovementStrategy strategy) { this.movementStrategy = strategy; }
     public void addObserver(IObserver o) { observers.add(o); }
-    private void notifyObservers() { for (IObserver o : observers) o.refreshView(); }
+    private void notifyObservers() { damageAll(); for (IObserver o : observers) o.refreshView(); }
+
+    /** Marks the published Frame as out of date, for changes made without damage() (the editor's). */
+    public void invalidateFrame() { frameStale = true; }
+
+    /**
+     * Fills a Frame nobody is drawing with the current state and publishes it, together with the
+     * damage recorded since the last one, if anything changed (damage or invalidateFrame()).
+     * GameLoop calls it after its steps; nothing else has to, input only marks what it changed.
+     */
+    public void publishFrame() {
+        synchronized (lock) {
+            if (!frameStale) return;
+            Frame next = null;
+            for (int i = 0; i < frames.size() && next == null; i++) {
+                Frame f = frames.get(i);
+                if (f != frame && f.readers.get() == 0) next = f;
+            }
+            if (next == null) {
+                next = new Frame(); // every other frame is being drawn
+                frames.add(next);
+            }
+            next.fill(this);
+            frame = next;
+            frameStale = false;
+            if (fullDamage) publishedFull = true;
+            else if (damaged && !publishedDamaged) publishedDamage.setBounds(damage);
+            else if (damaged) publishedDamage.add(damage);
+            publishedDamaged |= damaged;
+            fullDamage = false;
+            damaged = false;
+        }
+    }
+
+    /** The last published frame, for a quick look at its state; to draw it, use acquireFrame(). */
+    public Frame getFrame() { return frame; }
+
+    /**
+     * The last published frame, which publishFrame() leaves alone until releaseFrame(f); no lock
+     * needed. A reader that loses the race with a publish retries with the newer frame.
+     */
+    public Frame acquireFrame() {
+        while (true) {
+            Frame f = frame;
+            f.readers.incrementAndGet();
+            if (f == frame) return f;
+            f.readers.decrementAndGet();
+        }
+    }
+
+    public void releaseFrame(Frame f) { f.readers.decrementAndGet(); }
+
+    /** Marks a level-space area as changed; it reaches takeDamage() with the next published frame. */
+    public void damage(int x, int y, int w, int h) {
+        if (!damaged) damage.setBounds(x, y, w, h); else { damage.add(x, y); damage.add(x + w, y + h); }
+        damaged = true;
+        frameStale = true;
+    }
+
+    public void damage(Rectangle r) { damage(r.x, r.y, r.width, r.height); }
+
+    // A block as drawn: shadow, selection outline and the deadlock outline reach a few pixels out
+    private void damage(Block b) { damage(b.getX() - 8, b.getY() - 8, b.getWidth() + 16, b.getHeight() + 16); }
+
+    /** Marks the whole scene as changed (state changes, hints, anything not worth tracking). */
+    public void damageAll() {
+        fullDamage = true;
+        frameStale = true;
+    }
+
+    /**
+     * The level area that changed in the frames published since the last call, or null when the
+     * whole scene must be redrawn; an empty rectangle when nothing changed. Damage not published
+     * yet waits for its frame. Clears it. Call with lock held.
+     */
+    public Rectangle takeDamage() {
+        Rectangle r = publishedFull ? null : publishedDamaged ? new Rectangle(publishedDamage) : new Rectangle();
+        publishedFull = false;
+        publishedDamaged = false;
+        return r;
+    }
 }
@@ -0,0 +1,79 @@
+package com.blocky.logic;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed-timestep driver for GameEngine.update(). A dedicated thread measures elapsed time with
+ * System.nanoTime, adds it to an accumulator and runs as many TICK_NANOS steps as fit, each under
+ * GameEngine.lock, so the game runs at the same speed whatever the frame rate or the EDT load.
+ * After a frame's steps it publishes the engine's Frame for the renderer (when a step or input
+ * changed something) and calls the frame listener (the panel's refreshView).
+ *
+ * advance() is the same accumulator without the thread or the clock: headless tests feed it
+ * simulated time and get minutes of play in milliseconds.
+ */
+public class GameLoop {
+    public static final int TICKS_PER_SECOND = 60;
+    public static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+    // After a stall (GC, debugger, sleeping laptop) drop the backlog instead of fast-forwarding through it
+    private static final long MAX_FRAME_NANOS = 250_000_000L;
+
+    private final GameEngine engine;
+    private final Runnable onFrame;
+    private long accumulator;
+    private long ticks;
+    private volatile boolean running;
+    private Thread thread;
+
+    public GameLoop(GameEngine engine, Runnable onFrame) {
+        this.engine = engine;
+        this.onFrame = onFrame;
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this::run, "blocky-simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join();
+            thread = null;
+        }
+    }
+
+    /** Steps run since this loop was created. */
+    public long getTicks() { return ticks; }
+
+    /** Adds elapsed time to the accumulator and runs every step that fits; returns how many ran. */
+    public int advance(long elapsedNanos) {
+        accumulator += elapsedNanos;
+        int steps = 0;
+        while (accumulator >= TICK_NANOS) {
+            synchronized (engine.lock) {
+                engine.update();
+            }
+            accumulator -= TICK_NANOS;
+            steps++;
+        }
+        if (steps > 0) engine.publishFrame();
+        ticks += steps;
+        return steps;
+    }
+
+    private void run() {
+        long previous = System.nanoTime();
+        while (running) {
+            long now = System.nanoTime();
+            int steps = advance(Math.min(now - previous, MAX_FRAME_NANOS));
+            previous = now;
+            if (steps > 0 && onFrame != null) onFrame.run();
+            LockSupport.parkNanos(TICK_NANOS - accumulator);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.blocky.logic;
+
+import com.blocky.model.Block;
+import com.blocky.model.ExitGate;
+import com.blocky.solver.BoardState;
+import com.blocky.solver.DeadlockDetector;
+import com.blocky.solver.Hint;
+import com.blocky.solver.HintEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the HintEngine of the current level on a background thread so the EDT never waits on the
+ * solver. The position is captured on the caller's thread; the search runs in 50ms slices and the
+ * answer is picked up with poll() from the game loop. Every new request, cancel() or reset() bumps
+ * a generation counter, which stops the running search within a few expansions and drops its answer.
+ * When a level starts, its opening position is searched ahead of time so the first hint is warm.
+ *
+ * Every search that finishes also tells whether the position can still be solved (pollVerdict());
+ * analyze() asks only that, with a shorter budget, after each drop.
+ */
+public class HintService {
+    private static final int MAX_SLICES = 200;     // 10s of searching before giving up on a hint
+    private static final int ANALYSIS_SLICES = 4;  // DeadlockDetector.DEFAULT_BUDGET_NANOS
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "blocky-hints");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private final AtomicInteger generation = new AtomicInteger();
+    private volatile HintEngine engine;
+    private volatile Hint result;
+    private volatile DeadlockDetector.Result verdict;
+
+    /** New level: forgets everything learned on the previous one and starts warming up on this one. */
+    public void reset(List<Block> blocks, List<ExitGate> gates) {
+        cancel();
+        verdict = null;
+        try {
+            engine = new HintEngine(new ArrayList<>(blocks), new ArrayList<>(gates));
+        } catch (Exception e) {
+            e.printStackTrace(); // levels the solver cannot model simply get no hints
+            engine = null;
+            return;
+        }
+        if (!checkStatic(blocks)) submit(blocks, false, MAX_SLICES);
+    }
+
+    /** Asks for the next move from the live blocks; the answer arrives through poll(). */
+    public boolean request(List<Block> live) {
+        cancel();
+        return submit(live, true, MAX_SLICES);
+    }
+
+    /**
+     * Asks whether the live position can still be solved; the answer arrives through pollVerdict(),
+     * right away when a static check already settles it.
+     */
+    public void analyze(List<Block> live) {
+        cancel();
+        if (engine != null && !checkStatic(live)) submit(live, false, ANALYSIS_SLICES);
+    }
+
+    /** Stops the running search; its answer, if any, is dropped. */
+    public synchronized void cancel() {
+        generation.incrementAndGet();
+        result = null;
+    }
+
+    /** The answer to the last request, once, or null while it is still being searched. */
+    public synchronized Hint poll() {
+        Hint h = result;
+        if (h != null) result = null;
+        return h;
+    }
+
+    /** The latest solvability verdict, once, or null when nothing new was decided. */
+    public synchronized DeadlockDetector.Result pollVerdict() {
+        DeadlockDetector.Result r = verdict;
+        if (r != null) verdict = null;
+        return r;
+    }
+
+    private boolean checkStatic(List<Block> live) {
+        HintEngine e = engine;
+        DeadlockDetector.Result r = DeadlockDetector.staticCheck(e.getBoard(), e.getBoard().stateOf(live));
+        if (r != null) verdict = r;
+        return r != null;
+    }
+
+    private boolean submit(List<Block> live, boolean publish, int slices) {
+        HintEngine e = engine;
+        if (e == null) return false;
+        BoardState start = e.getBoard().stateOf(live);
+        int gen = generation.get();
+        executor.submit(() -> {
+            for (int slice = 0; slice < slices; slice++) {
+                Hint h = e.next(start, HintEngine.DEFAULT_BUDGET_NANOS, () -> generation.get() != gen);
+                if (h.status != Hint.Status.PENDING || slice == slices - 1) {
+                    publish(h, gen, publish);
+                    return;
+                }
+                if (generation.get() != gen) return;
+            }
+        });
+        return true;
+    }
+
+    // Synchronized with cancel() so an answer to a cancelled request can never be published after it
+    private synchronized void publish(Hint h, int gen, boolean publish) {
+        if (generation.get() != gen) return;
+        if (publish) result = h;
+        verdict = DeadlockDetector.fromHint(h);
+    }
+}
@@ -2,6 +2,7 @@ package com.blocky.logic;
 
 import com.blocky.model.Block;
 import com.blocky.model.ExitGate;
+import com.blocky.model.ShapeCatalog;
 import com.blocky.view.Theme;
 import java.util.List;
 import java.awt.Color;
@@ -57,6 +58,32 @@ public class LevelFactory {
     public static final int[][] U_UP = {{1, 0, 1}, {1, 1, 1}};
     public static final int[][] U_DOWN = {{1, 1, 1}, {1, 0, 1}};
 
+    // Editor shape cycle, interned when the class loads; EDITOR_INDEX maps a shape id to its place
+    private static final int[][][] EDITOR_SHAPES = {
+        S_1x1, S_1x2, S_2x1, S_2x2, S_1x3, S_3x1, S_1x4, S_4x1, S_3x3,
+        L_TL, L_TR, L_BL, L_BR, L_BR3x3, L_TL3x3, L_TR3x3, L_BL3x3,
+        CROSS, U_UP, U_DOWN
+    };
+    private static final ShapeCatalog.Shape[] EDITOR_CYCLE = new ShapeCatalog.Shape[EDITOR_SHAPES.length];
+    private static final int[] EDITOR_INDEX;
+    static {
+        int maxId = 0;
+        for (int i = 0; i < EDITOR_SHAPES.length; i++) {
+            EDITOR_CYCLE[i] = ShapeCatalog.ofTiles(EDITOR_SHAPES[i]);
+            maxId = Math.max(maxId, EDITOR_CYCLE[i].id);
+        }
+        EDITOR_INDEX = new int[maxId + 1];
+        java.util.Arrays.fill(EDITOR_INDEX, -1);
+        for (int i = 0; i < EDITOR_CYCLE.length; i++) EDITOR_INDEX[EDITOR_CYCLE[i].id] = i;
+    }
+
+    /** The editor shape after this one; shapes outside the cycle go back to the first. */
+    public static ShapeCatalog.Shape nextEditorShape(int[][] cells) {
+        int id = ShapeCatalog.of(cells).id;
+        int i = id < EDITOR_INDEX.length ? EDITOR_INDEX[id] : -1;
+        return EDITOR_CYCLE[(i + 1) % EDITOR_CYCLE.length];
+    }
+
     public static void loadLevel(int level, List<Block> blocks, List<ExitGate> gates) {
         blocks.clear();
         gates.clear();
@@ -823,20 +850,7 @@ public class LevelFactory {
 
     // Helper to manually add blocks with matrix expansion (1 tile -> 2x2 cells)
     private static void addExpandedBlock(List<Block> blocks, int x, int y, int[][] shapeTiles, Color color) {
-        int rows = shapeTiles.length;
-        int cols = shapeTiles[0].length;
-        int[][] cellMatrix = new int[rows * 2][cols * 2];
-        for(int r=0; r<rows; r++) {
-            for(int c=0; c<cols; c++) {
-                if(shapeTiles[r][c] == 1) {
-                    cellMatrix[r*2][c*2] = 1;
-                    cellMatrix[r*2][c*2+1] = 1;
-                    cellMatrix[r*2+1][c*2] = 1;
-                    cellMatrix[r*2+1][c*2+1] = 1;
-                }
-            }
-        }
-        blocks.add(new Block(x, y, cellMatrix, color));
+        blocks.add(new Block(x, y, expandTiles(shapeTiles), color));
     }
 
     private static void buildWalls(List<Block> blocks, List<ExitGate> gates, 
@@ -906,37 +920,16 @@ public class LevelFactory {
     private static void addBlock(List<Block> blocks, int row, int col, int[][] shapeTiles, Color color) {
         int startX = GRID_X + col * TILE;
         int startY = GRID_Y + row * TILE;
-        int rows = shapeTiles.length;
-        int cols = shapeTiles[0].length;
-        int[][] cellMatrix = new int[rows * 2][cols * 2];
-        for(int r=0; r<rows; r++) {
-            for(int c=0; c<cols; c++) {
-                if(shapeTiles[r][c] == 1) {
-                    cellMatrix[r*2][c*2] = 1;
-                    cellMatrix[r*2][c*2+1] = 1;
-                    cellMatrix[r*2+1][c*2] = 1;
-                    cellMatrix[r*2+1][c*2+1] = 1;
-                }
-            }
-        }
-        blocks.add(new Block(startX, startY, cellMatrix, color));
+        blocks.add(new Block(startX, startY, expandTiles(shapeTiles), color));
     }
 
     private static void addRestrictedExpandedBlock(List<Block> blocks, int x, int y, int[][] shapeTiles, Color color, Block.Axis restriction) {
-        int rows = shapeTiles.length;
-        int cols = shapeTiles[0].length;
-        int[][] cellMatrix = new int[rows * 2][cols * 2];
-        for(int r=0; r<rows; r++) {
-            for(int c=0; c<cols; c++) {
-                if(shapeTiles[r][c] == 1) {
-                    cellMatrix[r*2][c*2] = 1;
-                    cellMatrix[r*2][c*2+1] = 1;
-                    cellMatrix[r*2+1][c*2] = 1;
-                    cellMatrix[r*2+1][c*2+1] = 1;
-                }
-            }
-        }
-        blocks.add(new Block(x, y, cellMatrix, color, restriction));
+        blocks.add(new Block(x, y, expandTiles(shapeTiles), color, restriction));
+    }
+
+    // Tile shape -> cell matrix (1 tile -> 2x2 cells), shared through ShapeCatalog
+    public static int[][] expandTiles(int[][] shapeTiles) {
+        return ShapeCatalog.ofTiles(shapeTiles).cells;
     }
 
     public static int[][] createRect(int w, int h, int cell) {
@@ -944,6 +937,75 @@ public class LevelFactory {
         int r = (int)Math.ceil((double)h/cell);
         int[][] m = new int[r][c];
         for(int i=0; i<r; i++) for(int j=0; j<c; j++) m[i][j] = 1;
-        return m;
+        return ShapeCatalog.of(m).cells;
+    }
+
+    // --- LEVEL FILES: text (.txt) or BinaryLevelFormat (.blv), by extension ---
+    public static boolean isBinaryLevel(java.io.File file) {
+        return file.getName().endsWith(BinaryLevelFormat.EXTENSION);
+    }
+
+    public static void readLevelFile(java.io.File file, List<Block> blocks, List<ExitGate> gates) throws java.io.IOException {
+        if (isBinaryLevel(file)) {
+            try (java.io.InputStream in = new java.io.FileInputStream(file)) {
+                BinaryLevelFormat.read(in, blocks, gates);
+            }
+        } else {
+            parseLevel(new String(java.nio.file.Files.readAllBytes(file.toPath()), java.nio.charset.StandardCharsets.UTF_8), blocks, gates);
+        }
+    }
+
+    public static void writeLevelFile(java.io.File file, List<Block> blocks, List<ExitGate> gates) throws java.io.IOException {
+        if (isBinaryLevel(file)) {
+            try (java.io.OutputStream out = new java.io.FileOutputStream(file)) {
+                BinaryLevelFormat.write(out, blocks, gates);
+            }
+        } else {
+            try (java.io.PrintWriter pw = new java.io.PrintWriter(file, "UTF-8")) {
+                pw.print(serializeLevel(blocks, gates));
+            }
+        }
+    }
+
+    // --- TEXT FORMAT (levels/*.txt) ---
+    public static String serializeLevel(List<Block> blocks, List<ExitGate> gates) {
+        StringBuilder sb = new StringBuilder();
+        for (ExitGate g : gates) {
+            sb.append(String.format("GATE %d %d %d %d %d %d %d %d\n", g.getX(), g.getY(), g.getWidth(), g.getHeight(), g.getColor().getRed(), g.getColor().getGreen(), g.getColor().getBlue(), g.side));
+        }
+        for (Block b : blocks) {
+            sb.append(String.format("BLOCK %d %d %d %d %d %d %d %s %d %d", b.getX(), b.getY(), b.getWidth(), b.getHeight(), b.getColor().getRed(), b.getColor().getGreen(), b.getColor().getBlue(), b.restriction, b.shapeMatrix.length, b.shapeMatrix[0].length));
+            for(int[] row : b.shapeMatrix) for(int val : row) sb.append(" ").append(val);
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    public static void parseLevel(String data, List<Block> blocks, List<ExitGate> gates) {
+        blocks.clear();
+        gates.clear();
+        if (data.trim().isEmpty()) return;
+
+        String[] lines = data.split("\n");
+        for (String line : lines) {
+            if (line.trim().isEmpty()) continue;
+            String[] parts = line.trim().split(" ");
+            if (parts[0].equals("GATE")) {
+                gates.add(new ExitGate(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]), Integer.parseInt(parts[4]), new Color(Integer.parseInt(parts[5]), Integer.parseInt(parts[6]), Integer.parseInt(parts[7])), Integer.parseInt(parts[8])));
+            } else if (parts[0].equals("BLOCK")) {
+                int x = Integer.parseInt(parts[1]);
+                int y = Integer.parseInt(parts[2]);
+                int w = Integer.parseInt(parts[3]);
+                int h = Integer.parseInt(parts[4]);
+                Color c = new Color(Integer.parseInt(parts[5]), Integer.parseInt(parts[6]), Integer.parseInt(parts[7]));
+                Block.Axis ax = Block.Axis.valueOf(parts[8]);
+                int rows = Integer.parseInt(parts[9]);
+                int cols = Integer.parseInt(parts[10]);
+                int[][] m = new int[rows][cols];
+                int idx = 11;
+                for(int r=0; r<rows; r++) for(int col=0; col<cols; col++) m[r][col] = Integer.parseInt(parts[idx++]);
+                blocks.add(new Block(x, y, w, h, ShapeCatalog.of(m).cells, c, ax));
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,303 @@
+package com.blocky.logic;
+
+import com.blocky.model.Block;
+import com.blocky.model.ExitGate;
+import com.blocky.solver.CanonicalLevel;
+import com.blocky.solver.Difficulty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Many levels in one read-only file, opened with FileChannel.map so nothing is read until it is
+ * asked for. Levels are stored in BinaryLevelFormat and decoded in place from the mapping.
+ *
+ *   header (32 bytes): "BLKP", version, count, 0, index offset, names offset
+ *   level data, back to back
+ *   index: count fixed-size entries sorted by name (UTF-8 bytes), see the E_ offsets below
+ *   names: UTF-8, referenced by offset and length from the index
+ *
+ * An entry holds the level's offset and length, its CanonicalLevel hash, its difficulty (if it was
+ * rated when the pack was built) and the offset and length of a thumbnail image (0 when there is
+ * none). Looking a name up is a binary search over the mapped index. Size, names and entries cost
+ * nothing per level until used, so packs of 100k+ levels open instantly. Packs are limited to 2GB,
+ * one mapping.
+ */
+public class LevelPack implements Closeable {
+    public static final String EXTENSION = ".pack";
+    public static final int VERSION = 1;
+    private static final byte[] MAGIC = {'B', 'L', 'K', 'P'};
+    private static final int HEADER = 32;
+    // Index entry layout
+    private static final int E_DATA = 0, E_THUMB = 8, E_DATA_LEN = 16, E_THUMB_LEN = 20, E_NAME = 24, E_NAME_LEN = 28,
+            E_HASH = 32, E_MOVES = 52, E_PIECES = 56, E_BRANCHING = 60, E_DEAD_ENDS = 64, E_STATES = 72, ENTRY = 80;
+    private static final int HASH_BYTES = 20;
+    private static final int NOT_RATED = Integer.MIN_VALUE;
+
+    private final File file;
+    private final RandomAccessFile raf;
+    private final MappedByteBuffer map;
+    private final int count;
+    private final int index, names;
+    private boolean closed;
+
+    private LevelPack(File file, RandomAccessFile raf, MappedByteBuffer map) throws IOException {
+        this.file = file;
+        this.raf = raf;
+        this.map = map;
+        map.order(ByteOrder.BIG_ENDIAN);
+        if (map.capacity() < HEADER) throw new IOException("Not a level pack: " + file);
+        for (int i = 0; i < MAGIC.length; i++) if (map.get(i) != MAGIC[i]) throw new IOException("Not a level pack: " + file);
+        int version = map.getInt(4);
+        if (version != VERSION) throw new IOException("Unsupported level pack version " + version);
+        count = map.getInt(8);
+        long indexOffset = map.getLong(16), namesOffset = map.getLong(24);
+        if (count < 0 || indexOffset < HEADER || indexOffset + (long) count * ENTRY > namesOffset || namesOffset > map.capacity()) {
+            throw new IOException("Corrupt level pack index: " + file);
+        }
+        index = (int) indexOffset;
+        names = (int) namesOffset;
+    }
+
+    public static LevelPack open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel ch = raf.getChannel();
+            if (ch.size() > Integer.MAX_VALUE) throw new IOException("Level pack larger than 2GB: " + file);
+            return new LevelPack(file, raf, ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        } catch (IOException | RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    public File getFile() { return file; }
+    public int size() { return count; }
+
+    public synchronized String name(int i) {
+        int e = entry(i);
+        byte[] b = new byte[map.getInt(e + E_NAME_LEN)];
+        ByteBuffer n = map.duplicate();
+        n.position(names + map.getInt(e + E_NAME));
+        n.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /** Index of the level with this name, or -1. */
+    public synchronized int find(String name) {
+        byte[] key = name.getBytes(StandardCharsets.UTF_8);
+        int lo = 0, hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compareName(mid, key);
+            if (cmp < 0) lo = mid + 1;
+            else if (cmp > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    /** CanonicalLevel hash of level i, as hex. */
+    public synchronized String hash(int i) {
+        int e = entry(i) + E_HASH;
+        StringBuilder sb = new StringBuilder(2 * HASH_BYTES);
+        for (int k = 0; k < HASH_BYTES; k++) sb.append(String.format("%02x", map.get(e + k) & 0xFF));
+        return sb.toString();
+    }
+
+    /** Rating stored with level i, or null when the pack was built without one. */
+    public synchronized Difficulty difficulty(int i) {
+        int e = entry(i);
+        int moves = map.getInt(e + E_MOVES);
+        if (moves == NOT_RATED) return null;
+        return new Difficulty(moves, map.getInt(e + E_PIECES), map.getFloat(e + E_BRANCHING), map.getLong(e + E_DEAD_ENDS), map.getLong(e + E_STATES));
+    }
+
+    /** The encoded level i, a view of the mapping; do not use it after close(). */
+    public synchronized ByteBuffer data(int i) {
+        int e = entry(i);
+        return slice(map.getLong(e + E_DATA), map.getInt(e + E_DATA_LEN));
+    }
+
+    /** The thumbnail image of level i as stored (a view of the mapping, not to be used after close()), or null. */
+    public synchronized ByteBuffer thumbnail(int i) {
+        int e = entry(i);
+        int len = map.getInt(e + E_THUMB_LEN);
+        return len == 0 ? null : slice(map.getLong(e + E_THUMB), len);
+    }
+
+    /** Replaces the contents of blocks and gates with level i. */
+    public synchronized void read(int i, List<Block> blocks, List<ExitGate> gates) throws IOException {
+        BinaryLevelFormat.read(data(i), blocks, gates);
+    }
+
+    public synchronized boolean isOpen() { return !closed; }
+
+    /** Closes the file and unmaps it; any later call but size() and isOpen() throws IllegalStateException. */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        raf.close();
+        unmap(map);
+    }
+
+    // Without this the mapping stays until the buffer is collected, which for a pack replaced while
+    // the game runs can be never, and on Windows the old file cannot be deleted meanwhile. Only
+    // called once every access has stopped: all of them are synchronized and check closed first
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafe = Class.forName("sun.misc.Unsafe");
+            java.lang.reflect.Field theUnsafe = unsafe.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Java 8, or a runtime that hides Unsafe: the buffer is unmapped when it is collected
+        }
+    }
+
+    private int entry(int i) {
+        if (closed) throw new IllegalStateException("Level pack closed: " + file);
+        if (i < 0 || i >= count) throw new IndexOutOfBoundsException("Level " + i + " of " + count);
+        return index + i * ENTRY;
+    }
+
+    private ByteBuffer slice(long offset, int length) {
+        if (offset < HEADER || offset + length > index) throw new IllegalStateException("Corrupt level pack entry in " + file);
+        ByteBuffer b = map.duplicate();
+        b.position((int) offset).limit((int) offset + length);
+        return b.slice();
+    }
+
+    // Unsigned byte order, the order Writer sorts in
+    private int compareName(int i, byte[] key) {
+        int e = entry(i);
+        int at = names + map.getInt(e + E_NAME), len = map.getInt(e + E_NAME_LEN);
+        for (int k = 0; k < Math.min(len, key.length); k++) {
+            int d = (map.get(at + k) & 0xFF) - (key[k] & 0xFF);
+            if (d != 0) return d;
+        }
+        return len - key.length;
+    }
+
+    private static int compareBytes(byte[] a, byte[] b) {
+        for (int k = 0; k < Math.min(a.length, b.length); k++) {
+            int d = (a[k] & 0xFF) - (b[k] & 0xFF);
+            if (d != 0) return d;
+        }
+        return a.length - b.length;
+    }
+
+    /**
+     * Builds a pack level by level. Level data goes to disk as it is added; only the index entries
+     * stay in memory until close() writes the index and the names. Names must be unique.
+     */
+    public static class Writer implements Closeable {
+        private static final class Entry {
+            final byte[] name, hash;
+            final long data, thumb;
+            final int dataLength, thumbLength;
+            final Difficulty difficulty;
+
+            Entry(byte[] name, byte[] hash, long data, int dataLength, long thumb, int thumbLength, Difficulty difficulty) {
+                this.name = name;
+                this.hash = hash;
+                this.data = data;
+                this.dataLength = dataLength;
+                this.thumb = thumb;
+                this.thumbLength = thumbLength;
+                this.difficulty = difficulty;
+            }
+        }
+
+        private final RandomAccessFile raf;
+        private final FileChannel ch;
+        private final List<Entry> entries = new ArrayList<>();
+        private final Set<String> seen = new HashSet<>();
+        private final ByteArrayOutputStream level = new ByteArrayOutputStream();
+
+        public Writer(File file) throws IOException {
+            raf = new RandomAccessFile(file, "rw");
+            raf.setLength(0);
+            ch = raf.getChannel();
+            ch.position(HEADER);
+        }
+
+        /** Adds a level; difficulty and thumbnail may be null. Returns false for a name already in the pack. */
+        public boolean add(String name, List<Block> blocks, List<ExitGate> gates, Difficulty difficulty, byte[] thumbnail) throws IOException {
+            if (!seen.add(name)) return false;
+            level.reset();
+            BinaryLevelFormat.write(level, blocks, gates);
+            long data = ch.position();
+            writeFully(ByteBuffer.wrap(level.toByteArray()));
+            long thumb = 0;
+            if (thumbnail != null && thumbnail.length > 0) {
+                thumb = ch.position();
+                writeFully(ByteBuffer.wrap(thumbnail));
+            }
+            if (ch.position() > Integer.MAX_VALUE) throw new IOException("Level pack larger than 2GB");
+            entries.add(new Entry(name.getBytes(StandardCharsets.UTF_8), sha1Bytes(CanonicalLevel.hash(blocks, gates)),
+                    data, level.size(), thumb, thumbnail == null ? 0 : thumbnail.length, difficulty));
+            return true;
+        }
+
+        public int size() { return entries.size(); }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                entries.sort((a, b) -> compareBytes(a.name, b.name));
+                long indexOffset = ch.position();
+                ByteBuffer e = ByteBuffer.allocate(ENTRY);
+                int nameOffset = 0;
+                for (Entry en : entries) {
+                    e.clear();
+                    e.putLong(E_DATA, en.data).putLong(E_THUMB, en.thumb);
+                    e.putInt(E_DATA_LEN, en.dataLength).putInt(E_THUMB_LEN, en.thumbLength);
+                    e.putInt(E_NAME, nameOffset).putInt(E_NAME_LEN, en.name.length);
+                    for (int k = 0; k < HASH_BYTES; k++) e.put(E_HASH + k, en.hash[k]);
+                    Difficulty d = en.difficulty;
+                    e.putInt(E_MOVES, d == null ? NOT_RATED : d.moves).putInt(E_PIECES, d == null ? 0 : d.movedPieces);
+                    e.putFloat(E_BRANCHING, d == null ? 0 : (float) d.branching);
+                    e.putLong(E_DEAD_ENDS, d == null ? 0 : d.deadEnds).putLong(E_STATES, d == null ? 0 : d.states);
+                    writeFully(e);
+                    nameOffset += en.name.length;
+                }
+                long namesOffset = ch.position();
+                for (Entry en : entries) writeFully(ByteBuffer.wrap(en.name));
+                if (ch.position() > Integer.MAX_VALUE) throw new IOException("Level pack larger than 2GB");
+
+                ByteBuffer h = ByteBuffer.allocate(HEADER);
+                h.put(MAGIC).putInt(VERSION).putInt(entries.size()).putInt(0).putLong(indexOffset).putLong(namesOffset);
+                h.flip();
+                ch.position(0);
+                writeFully(h);
+            } finally {
+                raf.close();
+            }
+        }
+
+        private void writeFully(ByteBuffer b) throws IOException {
+            b.rewind();
+            while (b.hasRemaining()) ch.write(b);
+        }
+
+        private static byte[] sha1Bytes(String hex) {
+            byte[] b = new byte[HASH_BYTES];
+            for (int k = 0; k < HASH_BYTES && 2 * k + 1 < hex.length(); k++) b[k] = (byte) Integer.parseInt(hex.substring(2 * k, 2 * k + 2), 16);
+            return b;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.blocky.logic;
+
+import com.blocky.interfaces.IBoundsListener;
+import com.blocky.model.Entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Uniform grid over entity bounds, the broad phase for collision, picking and gate queries. Each
+ * entity is filed in every CELL x CELL cell its bounds touch and follows its own moves through
+ * IBoundsListener, so a query only looks at the entities near it instead of the whole level.
+ * Coordinates outside the covered area are clamped into the border cells, which keeps far-away
+ * editor objects correct, just not indexed finely. Entities keep the rank of their add() order,
+ * so picking can still prefer the one drawn on top. Queries allocate nothing.
+ */
+public class SpatialGrid<T extends Entity> implements IBoundsListener {
+    public static final int CELL = 2 * com.blocky.model.Block.CELL_SIZE;
+    // -2160..5040 in both directions: the editor's scrollable area with room to spare
+    private static final int ORIGIN = -24 * CELL, SIZE = 80;
+
+    private static final class Entry<T> {
+        final T entity;
+        final int rank;
+        int c0, r0, c1, r1; // cells it is filed in, inclusive
+
+        Entry(T entity, int rank) {
+            this.entity = entity;
+            this.rank = rank;
+        }
+    }
+
+    // Row-major, a cell's list is created when the first entity is filed in it
+    private final List<List<Entry<T>>> cells = new ArrayList<>(Collections.nCopies(SIZE * SIZE, null));
+    private final Map<Entity, Entry<T>> entries = new IdentityHashMap<>();
+    private int nextRank;
+
+    /** Replaces the contents with the entities of list, ranked in list order. */
+    public void rebuild(List<? extends T> list) {
+        clear();
+        for (int i = 0; i < list.size(); i++) add(list.get(i));
+    }
+
+    public void clear() {
+        for (Entry<T> e : entries.values()) e.entity.setBoundsListener(null);
+        entries.clear();
+        for (List<Entry<T>> cell : cells) if (cell != null) cell.clear();
+        nextRank = 0;
+    }
+
+    /** Adds e above everything already indexed. */
+    public void add(T e) {
+        if (entries.containsKey(e)) return;
+        Entry<T> entry = new Entry<>(e, nextRank++);
+        entries.put(e, entry);
+        file(entry, e.getX(), e.getY(), e.getWidth(), e.getHeight());
+        e.setBoundsListener(this);
+    }
+
+    public void remove(T e) {
+        Entry<T> entry = entries.remove(e);
+        if (entry == null) return;
+        unfile(entry);
+        e.setBoundsListener(null);
+    }
+
+    public int size() { return entries.size(); }
+
+    @Override
+    public void boundsChanged(Entity e, int oldX, int oldY, int oldW, int oldH) {
+        Entry<T> entry = entries.get(e);
+        if (entry == null) return;
+        int c0 = col(e.getX()), r0 = col(e.getY());
+        int c1 = col(e.getX() + Math.max(1, e.getWidth()) - 1), r1 = col(e.getY() + Math.max(1, e.getHeight()) - 1);
+        if (c0 == entry.c0 && r0 == entry.r0 && c1 == entry.c1 && r1 == entry.r1) return; // same cells
+        unfile(entry);
+        file(entry, e.getX(), e.getY(), e.getWidth(), e.getHeight());
+    }
+
+    /**
+     * Appends to out every entity whose bounds overlap the w x h rectangle at (x, y), each once,
+     * in no particular order.
+     */
+    public void query(int x, int y, int w, int h, List<? super T> out) {
+        int c0 = col(x), r0 = col(y), c1 = col(x + Math.max(1, w) - 1), r1 = col(y + Math.max(1, h) - 1);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                List<Entry<T>> cell = cells.get(r * SIZE + c);
+                if (cell == null) continue;
+                for (int i = 0; i < cell.size(); i++) {
+                    Entry<T> e = cell.get(i);
+                    // Filed in several cells: report it only from the first cell both ranges share
+                    if (c != Math.max(c0, e.c0) || r != Math.max(r0, e.r0)) continue;
+                    T t = e.entity;
+                    if (t.getX() < x + w && x < t.getX() + t.getWidth() && t.getY() < y + h && y < t.getY() + t.getHeight()) out.add(t);
+                }
+            }
+        }
+    }
+
+    /**
+     * The accepted entity at the point with the highest rank (topmost) or the lowest one (first
+     * added), or null.
+     */
+    public T pick(int x, int y, boolean topmost, Predicate<? super T> accept) {
+        List<Entry<T>> cell = cells.get(col(y) * SIZE + col(x));
+        if (cell == null) return null;
+        Entry<T> best = null;
+        for (int i = 0; i < cell.size(); i++) {
+            Entry<T> e = cell.get(i);
+            if (best != null && (topmost ? e.rank < best.rank : e.rank > best.rank)) continue;
+            if (accept.test(e.entity)) best = e;
+        }
+        return best == null ? null : best.entity;
+    }
+
+    private void file(Entry<T> entry, int x, int y, int w, int h) {
+        entry.c0 = col(x);
+        entry.r0 = col(y);
+        entry.c1 = col(x + Math.max(1, w) - 1);
+        entry.r1 = col(y + Math.max(1, h) - 1);
+        for (int r = entry.r0; r <= entry.r1; r++) {
+            for (int c = entry.c0; c <= entry.c1; c++) {
+                int i = r * SIZE + c;
+                if (cells.get(i) == null) cells.set(i, new ArrayList<>(4));
+                cells.get(i).add(entry);
+            }
+        }
+    }
+
+    private void unfile(Entry<T> entry) {
+        for (int r = entry.r0; r <= entry.r1; r++)
+            for (int c = entry.c0; c <= entry.c1; c++)
+                cells.get(r * SIZE + c).remove(entry);
+    }
+
+    // Cell index of a coordinate, clamped into the grid (the same for rows and columns)
+    private static int col(int v) {
+        return Math.max(0, Math.min(SIZE - 1, Math.floorDiv(v - ORIGIN, CELL)));
+    }
+}
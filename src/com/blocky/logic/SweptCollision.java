@@ -0,0 +1,151 @@
+package com.blocky.logic;
+
+import com.blocky.model.Block;
+import java.util.List;
+
+/**
+ * Swept form of CollisionManager's rules, used for drags. In position space every obstacle is a
+ * set of open boxes the mover's top-left corner may not enter: one per wall or gate (the mover's
+ * 2px-reduced bounds against the wall's bounds), one per pair of cells against a block, and four
+ * half-planes for the playfield. A drag intersects its segment with every box once (slab test) to
+ * find the first contact, then slides along the axis that is still free for the rest of the move.
+ * The cost depends on the number of obstacles, not on how far the mouse went, and nothing can be
+ * skipped between samples. Keeps its scratch state, so use one instance per thread.
+ */
+public class SweptCollision {
+    private static final int CELL = Block.CELL_SIZE;
+    private static final int TOLERANCE = 2;
+    // Playfield limits from CollisionManager.isValidMove
+    private static final int MIN_X = 0, MIN_Y = 60, MAX_X = 1000, MAX_Y = 1200;
+    private static final int FAR = 1 << 20;
+
+    /** Position reached by the last sweep(). */
+    public int x, y;
+
+    // Current pass: segment start and direction, earliest contact and the axes it blocks
+    private int sx, sy, dx, dy;
+    private double hitT;
+    private boolean hitX, hitY;
+
+    /**
+     * Moves mover from (fromX, fromY) towards (toX, toY) as far as the obstacles allow, sliding
+     * along them; the result is left in x and y. Whatever the start position already overlaps
+     * does not stop it, so a mover can be dragged out of an overlap.
+     */
+    public void sweep(Block mover, int fromX, int fromY, int toX, int toY, List<Block> others) {
+        x = fromX;
+        y = fromY;
+        if (fromX == toX && fromY == toY) return;
+        scan(mover, fromX, fromY, toX - fromX, toY - fromY, others);
+        if (hitT >= 1) {
+            x = toX;
+            y = toY;
+            return;
+        }
+        contact();
+        if (hitX && !hitY && y != toY) {
+            slide(mover, x, toY, others);
+        } else if (hitY && !hitX && x != toX) {
+            slide(mover, toX, y, others);
+        }
+    }
+
+    // Second, axis-aligned pass from the contact point
+    private void slide(Block mover, int toX, int toY, List<Block> others) {
+        scan(mover, x, y, toX - x, toY - y, others);
+        if (hitT >= 1) {
+            x = toX;
+            y = toY;
+        } else {
+            contact();
+        }
+    }
+
+    // Last free integer position before the contact, rounded back towards the start; box edges are
+    // integers, so rounding never enters a box the exact contact point was outside of
+    private void contact() {
+        x = towardsStart(sx + hitT * dx, dx);
+        y = towardsStart(sy + hitT * dy, dy);
+    }
+
+    private static int towardsStart(double c, int dir) {
+        double nearest = Math.rint(c);
+        if (Math.abs(c - nearest) < 1e-9) return (int) nearest; // on an edge, up to the division's rounding
+        return (int) (dir > 0 ? Math.floor(c) : Math.ceil(c));
+    }
+
+    private void scan(Block mover, int startX, int startY, int dirX, int dirY, List<Block> others) {
+        sx = startX;
+        sy = startY;
+        dx = dirX;
+        dy = dirY;
+        hitT = 1;
+        hitX = hitY = false;
+
+        int w = mover.getWidth(), h = mover.getHeight();
+        box(-FAR, MIN_X, -FAR, FAR);
+        box(-FAR, FAR, -FAR, MIN_Y);
+        box(MAX_X - w, FAR, -FAR, FAR);
+        box(-FAR, FAR, MAX_Y - h, FAR);
+
+        int[][] m = mover.shapeMatrix;
+        for (int i = 0; i < others.size(); i++) {
+            Block o = others.get(i);
+            if (o.getWidth() <= 0 || o.getHeight() <= 0) continue;
+            if (o.isObstacle()) {
+                // Reduced bounds (x + 2, w - 4) against the wall's bounds
+                if (w - 2 * TOLERANCE <= 0 || h - 2 * TOLERANCE <= 0) continue;
+                box(o.getX() - w + TOLERANCE, o.getX() + o.getWidth() - TOLERANCE, o.getY() - h + TOLERANCE, o.getY() + o.getHeight() - TOLERANCE);
+                continue;
+            }
+            // Reduced mover cell against full obstacle cell: open interval of width 2 * (CELL - TOLERANCE)
+            int[][] om = o.shapeMatrix;
+            for (int r1 = 0; r1 < m.length; r1++) {
+                for (int c1 = 0; c1 < m[r1].length; c1++) {
+                    if (m[r1][c1] == 0) continue;
+                    for (int r2 = 0; r2 < om.length; r2++) {
+                        for (int c2 = 0; c2 < om[r2].length; c2++) {
+                            if (om[r2][c2] == 0) continue;
+                            int bx = o.getX() + (c2 - c1) * CELL, by = o.getY() + (r2 - r1) * CELL;
+                            box(bx - (CELL - TOLERANCE), bx + (CELL - TOLERANCE), by - (CELL - TOLERANCE), by + (CELL - TOLERANCE));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Slab test of the segment against the open box (ax, bx) x (ay, by)
+    private void box(int ax, int bx, int ay, int by) {
+        if (ax >= bx || ay >= by) return;
+        double inX, outX, inY, outY;
+        if (dx == 0) {
+            if (sx <= ax || sx >= bx) return;
+            inX = Double.NEGATIVE_INFINITY;
+            outX = Double.POSITIVE_INFINITY;
+        } else {
+            double t1 = (double) (ax - sx) / dx, t2 = (double) (bx - sx) / dx;
+            inX = Math.min(t1, t2);
+            outX = Math.max(t1, t2);
+        }
+        if (dy == 0) {
+            if (sy <= ay || sy >= by) return;
+            inY = Double.NEGATIVE_INFINITY;
+            outY = Double.POSITIVE_INFINITY;
+        } else {
+            double t1 = (double) (ay - sy) / dy, t2 = (double) (by - sy) / dy;
+            inY = Math.min(t1, t2);
+            outY = Math.max(t1, t2);
+        }
+        double in = Math.max(inX, inY), out = Math.min(outX, outY);
+        if (in >= out || out <= 0 || in >= 1 || in > hitT) return;
+        if (in < 0) return; // the start is already in this box: only leaving it is possible
+        if (in < hitT) {
+            hitT = in;
+            hitX = hitY = false;
+        }
+        // The axis whose slab was entered last is the one that stops the mover
+        if (inX >= inY) hitX = true;
+        if (inY >= inX) hitY = true;
+    }
+}
@@ -1,6 +1,8 @@
 package com.blocky.main;
 
 import com.blocky.logic.GameEngine;
+import com.blocky.logic.GameLoop;
+import com.blocky.view.ActiveRenderer;
 import com.blocky.view.BoardPanel;
 
 import javax.swing.*;
@@ -15,19 +17,23 @@ public class Blocky {
 
             // Folosim BoardPanel care are dimensiunile logice setate
             BoardPanel panel = new BoardPanel();
-            frame.add(panel);
+            // -Dblocky.render=active draws on a BufferStrategy canvas from a render thread instead of Swing repaints
+            boolean active = "active".equals(System.getProperty("blocky.render"));
+            ActiveRenderer canvas = active ? new ActiveRenderer(panel, Integer.getInteger("blocky.fps", 60)) : null;
+            frame.add(active ? canvas : panel);
 
             frame.pack();
             frame.setLocationRelativeTo(null);
             frame.setResizable(true);
             frame.setVisible(true);
 
-            // Game Loop (~60 FPS)
-            Timer timer = new Timer(16, e -> {
-                GameEngine.getInstance().update();
-                panel.repaint();
-            });
-            timer.start();
+            // Simulation runs on its own thread at a fixed 60 ticks/s; the EDT only paints and handles input
+            if (active) {
+                canvas.start();
+                new GameLoop(GameEngine.getInstance(), null).start();
+            } else {
+                new GameLoop(GameEngine.getInstance(), panel::refreshView).start(); // repaints only what the step changed
+            }
         });
     }
 }
\ No newline at end of file
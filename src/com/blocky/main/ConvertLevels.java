@@ -0,0 +1,69 @@
+package com.blocky.main;
+
+import com.blocky.logic.BinaryLevelFormat;
+import com.blocky.logic.LevelFactory;
+import com.blocky.model.Block;
+import com.blocky.model.ExitGate;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Converts saved levels between the text format and BinaryLevelFormat. Every levels/*.txt gets a
+ * .blv next to it (or the other way round with --to text); existing targets are left alone unless
+ * --force. With --delete the source is removed once its copy reads back as the same level.
+ *
+ * Usage: ConvertLevels [dir] [--to binary|text] [--force] [--delete]
+ */
+public class ConvertLevels {
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        File dir = new File("levels");
+        boolean toBinary = true, force = false, delete = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--to": toBinary = !"text".equals(args[++i]); break;
+                case "--force": force = true; break;
+                case "--delete": delete = true; break;
+                default: dir = new File(args[i]);
+            }
+        }
+
+        String from = toBinary ? ".txt" : BinaryLevelFormat.EXTENSION, to = toBinary ? BinaryLevelFormat.EXTENSION : ".txt";
+        File[] files = dir.listFiles((d, name) -> name.endsWith(from));
+        if (files == null) {
+            System.err.println("No levels directory: " + dir.getPath());
+            System.exit(2);
+        }
+        Arrays.sort(files);
+
+        int converted = 0, failed = 0;
+        for (File source : files) {
+            File target = new File(dir, source.getName().substring(0, source.getName().length() - from.length()) + to);
+            if (target.exists() && !force) continue;
+            try {
+                List<Block> blocks = new ArrayList<>();
+                List<ExitGate> gates = new ArrayList<>();
+                LevelFactory.readLevelFile(source, blocks, gates);
+                LevelFactory.writeLevelFile(target, blocks, gates);
+
+                List<Block> checkBlocks = new ArrayList<>();
+                List<ExitGate> checkGates = new ArrayList<>();
+                LevelFactory.readLevelFile(target, checkBlocks, checkGates);
+                if (!LevelFactory.serializeLevel(checkBlocks, checkGates).equals(LevelFactory.serializeLevel(blocks, gates))) {
+                    throw new IllegalStateException("copy does not read back as the same level");
+                }
+                if (delete && !source.delete()) System.err.println("Could not delete " + source.getPath());
+                converted++;
+            } catch (Exception e) {
+                System.err.println(source.getPath() + ": " + e.getMessage());
+                failed++;
+            }
+        }
+        System.err.println(converted + " levels converted to " + to + ", " + failed + " failed");
+        System.exit(failed == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,39 @@
+package com.blocky.main;
+
+import com.blocky.generator.DailyPuzzle;
+import com.blocky.generator.DailyPuzzles;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Batch job for the daily puzzles: fills levels/daily/ for the next N days (default: a year).
+ * Days already stored are kept, so the job can run again at any time.
+ *
+ * Usage: GenerateDailyPuzzles [--from YYYY-MM-DD] [--days N] [--threads N] [--out DIR]
+ */
+public class GenerateDailyPuzzles {
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        LocalDate from = LocalDate.now();
+        int days = 365;
+        int threads = Runtime.getRuntime().availableProcessors();
+        File out = new File("levels", "daily");
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--from": from = LocalDate.parse(args[++i]); break;
+                case "--days": days = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--out": out = new File(args[++i]); break;
+                default: System.err.println("Unknown option: " + args[i]); System.exit(2);
+            }
+        }
+
+        long t0 = System.nanoTime();
+        List<DailyPuzzle> puzzles = new DailyPuzzles(out).generate(from, days, threads);
+        for (DailyPuzzle p : puzzles) System.out.println(p);
+        System.err.println(puzzles.size() + " new puzzles in " + (System.nanoTime() - t0) / 1_000_000 + "ms");
+    }
+}
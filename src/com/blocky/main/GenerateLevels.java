@@ -0,0 +1,53 @@
+package com.blocky.main;
+
+import com.blocky.generator.LevelGenerator;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * Headless level generator. Writes levels/gen-SEED-K.txt for every level that met the move range.
+ *
+ * Usage: GenerateLevels [--count N] [--seed S] [--min-moves N] [--max-moves N] [--threads N] [--out DIR]
+ */
+public class GenerateLevels {
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        int count = 10, minMoves = 8, maxMoves = Integer.MAX_VALUE;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        File out = new File("levels");
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--count": count = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--min-moves": minMoves = Integer.parseInt(args[++i]); break;
+                case "--max-moves": maxMoves = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--out": out = new File(args[++i]); break;
+                default: System.err.println("Unknown option: " + args[i]); System.exit(2);
+            }
+        }
+
+        long t0 = System.nanoTime();
+        List<LevelGenerator.Level> levels = new LevelGenerator(seed).setMoveRange(minMoves, maxMoves).generate(count, threads);
+        out.mkdirs();
+        int written = 0;
+        for (int k = 0; k < levels.size(); k++) {
+            LevelGenerator.Level level = levels.get(k);
+            if (level == null) {
+                System.err.println("level " + k + ": no candidate in range");
+                continue;
+            }
+            File file = new File(out, "gen-" + seed + "-" + k + ".txt");
+            try (PrintWriter pw = new PrintWriter(file, "UTF-8")) {
+                pw.print(level.serialize());
+            }
+            System.out.println(file.getPath() + " moves=" + level.moves);
+            written++;
+        }
+        System.err.println(written + "/" + count + " levels in " + (System.nanoTime() - t0) / 1_000_000 + "ms");
+    }
+}
@@ -0,0 +1,95 @@
+package com.blocky.main;
+
+import com.blocky.logic.BinaryLevelFormat;
+import com.blocky.logic.LevelFactory;
+import com.blocky.model.Block;
+import com.blocky.model.ExitGate;
+import com.blocky.view.Theme;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Parse throughput of the text level format against BinaryLevelFormat, on random editor maps of
+ * growing size. Both copies of each map are checked to decode to the same level before timing.
+ * Prints one line per size.
+ *
+ * Usage: LevelFormatBenchmark [--max N] [--millis N] [--seed S]
+ */
+public class LevelFormatBenchmark {
+    private static final Color[] COLORS = { Theme.RED_BLOCK, Theme.BLUE_BLOCK, Theme.GREEN_BLOCK, Theme.ORANGE_BLOCK, Theme.YELLOW_BLOCK, Theme.CYAN_BLOCK, Theme.PURPLE_BLOCK, Theme.PINK_BLOCK };
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        int max = 4096;
+        long millis = 500, seed = 1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--max": max = Integer.parseInt(args[++i]); break;
+                case "--millis": millis = Long.parseLong(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                default: System.err.println("Unknown option: " + args[i]); System.exit(2);
+            }
+        }
+
+        System.out.println("entities  text bytes  binary bytes  text levels/s  binary levels/s  speedup");
+        for (int n = 16; n <= max; n *= 4) {
+            String text = LevelFactory.serializeLevel(randomBlocks(new Random(seed), n), randomGates(new Random(seed)));
+            byte[] binary = BinaryLevelFormat.fromText(text);
+            if (!BinaryLevelFormat.toText(binary).equals(text)) throw new IllegalStateException("formats disagree at n=" + n);
+
+            List<Block> blocks = new ArrayList<>();
+            List<ExitGate> gates = new ArrayList<>();
+            // Warm both paths up before timing
+            rate(() -> LevelFactory.parseLevel(text, blocks, gates), millis / 2);
+            rate(() -> BinaryLevelFormat.read(new ByteArrayInputStream(binary), blocks, gates), millis / 2);
+            double textRate = rate(() -> LevelFactory.parseLevel(text, blocks, gates), millis);
+            double binaryRate = rate(() -> BinaryLevelFormat.read(new ByteArrayInputStream(binary), blocks, gates), millis);
+            System.out.println(String.format(Locale.ROOT, "%8d  %10d  %12d  %13.0f  %15.0f  %6.1fx",
+                    n, text.length(), binary.length, textRate, binaryRate, binaryRate / textRate));
+        }
+    }
+
+    private interface Parse { void run() throws Exception; }
+
+    // Parses per second over about millis of wall time
+    private static double rate(Parse parse, long millis) throws Exception {
+        long count = 0, t0 = System.nanoTime(), end = t0 + millis * 1_000_000;
+        long now;
+        do {
+            for (int i = 0; i < 16; i++) parse.run();
+            count += 16;
+            now = System.nanoTime();
+        } while (now < end);
+        return count * 1e9 / (now - t0);
+    }
+
+    // Walls and editor shapes scattered over a map that grows with n, like a large custom level
+    private static List<Block> randomBlocks(Random rnd, int n) {
+        int span = 45 * (int) Math.ceil(Math.sqrt(n) * 4);
+        List<Block> blocks = new ArrayList<>();
+        int[][] shape = LevelFactory.expandTiles(LevelFactory.S_1x1);
+        for (int i = 0; i < n; i++) {
+            int x = rnd.nextInt(span / 45) * 45, y = rnd.nextInt(span / 45) * 45;
+            if (i % 4 == 0) {
+                int w = 45 * (1 + rnd.nextInt(6));
+                blocks.add(new Block(x, y, w, 45, LevelFactory.createRect(w, 45, 45), Theme.WALL_COLOR));
+            } else {
+                for (int k = rnd.nextInt(20); k > 0; k--) shape = LevelFactory.nextEditorShape(shape).cells;
+                blocks.add(new Block(x, y, shape, COLORS[rnd.nextInt(COLORS.length)], Block.Axis.values()[rnd.nextInt(3)]));
+            }
+        }
+        return blocks;
+    }
+
+    private static List<ExitGate> randomGates(Random rnd) {
+        List<ExitGate> gates = new ArrayList<>();
+        for (int side = 0; side < 4; side++) gates.add(new ExitGate(rnd.nextInt(1000), rnd.nextInt(1000), 90, 45, COLORS[rnd.nextInt(COLORS.length)], side));
+        return gates;
+    }
+}
@@ -0,0 +1,119 @@
+package com.blocky.main;
+
+import com.blocky.logic.BinaryLevelFormat;
+import com.blocky.logic.LevelFactory;
+import com.blocky.logic.LevelPack;
+import com.blocky.model.Block;
+import com.blocky.model.ExitGate;
+import com.blocky.solver.Difficulty;
+import com.blocky.solver.DifficultyEstimator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Moves levels between the loose levels/ layout and a LevelPack. import packs every *.txt and
+ * *.blv of a directory (with --rate each level is also rated, which is slow for big sets); export
+ * writes every level of a pack back as a loose file; list prints the index without decoding levels.
+ * The game reads levels/levels.pack next to the loose files.
+ *
+ * Usage: LevelPackTool import [dir] [pack] [--rate]
+ *        LevelPackTool export [pack] [dir] [--binary] [--force]
+ *        LevelPackTool list [pack]
+ */
+public class LevelPackTool {
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length == 0) usage();
+
+        List<String> paths = new ArrayList<>();
+        boolean rate = false, binary = false, force = false;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--rate": rate = true; break;
+                case "--binary": binary = true; break;
+                case "--force": force = true; break;
+                default: paths.add(args[i]);
+            }
+        }
+        File defaultPack = new File("levels", "levels" + LevelPack.EXTENSION);
+        switch (args[0]) {
+            case "import":
+                importDir(paths.size() > 0 ? new File(paths.get(0)) : new File("levels"), paths.size() > 1 ? new File(paths.get(1)) : defaultPack, rate);
+                break;
+            case "export":
+                export(paths.size() > 0 ? new File(paths.get(0)) : defaultPack, paths.size() > 1 ? new File(paths.get(1)) : new File("levels"), binary, force);
+                break;
+            case "list":
+                list(paths.size() > 0 ? new File(paths.get(0)) : defaultPack);
+                break;
+            default:
+                usage();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: LevelPackTool import [dir] [pack] [--rate] | export [pack] [dir] [--binary] [--force] | list [pack]");
+        System.exit(2);
+    }
+
+    private static void importDir(File dir, File packFile, boolean rate) throws Exception {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".txt") || name.endsWith(BinaryLevelFormat.EXTENSION));
+        if (files == null) {
+            System.err.println("No levels directory: " + dir.getPath());
+            System.exit(2);
+        }
+        Arrays.sort(files);
+        // Written next to the target and moved over it at the end, so the game never maps half a pack
+        File tmp = new File(packFile.getPath() + ".tmp");
+        int failed = 0, skipped = 0, added;
+        try (LevelPack.Writer w = new LevelPack.Writer(tmp)) {
+            List<Block> blocks = new ArrayList<>();
+            List<ExitGate> gates = new ArrayList<>();
+            for (File f : files) {
+                String name = f.getName().substring(0, f.getName().lastIndexOf('.'));
+                try {
+                    LevelFactory.readLevelFile(f, blocks, gates);
+                    Difficulty d = rate ? DifficultyEstimator.rate(blocks, gates) : null;
+                    if (!w.add(name, blocks, gates, d, null)) skipped++; // same name as .txt and .blv: the first one wins
+                } catch (Exception e) {
+                    System.err.println(f.getPath() + ": " + e.getMessage());
+                    failed++;
+                }
+            }
+            added = w.size();
+        }
+        if (packFile.exists() && !packFile.delete()) throw new IllegalStateException("Could not replace " + packFile.getPath());
+        if (!tmp.renameTo(packFile)) throw new IllegalStateException("Could not write " + packFile.getPath());
+        System.err.println(added + " levels packed into " + packFile.getPath() + ", " + skipped + " duplicate names skipped, " + failed + " failed");
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    private static void export(File packFile, File dir, boolean binary, boolean force) throws Exception {
+        if (!dir.exists()) dir.mkdirs();
+        int written = 0, skipped = 0;
+        try (LevelPack pack = LevelPack.open(packFile)) {
+            List<Block> blocks = new ArrayList<>();
+            List<ExitGate> gates = new ArrayList<>();
+            for (int i = 0; i < pack.size(); i++) {
+                File out = new File(dir, pack.name(i) + (binary ? BinaryLevelFormat.EXTENSION : ".txt"));
+                if (out.exists() && !force) { skipped++; continue; }
+                pack.read(i, blocks, gates);
+                LevelFactory.writeLevelFile(out, blocks, gates);
+                written++;
+            }
+        }
+        System.err.println(written + " levels written to " + dir.getPath() + ", " + skipped + " existing files left alone");
+    }
+
+    private static void list(File packFile) throws Exception {
+        try (LevelPack pack = LevelPack.open(packFile)) {
+            for (int i = 0; i < pack.size(); i++) {
+                Difficulty d = pack.difficulty(i);
+                System.out.println(pack.name(i) + "\t" + pack.hash(i) + "\t" + pack.data(i).remaining() + "\t" + (d == null ? "-" : d.label() + " " + d.moves));
+            }
+        }
+    }
+}
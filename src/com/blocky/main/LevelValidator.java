@@ -0,0 +1,222 @@
+package com.blocky.main;
+
+import com.blocky.logic.BinaryLevelFormat;
+import com.blocky.logic.LevelFactory;
+import com.blocky.model.Block;
+import com.blocky.model.ExitGate;
+import com.blocky.solver.Board;
+import com.blocky.solver.CanonicalLevel;
+import com.blocky.solver.Heuristics;
+import com.blocky.solver.InformedSolver;
+import com.blocky.solver.Solution;
+import com.blocky.solver.Solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless batch validator for saved maps (no Swing). Solves every levels/*.txt (and binary .blv,
+ * which wins over a .txt of the same name) in parallel, with IDA* and then breadth-first search
+ * when IDA* hits the state limit, and prints one JSON object per line as soon as each level
+ * finishes. Exits with status 1 when a map is unsolvable, could not be decided, is shorter than
+ * --min-moves, or is a mirrored, rotated, recolored or shifted copy of an earlier map, so CI can
+ * reject it.
+ *
+ * Usage: LevelValidator [dir] [--threads N] [--min-moves N] [--max-states N]
+ */
+public class LevelValidator {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        File dir = new File("levels");
+        int threads = Runtime.getRuntime().availableProcessors();
+        int minMoves = 2;
+        long maxStates = Solver.DEFAULT_MAX_STATES;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--min-moves": minMoves = Integer.parseInt(args[++i]); break;
+                case "--max-states": maxStates = Long.parseLong(args[++i]); break;
+                default: dir = new File(args[i]);
+            }
+        }
+
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".txt") || name.endsWith(BinaryLevelFormat.EXTENSION));
+        if (files == null) {
+            System.err.println("No levels directory: " + dir.getPath());
+            System.exit(2);
+        }
+        // ConvertLevels leaves a.txt next to a.blv by default: one level, checked once, in its binary form
+        Map<String, File> byName = new TreeMap<>();
+        for (File f : files) {
+            String base = f.getName().substring(0, f.getName().lastIndexOf('.'));
+            if (f.getName().endsWith(BinaryLevelFormat.EXTENSION) || !byName.containsKey(base)) byName.put(base, f);
+        }
+        List<File> levels = new ArrayList<>(byName.values());
+
+        int rejected = validate(levels, threads, minMoves, maxStates, System.out);
+        System.err.println(levels.size() + " levels checked, " + rejected + " rejected");
+        System.exit(rejected == 0 ? 0 : 1);
+    }
+
+    /** Validates the files and streams one report line per file to out. Returns the number rejected. */
+    public static int validate(List<File> files, int threads, int minMoves, long maxStates, PrintStream out) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        CompletionService<Report> done = new ExecutorCompletionService<>(pool);
+        try {
+            // Maps that only differ by symmetry (see CanonicalLevel) are reported against the first one in file order
+            Map<String, String> firstByHash = new HashMap<>();
+            Map<Future<Report>, File> fileOf = new HashMap<>();
+            for (File f : files) {
+                String original = null;
+                try {
+                    original = firstByHash.putIfAbsent(canonicalHash(f), f.getName());
+                } catch (Exception ignored) { } // validate() reports unreadable files
+                String duplicateOf = original;
+                if (duplicateOf != null) fileOf.put(done.submit(() -> duplicate(f, duplicateOf)), f);
+                else fileOf.put(done.submit(() -> validate(f, minMoves, maxStates)), f);
+            }
+            int rejected = 0;
+            for (int i = 0; i < files.size(); i++) {
+                Future<Report> future = done.take();
+                Report r;
+                try {
+                    r = future.get();
+                } catch (ExecutionException e) {
+                    // validate() turns exceptions into ERROR lines; this is an Error (out of memory, stack overflow)
+                    File f = fileOf.get(future);
+                    r = new Report(levelName(f), f.getPath(), "ERROR", -1, 0, 0, peakHeapBytes(), 0, String.valueOf(e.getCause()));
+                }
+                if (!r.ok) rejected++;
+                out.println(r.toJson());
+                out.flush();
+            }
+            return rejected;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static String canonicalHash(File file) throws IOException {
+        List<Block> blocks = new ArrayList<>();
+        List<ExitGate> gates = new ArrayList<>();
+        LevelFactory.readLevelFile(file, blocks, gates);
+        return CanonicalLevel.hash(blocks, gates);
+    }
+
+    // a.txt and a.blv are both level "a"
+    private static String levelName(File file) {
+        return file.getName().substring(0, file.getName().lastIndexOf('.'));
+    }
+
+    private static Report duplicate(File file, String original) {
+        String name = levelName(file);
+        return new Report(name, file.getPath(), "DUPLICATE", -1, 0, 0, peakHeapBytes(), 0, "duplicate of " + original);
+    }
+
+    public static Report validate(File file, int minMoves, long maxStates) {
+        String name = levelName(file);
+        long t0 = System.nanoTime();
+        long alloc0 = allocatedBytes();
+        try {
+            List<Block> blocks = new ArrayList<>();
+            List<ExitGate> gates = new ArrayList<>();
+            LevelFactory.readLevelFile(file, blocks, gates);
+            Board board = new Board(blocks, gates);
+            Solution s = new InformedSolver(board, Heuristics.BLOCKING).setMaxStates(maxStates).solveIdaStar();
+            long states = s.statesExplored;
+            // IDA* never proves a level lost, it runs into the limit instead; breadth-first search remembers
+            // every state, so it settles small unsolvable levels and gets its own try at the others
+            if (s.status == Solution.Status.LIMIT_REACHED) {
+                s = new Solver(board).setMaxStates(maxStates).solve();
+                states += s.statesExplored;
+            }
+
+            String reason = null;
+            if (s.status == Solution.Status.UNSOLVABLE) reason = "unsolvable";
+            else if (s.status == Solution.Status.LIMIT_REACHED) reason = "state limit reached";
+            else if (s.moveCount() < minMoves) reason = "too short (" + s.moveCount() + " < " + minMoves + " moves)";
+            return new Report(name, file.getPath(), s.status.name(), s.moveCount(), states,
+                    System.nanoTime() - t0, peakHeapBytes(), allocatedBytes() - alloc0, reason);
+        } catch (Exception e) {
+            return new Report(name, file.getPath(), "ERROR", -1, 0, System.nanoTime() - t0, peakHeapBytes(),
+                    allocatedBytes() - alloc0, e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    /** Highest heap usage of this JVM so far; levels run side by side, so it is shared between them. */
+    private static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+    /** Bytes allocated by the calling thread, or 0 when the JVM cannot tell. */
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    /** One line of the validation report. */
+    public static final class Report {
+        public final String level, file, status;
+        public final int moves;
+        public final long states, wallNanos, peakHeapBytes, allocatedBytes;
+        public final String reason; // null when the level passed
+        public final boolean ok;
+
+        Report(String level, String file, String status, int moves, long states, long wallNanos,
+               long peakHeapBytes, long allocatedBytes, String reason) {
+            this.level = level;
+            this.file = file;
+            this.status = status;
+            this.moves = moves;
+            this.states = states;
+            this.wallNanos = wallNanos;
+            this.peakHeapBytes = peakHeapBytes;
+            this.allocatedBytes = allocatedBytes;
+            this.reason = reason;
+            this.ok = reason == null;
+        }
+
+        public String toJson() {
+            return String.format(Locale.ROOT, "{\"level\":%s,\"file\":%s,\"status\":\"%s\",\"solvable\":%b,\"moves\":%d,\"states\":%d,"
+                            + "\"wallMillis\":%.3f,\"peakHeapBytes\":%d,\"allocatedBytes\":%d,\"ok\":%b,\"reason\":%s}",
+                    quote(level), quote(file), status, "SOLVED".equals(status), moves, states,
+                    wallNanos / 1e6, peakHeapBytes, allocatedBytes, ok, reason == null ? "null" : quote(reason));
+        }
+
+        private static String quote(String s) {
+            StringBuilder sb = new StringBuilder("\"");
+            for (char c : s.toCharArray()) {
+                if (c == '"' || c == '\\') sb.append('\\').append(c);
+                else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                else sb.append(c);
+            }
+            return sb.append('"').toString();
+        }
+    }
+}
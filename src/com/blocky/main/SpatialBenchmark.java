@@ -0,0 +1,94 @@
+package com.blocky.main;
+
+import com.blocky.logic.SpatialGrid;
+import com.blocky.model.Block;
+import com.blocky.view.Theme;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Query cost of SpatialGrid against a linear scan as the entity count grows: wall segments
+ * scattered over a large editor map, queried with drag-sized rectangles. Prints one line per count.
+ *
+ * Usage: SpatialBenchmark [--max N] [--queries N] [--seed S]
+ */
+public class SpatialBenchmark {
+    private static final int MAP = 4500; // px, a 100 x 100 cell editor map
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        int max = 8192, queries = 200_000;
+        long seed = 1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--max": max = Integer.parseInt(args[++i]); break;
+                case "--queries": queries = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                default: System.err.println("Unknown option: " + args[i]); System.exit(2);
+            }
+        }
+
+        System.out.println("entities  linear ns/query  grid ns/query  speedup  hits/query");
+        for (int n = 16; n <= max; n *= 4) {
+            Random rnd = new Random(seed);
+            List<Block> walls = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                int x = rnd.nextInt(MAP / 45) * 45, y = rnd.nextInt(MAP / 45) * 45;
+                boolean horizontal = rnd.nextBoolean();
+                int w = horizontal ? 45 * (1 + rnd.nextInt(4)) : 45, h = horizontal ? 45 : 45 * (1 + rnd.nextInt(4));
+                walls.add(new Block(x, y, w, h, new int[][]{{1}}, Theme.WALL_COLOR));
+            }
+            SpatialGrid<Block> grid = new SpatialGrid<>();
+            grid.rebuild(walls);
+            int[] qx = new int[1024], qy = new int[1024];
+            for (int i = 0; i < qx.length; i++) {
+                qx[i] = rnd.nextInt(MAP);
+                qy[i] = rnd.nextInt(MAP);
+            }
+
+            List<Block> out = new ArrayList<>();
+            // Warm both paths up before timing
+            linear(walls, qx, qy, queries / 4, out);
+            grid(grid, qx, qy, queries / 4, out);
+            long t0 = System.nanoTime();
+            long linearHits = linear(walls, qx, qy, queries, out);
+            long t1 = System.nanoTime();
+            long gridHits = grid(grid, qx, qy, queries, out);
+            long t2 = System.nanoTime();
+            if (linearHits != gridHits) throw new IllegalStateException("grid and scan disagree at n=" + n);
+
+            double linearNs = (double) (t1 - t0) / queries, gridNs = (double) (t2 - t1) / queries;
+            System.out.println(String.format(Locale.ROOT, "%8d  %15.1f  %13.1f  %6.1fx  %10.2f",
+                    n, linearNs, gridNs, linearNs / gridNs, (double) gridHits / queries));
+        }
+    }
+
+    // 135 x 135: a 3-cell block plus the one-cell margin GameEngine queries with
+    private static long linear(List<Block> walls, int[] qx, int[] qy, int queries, List<Block> out) {
+        long hits = 0;
+        for (int q = 0; q < queries; q++) {
+            int x = qx[q & 1023], y = qy[q & 1023];
+            out.clear();
+            for (int i = 0; i < walls.size(); i++) {
+                Block b = walls.get(i);
+                if (b.getX() < x + 135 && x < b.getX() + b.getWidth() && b.getY() < y + 135 && y < b.getY() + b.getHeight()) out.add(b);
+            }
+            hits += out.size();
+        }
+        return hits;
+    }
+
+    private static long grid(SpatialGrid<Block> grid, int[] qx, int[] qy, int queries, List<Block> out) {
+        long hits = 0;
+        for (int q = 0; q < queries; q++) {
+            out.clear();
+            grid.query(qx[q & 1023], qy[q & 1023], 135, 135, out);
+            hits += out.size();
+        }
+        return hits;
+    }
+}
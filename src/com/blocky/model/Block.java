@@ -1,6 +1,7 @@
 package com.blocky.model;
 
 import java.awt.Color;
+import java.util.Arrays;
 
 public class Block extends Entity {
     public boolean isSelected = false;
@@ -47,6 +48,21 @@ public class Block extends Entity {
         // Do not recalculate bounds, respect passed w/h
     }
 
+    /** The gate as a wall, for blocks of a color that cannot pass it. */
+    public static Block gateObstacle(ExitGate gate) {
+        int[][] matrix = new int[(int)Math.ceil((double)gate.getHeight()/CELL_SIZE)][(int)Math.ceil((double)gate.getWidth()/CELL_SIZE)];
+        for (int[] row : matrix) Arrays.fill(row, 1);
+        Block b = new Block(gate.getX(), gate.getY(), gate.getWidth(), gate.getHeight(), matrix, ColorIds.WALL_COLOR);
+        b.kind = Kind.GATE_OBSTACLE;
+        return b;
+    }
+
+    @Override
+    protected Kind kindFor(int colorId) {
+        if (kind == Kind.GATE_OBSTACLE) return kind;
+        return colorId == ColorIds.WALL ? Kind.WALL : Kind.MOVABLE;
+    }
+
     public void recalculateBounds() {
         if (shapeMatrix == null || shapeMatrix.length == 0) return;
         int rows = shapeMatrix.length;
@@ -54,8 +70,7 @@ public class Block extends Entity {
         for (int[] row : shapeMatrix) {
             if (row != null && row.length > maxCols) maxCols = row.length;
         }
-        this.width = maxCols * CELL_SIZE;
-        this.height = rows * CELL_SIZE;
+        setBounds(x, y, maxCols * CELL_SIZE, rows * CELL_SIZE);
     }
 
     public boolean containsPoint(int mx, int my) {
@@ -71,8 +86,33 @@ public class Block extends Entity {
         return shapeMatrix[row][col] == 1;
     }
 
+    // --- Row bitmasks (bit c = column c), rebuilt when the matrix or size changes ---
+    private int[][] maskSource;
+    private int maskW = -1, maskH = -1;
+    private long[] rowMasks, boundsMasks;
+
+    public long[] getRowMasks() {
+        refreshMasks();
+        return rowMasks;
+    }
+
+    public long[] getBoundsMasks() {
+        refreshMasks();
+        return boundsMasks;
+    }
+
+    private void refreshMasks() {
+        if (maskSource == shapeMatrix && maskW == width && maskH == height) return;
+        rowMasks = ShapeCatalog.of(shapeMatrix).rowMasks; // shared by every block of this shape
+        int cols = Math.min(64, (width + CELL_SIZE - 1) / CELL_SIZE);
+        boundsMasks = new long[(height + CELL_SIZE - 1) / CELL_SIZE];
+        Arrays.fill(boundsMasks, cols >= 64 ? -1L : (1L << cols) - 1);
+        maskSource = shapeMatrix;
+        maskW = width;
+        maskH = height;
+    }
+
     public void move(int newX, int newY) {
-        this.x = newX;
-        this.y = newY;
+        setBounds(newX, newY, width, height);
     }
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.blocky.model;
+
+import java.awt.Color;
+import java.util.List;
+
+/**
+ * Blocks as parallel columns of ints (position, size, shape id, color id, axis, flags, exit scale)
+ * instead of heap objects, for code that copies whole positions: undo, snapshots, search, frames. All columns live in
+ * one array, so copying a store is a single System.arraycopy. Shapes are stored as ShapeCatalog
+ * ids, so equal matrices come back as the same int[][] instance.
+ * toBlocks() is the view adapter back to Block objects for the renderer and the game code; copyTo()
+ * refreshes an existing one instead.
+ */
+public class BlockStore {
+    public static final int SELECTED = 1, EXITING = 2; // flags
+
+    private static final int X = 0, Y = 1, W = 2, H = 3, SHAPE = 4, COLOR = 5, AXIS = 6, FLAGS = 7, SCALE = 8, FIELDS = 9;
+    private static final Block.Axis[] AXES = Block.Axis.values();
+
+    private int[] data; // column f of block i at data[f * capacity + i]
+    private int capacity, size;
+
+    public BlockStore() {
+        this(16);
+    }
+
+    private BlockStore(int capacity) {
+        this.capacity = capacity;
+        this.data = new int[FIELDS * capacity];
+    }
+
+    public int size() { return size; }
+    public void clear() { size = 0; }
+
+    public int x(int i) { return data[X * capacity + i]; }
+    public int y(int i) { return data[Y * capacity + i]; }
+    public int width(int i) { return data[W * capacity + i]; }
+    public int height(int i) { return data[H * capacity + i]; }
+    public int shapeId(int i) { return data[SHAPE * capacity + i]; }
+    public int colorId(int i) { return data[COLOR * capacity + i]; }
+    public Block.Axis axis(int i) { return AXES[data[AXIS * capacity + i]]; }
+    public int flags(int i) { return data[FLAGS * capacity + i]; }
+    public float scale(int i) { return Float.intBitsToFloat(data[SCALE * capacity + i]); }
+    public int[][] shape(int i) { return ShapeCatalog.get(shapeId(i)).cells; }
+
+    public void setPosition(int i, int x, int y) {
+        data[X * capacity + i] = x;
+        data[Y * capacity + i] = y;
+    }
+
+    public void setFlags(int i, int flags) { data[FLAGS * capacity + i] = flags; }
+
+    /** Appends b and returns its index. */
+    public int add(Block b) {
+        if (size == capacity) grow(capacity * 2);
+        int i = size++;
+        data[X * capacity + i] = b.getX();
+        data[Y * capacity + i] = b.getY();
+        data[W * capacity + i] = b.getWidth();
+        data[H * capacity + i] = b.getHeight();
+        data[SHAPE * capacity + i] = ShapeCatalog.of(b.shapeMatrix).id;
+        data[COLOR * capacity + i] = b.getColorId();
+        data[AXIS * capacity + i] = b.restriction.ordinal();
+        data[FLAGS * capacity + i] = (b.isSelected ? SELECTED : 0) | (b.isExiting ? EXITING : 0);
+        data[SCALE * capacity + i] = Float.floatToRawIntBits(b.scale);
+        return i;
+    }
+
+    /** Replaces the contents with blocks, in list order. */
+    public void capture(List<Block> blocks) {
+        size = 0;
+        if (blocks.size() > capacity) grow(Integer.highestOneBit(blocks.size() - 1) << 1);
+        for (int i = 0; i < blocks.size(); i++) add(blocks.get(i));
+    }
+
+    /** Makes this store equal to other. */
+    public void copyFrom(BlockStore other) {
+        if (data.length != other.data.length) {
+            data = new int[other.data.length];
+            capacity = other.capacity;
+        }
+        System.arraycopy(other.data, 0, data, 0, data.length);
+        size = other.size;
+    }
+
+    /** An independent store with the same blocks. */
+    public BlockStore copy() {
+        BlockStore c = new BlockStore(capacity);
+        c.copyFrom(this);
+        return c;
+    }
+
+    /** Block i as a new Block object; its matrix is the interned one. The exit target is not kept. */
+    public Block toBlock(int i) {
+        Color color = ColorIds.color(colorId(i));
+        Block b = new Block(x(i), y(i), width(i), height(i), shape(i), color, axis(i));
+        b.isSelected = (flags(i) & SELECTED) != 0;
+        b.isExiting = (flags(i) & EXITING) != 0;
+        b.scale = scale(i);
+        return b;
+    }
+
+    /** Makes b look like block i without allocating; its color is only looked up when it changed. */
+    public void copyTo(int i, Block b) {
+        b.shapeMatrix = shape(i);
+        b.setBounds(x(i), y(i), width(i), height(i));
+        if (b.getColorId() != colorId(i)) b.setColor(ColorIds.color(colorId(i)));
+        b.restriction = axis(i);
+        b.isSelected = (flags(i) & SELECTED) != 0;
+        b.isExiting = (flags(i) & EXITING) != 0;
+        b.scale = scale(i);
+    }
+
+    /** Replaces the contents of out with a Block per stored block. */
+    public void toBlocks(List<Block> out) {
+        out.clear();
+        for (int i = 0; i < size; i++) out.add(toBlock(i));
+    }
+
+    // Columns keep their order, each one moved to its place in the larger array
+    private void grow(int newCapacity) {
+        int[] next = new int[FIELDS * newCapacity];
+        for (int f = 0; f < FIELDS; f++) System.arraycopy(data, f * capacity, next, f * newCapacity, size);
+        data = next;
+        capacity = newCapacity;
+    }
+}
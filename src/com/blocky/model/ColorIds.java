@@ -0,0 +1,38 @@
+package com.blocky.model;
+
+import java.awt.Color;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact integer ids for entity colors, so collision, rendering and win checks compare ints
+ * instead of calling Color.equals. Id 0 is the wall color; every other color gets the next id the
+ * first time an entity is painted with it, and keeps it for the life of the process.
+ */
+public final class ColorIds {
+    public static final Color WALL_COLOR = new Color(80, 80, 90);
+    public static final int WALL = 0;
+
+    private static final Map<Integer, Integer> byRgb = new HashMap<>();
+    private static Color[] colors = new Color[16];
+    private static int count;
+
+    static {
+        of(WALL_COLOR);
+    }
+
+    private ColorIds() { }
+
+    public static synchronized int of(Color c) {
+        Integer id = byRgb.get(c.getRGB());
+        if (id != null) return id;
+        if (count == colors.length) colors = java.util.Arrays.copyOf(colors, count * 2);
+        colors[count] = c;
+        byRgb.put(c.getRGB(), count);
+        return count++;
+    }
+
+    public static synchronized Color color(int id) {
+        return colors[id];
+    }
+}
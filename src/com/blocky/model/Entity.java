@@ -1,17 +1,24 @@
 package com.blocky.model;
 
+import com.blocky.interfaces.IBoundsListener;
 import java.awt.*;
 
 public abstract class Entity {
+    /** What an entity is for collision and drawing; decided from its type and color, not looked up per frame. */
+    public enum Kind { WALL, MOVABLE, GATE, GATE_OBSTACLE }
+
     protected int x, y, width, height;
     protected Color color;
+    protected int colorId; // ColorIds id of color
+    protected Kind kind;
+    private IBoundsListener boundsListener; // the spatial index holding this entity, if any
 
     public Entity(int x, int y, int w, int h, Color color) {
         this.x = x;
         this.y = y;
         this.width = w;
         this.height = h;
-        this.color = color;
+        setColor(color);
     }
 
     public Rectangle getBounds() {
@@ -19,24 +26,42 @@ public abstract class Entity {
     }
 
     public Color getColor() { return color; }
-    public void setColor(Color color) { this.color = color; }
+    public void setColor(Color color) {
+        this.color = color;
+        this.colorId = ColorIds.of(color);
+        this.kind = kindFor(colorId);
+    }
+
+    public int getColorId() { return colorId; }
+    public Kind getKind() { return kind; }
+
+    /** Walls and gate obstacles: they never move and collide by their bounding box. */
+    public boolean isObstacle() { return kind == Kind.WALL || kind == Kind.GATE_OBSTACLE; }
+
+    // Kind of this entity when painted with colorId; called from the constructor
+    protected abstract Kind kindFor(int colorId);
 
     // --- Metode pentru Coordonate ---
     public int getX() { return x; }
     public int getY() { return y; }
-    public void setX(int x) { this.x = x; }
-    public void setY(int y) { this.y = y; }
+    public void setX(int x) { setBounds(x, y, width, height); }
+    public void setY(int y) { setBounds(x, y, width, height); }
 
     // --- NEW: Metode Publice pentru Dimensiuni (FIX EROARE) ---
     public int getWidth() { return width; }
     public int getHeight() { return height; }
-    public void setWidth(int width) { this.width = width; }
-    public void setHeight(int height) { this.height = height; }
+    public void setWidth(int width) { setBounds(x, y, width, height); }
+    public void setHeight(int height) { setBounds(x, y, width, height); }
 
     public void setBounds(int x, int y, int width, int height) {
+        int oldX = this.x, oldY = this.y, oldW = this.width, oldH = this.height;
         this.x = x;
         this.y = y;
         this.width = width;
         this.height = height;
+        if (boundsListener != null) boundsListener.boundsChanged(this, oldX, oldY, oldW, oldH);
     }
+
+    public IBoundsListener getBoundsListener() { return boundsListener; }
+    public void setBoundsListener(IBoundsListener listener) { this.boundsListener = listener; }
 }
\ No newline at end of file
@@ -9,4 +9,16 @@ public class ExitGate extends Entity {
         super(x, y, w, h, color);
         this.side = side;
     }
+
+    public ExitGate copy() { return new ExitGate(x, y, width, height, color, side); }
+
+    /** Makes this gate look like g, keeping this object; the color is only looked up when it changed. */
+    public void copyFrom(ExitGate g) {
+        setBounds(g.x, g.y, g.width, g.height);
+        if (colorId != g.colorId) setColor(g.color);
+        side = g.side;
+    }
+
+    @Override
+    protected Kind kindFor(int colorId) { return Kind.GATE; }
 }
\ No newline at end of file
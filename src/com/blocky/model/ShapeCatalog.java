@@ -0,0 +1,120 @@
+package com.blocky.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Every block shape the game has seen, interned once: equal cell matrices share one Shape and one
+ * int[][], with their row masks, cell count, centroid and size worked out up front and a small id.
+ * A matrix that already came from the catalog is found by identity, so lookups on the game and
+ * drawing paths are a hash probe, not a deepEquals. The matrices handed out are shared: replace a
+ * block's matrix, never edit it.
+ */
+public final class ShapeCatalog {
+    public static final class Shape {
+        public final int id;
+        public final int[][] cells;
+        public final long[] rowMasks;      // bit c of row r set when cells[r][c] == 1
+        public final int rows, cols;       // bounding size in cells
+        public final int cellCount;
+        public final double centroidRow, centroidCol; // mean position of the filled cells, in cells
+
+        private Shape(int id, int[][] cells) {
+            this.id = id;
+            this.cells = cells;
+            rows = cells.length;
+            int maxCols = 0, count = 0;
+            double sr = 0, sc = 0;
+            rowMasks = new long[rows];
+            for (int r = 0; r < rows; r++) {
+                maxCols = Math.max(maxCols, cells[r].length);
+                for (int c = 0; c < cells[r].length; c++) {
+                    if (cells[r][c] != 1) continue;
+                    if (c < 64) rowMasks[r] |= 1L << c;
+                    sr += r;
+                    sc += c;
+                    count++;
+                }
+            }
+            cols = maxCols;
+            cellCount = count;
+            centroidRow = count == 0 ? 0 : sr / count;
+            centroidCol = count == 0 ? 0 : sc / count;
+        }
+    }
+
+    // Content key for interning; the matrix is the catalog's own copy
+    private static final class Key {
+        final int[][] m;
+        final int hash;
+
+        Key(int[][] m) {
+            this.m = m;
+            this.hash = Arrays.deepHashCode(m);
+        }
+
+        @Override
+        public boolean equals(Object o) { return o instanceof Key && Arrays.deepEquals(m, ((Key) o).m); }
+
+        @Override
+        public int hashCode() { return hash; }
+    }
+
+    private static final List<Shape> shapes = new ArrayList<>();
+    private static final Map<Key, Shape> byContent = new HashMap<>();
+    // Arrays hash by identity; weak so matrices the game dropped do not pile up
+    private static final Map<int[][], Shape> byMatrix = new WeakHashMap<>();
+    private static final Map<int[][], Shape> byTiles = new WeakHashMap<>();
+
+    private ShapeCatalog() { }
+
+    /** The interned shape with these cells. */
+    public static synchronized Shape of(int[][] cells) {
+        Shape s = byMatrix.get(cells);
+        if (s != null) return s;
+        int[][] copy = new int[cells.length][];
+        for (int r = 0; r < cells.length; r++) copy[r] = cells[r].clone();
+        Key key = new Key(copy);
+        s = byContent.get(key);
+        if (s == null) {
+            s = new Shape(shapes.size(), copy);
+            shapes.add(s);
+            byContent.put(key, s);
+            byMatrix.put(copy, s);
+        }
+        byMatrix.put(cells, s);
+        return s;
+    }
+
+    /** The interned shape of a tile shape expanded to cells (1 tile -> 2x2 cells). */
+    public static synchronized Shape ofTiles(int[][] tiles) {
+        Shape s = byTiles.get(tiles);
+        if (s == null) {
+            s = of(expand(tiles));
+            byTiles.put(tiles, s);
+        }
+        return s;
+    }
+
+    public static synchronized Shape get(int id) { return shapes.get(id); }
+
+    public static synchronized int size() { return shapes.size(); }
+
+    private static int[][] expand(int[][] tiles) {
+        int[][] cells = new int[tiles.length * 2][tiles[0].length * 2];
+        for (int r = 0; r < tiles.length; r++) {
+            for (int c = 0; c < tiles[0].length; c++) {
+                if (tiles[r][c] != 1) continue;
+                cells[r * 2][c * 2] = 1;
+                cells[r * 2][c * 2 + 1] = 1;
+                cells[r * 2 + 1][c * 2] = 1;
+                cells[r * 2 + 1][c * 2 + 1] = 1;
+            }
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,259 @@
+package com.blocky.solver;
+
+import com.blocky.logic.BitBoard;
+import com.blocky.model.Block;
+import com.blocky.model.ExitGate;
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Static part of a level snapped onto the Block.CELL_SIZE lattice: walls, gates and the
+ * shape/color/axis of every movable block. Positions are kept separately in BoardState.
+ * Read-only except for findExit(), which uses a scratch MoveGenerator: call it from one thread at
+ * a time (each solver and hint engine owns its Board; ParallelSolver's workers never call it).
+ */
+public class Board {
+    public static final int CELL = Block.CELL_SIZE;
+    // Same 2px hitbox reduction as CollisionManager.isValidMove
+    private static final int TOLERANCE = 2;
+    // Same alignment slack as GameEngine.checkGateInteraction
+    private static final int GATE_TOLERANCE = 30;
+
+    public final int cols, rows;
+    public final int originX, originY; // pixel position of cell (0,0)
+
+    private final BitBoard wall;           // cells covered by walls
+    private final List<ExitGate> gates = new ArrayList<>();
+    private final List<BitBoard> gateCells = new ArrayList<>();
+
+    private final Block[] source;          // original movable blocks (for reporting)
+    private final int[] startRow, startCol;
+    private final int[] pieceRows, pieceCols; // bounding box in cells
+    private final long[][] shapeMasks;     // occupied cells, one row mask per shape row
+    private final long[][] boundsMasks;    // full bounding box, tested against walls like CollisionManager
+    private final Block.Axis[] axis;
+    private final BitBoard[] hard;         // per piece: walls + gates of another color
+    private final int[][] exitGates;       // per piece: indices of gates it may leave through
+    private final Zobrist zobrist;
+    private final short[][] exitSteps;     // per piece and anchor: unit steps to an exit ignoring other pieces, -1 if none
+    private MoveGenerator exitFinder; // findExit's scratch, made on first use
+
+    public Board(List<Block> blocks, List<ExitGate> levelGates) {
+        List<Block> movable = new ArrayList<>();
+        List<Block> walls = new ArrayList<>();
+        for (Block b : blocks) {
+            if (b.isObstacle()) walls.add(b); else movable.add(b);
+        }
+
+        // The lattice follows the movable blocks (editor maps are on 0/0, built-in levels on 40/100)
+        int resX = movable.isEmpty() ? 0 : Math.floorMod(movable.get(0).getX(), CELL);
+        int resY = movable.isEmpty() ? 0 : Math.floorMod(movable.get(0).getY(), CELL);
+
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        List<Rectangle> all = new ArrayList<>();
+        for (Block b : blocks) all.add(b.getBounds());
+        for (ExitGate g : levelGates) all.add(g.getBounds());
+        for (Rectangle r : all) {
+            minX = Math.min(minX, r.x); minY = Math.min(minY, r.y);
+            maxX = Math.max(maxX, r.x + r.width); maxY = Math.max(maxY, r.y + r.height);
+        }
+        if (all.isEmpty()) { minX = minY = 0; maxX = maxY = CELL; }
+
+        originX = resX + Math.floorDiv(minX - resX, CELL) * CELL;
+        originY = resY + Math.floorDiv(minY - resY, CELL) * CELL;
+        cols = Math.max(1, (maxX - originX + CELL - 1) / CELL);
+        rows = Math.max(1, (maxY - originY + CELL - 1) / CELL);
+        if (cols > BitBoard.MAX_COLS) throw new IllegalArgumentException("Level is wider than " + BitBoard.MAX_COLS + " cells");
+
+        wall = new BitBoard(rows);
+        for (Block w : walls) rasterize(w.getBounds(), wall);
+        for (ExitGate g : levelGates) {
+            BitBoard cells = new BitBoard(rows);
+            rasterize(g.getBounds(), cells);
+            gates.add(g);
+            gateCells.add(cells);
+        }
+
+        int n = movable.size();
+        source = movable.toArray(new Block[0]);
+        startRow = new int[n]; startCol = new int[n];
+        pieceRows = new int[n]; pieceCols = new int[n];
+        shapeMasks = new long[n][];
+        boundsMasks = new long[n][];
+        axis = new Block.Axis[n];
+        hard = new BitBoard[n];
+        exitGates = new int[n][];
+
+        for (int i = 0; i < n; i++) {
+            Block b = source[i];
+            // Off-lattice blocks are snapped the same way releaseBlock does
+            startCol[i] = Math.round((float)(b.getX() - originX) / CELL);
+            startRow[i] = Math.round((float)(b.getY() - originY) / CELL);
+            pieceRows[i] = b.shapeMatrix.length;
+            int maxC = 0;
+            for (int[] row : b.shapeMatrix) maxC = Math.max(maxC, row.length);
+            pieceCols[i] = maxC;
+
+            shapeMasks[i] = BitBoard.rowMasks(b.shapeMatrix);
+            boundsMasks[i] = BitBoard.rectMask(pieceRows[i], pieceCols[i]);
+            axis[i] = b.restriction;
+
+            BitBoard h = new BitBoard(rows);
+            h.copyFrom(wall);
+            List<Integer> exits = new ArrayList<>();
+            for (int g = 0; g < gates.size(); g++) {
+                ExitGate gate = gates.get(g);
+                if (gate.getColorId() != b.getColorId()) {
+                    h.or(gateCells.get(g));
+                } else if (axisAllows(b.restriction, gate.side)) {
+                    exits.add(g);
+                }
+            }
+            hard[i] = h;
+            exitGates[i] = exits.stream().mapToInt(Integer::intValue).toArray();
+        }
+        zobrist = new Zobrist(n, rows * cols);
+        exitSteps = new short[n][];
+        for (int i = 0; i < n; i++) exitSteps[i] = computeExitSteps(i);
+    }
+
+    // Reverse flood from every anchor where the piece overlaps an aligned gate, over anchors that
+    // clear walls and foreign gates. Unit steps are symmetric, so this is the distance to the exit.
+    private short[] computeExitSteps(int piece) {
+        short[] dist = new short[rows * cols];
+        Arrays.fill(dist, (short) -1);
+        int[] queue = new int[rows * cols];
+        int head = 0, tail = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                if (fitsStatic(piece, r, c) && exitAt(piece, r, c) >= 0) {
+                    dist[r * cols + c] = 0;
+                    queue[tail++] = r * cols + c;
+                }
+            }
+        }
+        boolean horizontal = axis[piece] != Block.Axis.VERTICAL;
+        boolean vertical = axis[piece] != Block.Axis.HORIZONTAL;
+        while (head < tail) {
+            int a = queue[head++];
+            int r = a / cols, c = a % cols;
+            for (int d = 0; d < 4; d++) {
+                if ((d < 2 && !horizontal) || (d >= 2 && !vertical)) continue;
+                int nr = r + (d == 2 ? -1 : d == 3 ? 1 : 0);
+                int nc = c + (d == 0 ? -1 : d == 1 ? 1 : 0);
+                if (nr < 0 || nc < 0 || nr >= rows || nc >= cols) continue;
+                int na = nr * cols + nc;
+                if (dist[na] != -1 || !fitsStatic(piece, nr, nc)) continue;
+                dist[na] = (short) (dist[a] + 1);
+                queue[tail++] = na;
+            }
+        }
+        return dist;
+    }
+
+    private void rasterize(Rectangle r, BitBoard out) {
+        for (int row = 0; row < rows; row++) {
+            int top = originY + row * CELL + TOLERANCE, bottom = originY + (row + 1) * CELL - TOLERANCE;
+            if (r.y >= bottom || r.y + r.height <= top) continue;
+            for (int col = 0; col < cols; col++) {
+                int left = originX + col * CELL + TOLERANCE, right = originX + (col + 1) * CELL - TOLERANCE;
+                if (r.x >= right || r.x + r.width <= left) continue;
+                out.set(row, col);
+            }
+        }
+    }
+
+    static boolean axisAllows(Block.Axis restriction, int side) {
+        boolean sideIsVertical = (side == 0 || side == 2);
+        if (restriction == Block.Axis.VERTICAL && !sideIsVertical) return false;
+        if (restriction == Block.Axis.HORIZONTAL && sideIsVertical) return false;
+        return true;
+    }
+
+    public int pieceCount() { return source.length; }
+    public Block piece(int i) { return source[i]; }
+    public ExitGate gate(int g) { return gates.get(g); }
+    public Block.Axis axis(int i) { return axis[i]; }
+    public int pieceRows(int i) { return pieceRows[i]; }
+    public int pieceCols(int i) { return pieceCols[i]; }
+    public long[] shapeMasks(int i) { return shapeMasks[i]; }
+    public int pixelX(int col) { return originX + col * CELL; }
+    public int pixelY(int row) { return originY + row * CELL; }
+    public boolean isWall(int row, int col) { return wall.get(row, col); }
+    public Zobrist zobrist() { return zobrist; }
+
+    /** State after one piece moved to a cell (or BoardState.EXITED); the hash is updated incrementally. */
+    public BoardState apply(BoardState s, int piece, int cell) {
+        return s.with(piece, cell, zobrist);
+    }
+
+    /** Unit steps from the anchor to an exit on an empty board, or -1 when the piece can never get out from there. */
+    public int exitSteps(int piece, int anchor) { return exitSteps[piece][anchor]; }
+
+    /** An exit move available right now in this state, or null. One thread at a time, see the class doc. */
+    public Move findExit(BoardState s) {
+        if (exitFinder == null) exitFinder = new MoveGenerator(this);
+        return exitFinder.findExit(s);
+    }
+
+    /**
+     * State of the same Block objects later in play, snapped like the constructor does. Blocks that
+     * left the list or are sliding out count as EXITED, so the board can be reused move after move.
+     */
+    public BoardState stateOf(List<Block> live) {
+        Set<Block> present = Collections.newSetFromMap(new IdentityHashMap<>());
+        present.addAll(live);
+        short[] pos = new short[source.length];
+        for (int i = 0; i < pos.length; i++) {
+            Block b = source[i];
+            if (!present.contains(b) || b.isExiting) { pos[i] = BoardState.EXITED; continue; }
+            int col = Math.round((float)(b.getX() - originX) / CELL);
+            int row = Math.round((float)(b.getY() - originY) / CELL);
+            pos[i] = (short) (row * cols + col);
+        }
+        return new BoardState(pos, zobrist.hash(pos));
+    }
+
+    /** True when a piece has at least one gate of its color that its axis can use. */
+    public boolean hasExit(int piece) { return exitGates[piece].length > 0; }
+
+    public BoardState initialState() {
+        short[] pos = new short[source.length];
+        for (int i = 0; i < pos.length; i++) pos[i] = (short) (startRow[i] * cols + startCol[i]);
+        return new BoardState(pos, zobrist.hash(pos));
+    }
+
+    /** Bounding box of the piece stays inside the lattice and off walls / foreign gates. */
+    public boolean fitsStatic(int piece, int row, int col) {
+        if (row < 0 || col < 0 || row + pieceRows[piece] > rows || col + pieceCols[piece] > cols) return false;
+        return !hard[piece].intersects(row, col, boundsMasks[piece]);
+    }
+
+    /** Index of the gate the piece would slide out through at this anchor, or -1. */
+    public int exitAt(int piece, int row, int col) {
+        int bx = pixelX(col), by = pixelY(row);
+        int bw = pieceCols[piece] * CELL, bh = pieceRows[piece] * CELL;
+        for (int g : exitGates[piece]) {
+            Rectangle gr = gates.get(g).getBounds();
+            if (bx >= gr.x + gr.width || bx + bw <= gr.x || by >= gr.y + gr.height || by + bh <= gr.y) continue;
+            int side = gates.get(g).side;
+            boolean aligned;
+            if (side == 0 || side == 2) aligned = bx >= gr.x - GATE_TOLERANCE && bx + bw <= gr.x + gr.width + GATE_TOLERANCE;
+            else aligned = by >= gr.y - GATE_TOLERANCE && by + bh <= gr.y + gr.height + GATE_TOLERANCE;
+            if (aligned) return g;
+        }
+        return -1;
+    }
+
+    public boolean sameColor(int a, int b) {
+        return source[a].getColorId() == source[b].getColorId();
+    }
+
+    public Color color(int piece) { return source[piece].getColor(); }
+}
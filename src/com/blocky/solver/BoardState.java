@@ -0,0 +1,56 @@
+package com.blocky.solver;
+
+import java.util.Arrays;
+
+/**
+ * Compact position encoding: one short per movable piece holding its anchor cell
+ * (row * cols + col) or EXITED once it left through a gate, plus its Zobrist hash.
+ */
+public final class BoardState {
+    public static final short EXITED = -1;
+
+    final short[] pos;
+    private final long zobrist;
+
+    BoardState(short[] pos, long zobrist) {
+        this.pos = pos;
+        this.zobrist = zobrist;
+    }
+
+    public long zobrist() { return zobrist; }
+
+    public int position(int piece) { return pos[piece]; }
+    public int pieceCount() { return pos.length; }
+    public boolean hasExited(int piece) { return pos[piece] == EXITED; }
+
+    public boolean isSolved() {
+        for (short p : pos) if (p != EXITED) return false;
+        return true;
+    }
+
+    public int remaining() {
+        int n = 0;
+        for (short p : pos) if (p != EXITED) n++;
+        return n;
+    }
+
+    BoardState with(int piece, int cell, Zobrist keys) {
+        short[] next = pos.clone();
+        next[piece] = (short) cell;
+        return new BoardState(next, keys.update(zobrist, piece, pos[piece], cell));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BoardState)) return false;
+        BoardState other = (BoardState) o;
+        return zobrist == other.zobrist && Arrays.equals(pos, other.pos);
+    }
+
+    @Override
+    public int hashCode() { return (int) (zobrist ^ (zobrist >>> 32)); }
+
+    @Override
+    public String toString() { return Arrays.toString(pos); }
+}
@@ -0,0 +1,162 @@
+package com.blocky.solver;
+
+import com.blocky.model.Block;
+import com.blocky.model.ExitGate;
+
+import java.awt.Color;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Canonical form of a blocks + gates configuration, identical for every member of its symmetry
+ * class: translations (e.g. the +40/+100 gameplay shift), the 8 rotations and mirror images, and
+ * any renaming of the colors. Positions are taken relative to the bounding box; for each of the
+ * 8 transforms the entities are sorted by their color-free description and colors are renumbered
+ * in order of first use; the smallest of the 8 encodings is the canonical one.
+ *
+ * Optimal move counts, difficulty and solvability are the same across a symmetry class (rotating
+ * a level also swaps HORIZONTAL and VERTICAL pieces), so result caches can key on hash().
+ */
+public final class CanonicalLevel {
+    private static final int GATE = 0, WALL = 1, BLOCK = 2;
+
+    private CanonicalLevel() { }
+
+    /** SHA-1 (hex) of the canonical form. */
+    public static String hash(List<Block> blocks, List<ExitGate> gates) {
+        return sha1(form(blocks, gates));
+    }
+
+    public static String form(List<Block> blocks, List<ExitGate> gates) {
+        List<Item> items = new ArrayList<>(blocks.size() + gates.size());
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (ExitGate g : gates) items.add(new Item(GATE, g.getX(), g.getY(), g.getWidth(), g.getHeight(), g.getColor(), g.side, Block.Axis.NONE, null));
+        for (Block b : blocks) {
+            boolean wall = b.isObstacle(); // walls collide by bounding box, their matrix does not matter
+            items.add(new Item(wall ? WALL : BLOCK, b.getX(), b.getY(), b.getWidth(), b.getHeight(), b.getColor(), -1,
+                    wall ? Block.Axis.NONE : b.restriction, wall ? null : b.shapeMatrix));
+        }
+        for (Item it : items) {
+            minX = Math.min(minX, it.x);
+            minY = Math.min(minY, it.y);
+            maxX = Math.max(maxX, it.x + it.w);
+            maxY = Math.max(maxY, it.y + it.h);
+        }
+        if (items.isEmpty()) return "";
+        for (Item it : items) { it.x -= minX; it.y -= minY; }
+
+        String best = null;
+        for (int t = 0; t < 8; t++) {
+            String enc = encode(items, t, maxX - minX, maxY - minY);
+            if (best == null || enc.compareTo(best) < 0) best = enc;
+        }
+        return best;
+    }
+
+    /** Transform t: mirror left-right when t >= 4, then rotate (t % 4) quarter turns clockwise. */
+    private static String encode(List<Item> items, int t, int width, int height) {
+        String[] keys = new String[items.size()];
+        Map<String, Color> colorOf = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            Item it = items.get(i);
+            int x = it.x, y = it.y, w = it.w, h = it.h, side = it.side;
+            int[][] m = it.matrix;
+            Block.Axis axis = it.axis;
+            int bw = width, bh = height;
+            if (t >= 4) {
+                x = bw - x - w;
+                if (side == 1 || side == 3) side = 4 - side;
+                m = mirror(m);
+            }
+            for (int r = 0; r < t % 4; r++) {
+                int nx = bh - y - h;
+                y = x;
+                x = nx;
+                int tmp = w; w = h; h = tmp;
+                tmp = bw; bw = bh; bh = tmp;
+                if (side >= 0) side = (side + 1) % 4;
+                if (axis == Block.Axis.HORIZONTAL) axis = Block.Axis.VERTICAL;
+                else if (axis == Block.Axis.VERTICAL) axis = Block.Axis.HORIZONTAL;
+                m = rotate(m);
+            }
+            StringBuilder sb = new StringBuilder();
+            sb.append(it.kind).append(' ').append(x).append(' ').append(y).append(' ').append(w).append(' ').append(h);
+            if (it.kind == GATE) sb.append(' ').append(side);
+            if (it.kind == BLOCK) sb.append(' ').append(axis.ordinal()).append(' ').append(Arrays.deepToString(m));
+            keys[i] = sb.toString();
+            if (it.kind != WALL) colorOf.put(keys[i], it.color);
+        }
+        Arrays.sort(keys);
+
+        // Renumber colors by first use in the sorted order
+        Map<Color, Integer> ids = new HashMap<>();
+        StringBuilder out = new StringBuilder();
+        for (String key : keys) {
+            out.append(key);
+            Color c = colorOf.get(key);
+            if (c != null) {
+                Integer id = ids.get(c);
+                if (id == null) { id = ids.size(); ids.put(c, id); }
+                out.append(" c").append(id);
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    private static int[][] rotate(int[][] m) {
+        if (m == null) return null;
+        int rows = m.length, cols = m[0].length;
+        int[][] r = new int[cols][rows];
+        for (int i = 0; i < rows; i++) for (int j = 0; j < cols; j++) r[j][rows - 1 - i] = m[i][j];
+        return r;
+    }
+
+    private static int[][] mirror(int[][] m) {
+        if (m == null) return null;
+        int[][] r = new int[m.length][];
+        for (int i = 0; i < m.length; i++) {
+            r[i] = new int[m[i].length];
+            for (int j = 0; j < m[i].length; j++) r[i][j] = m[i][m[i].length - 1 - j];
+        }
+        return r;
+    }
+
+    static String sha1(String s) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(s.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest) sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Item {
+        final int kind;
+        int x, y;
+        final int w, h, side;
+        final Color color;
+        final Block.Axis axis;
+        final int[][] matrix;
+
+        Item(int kind, int x, int y, int w, int h, Color color, int side, Block.Axis axis, int[][] matrix) {
+            this.kind = kind;
+            this.x = x;
+            this.y = y;
+            this.w = w;
+            this.h = h;
+            this.color = color;
+            this.side = side;
+            this.axis = axis;
+            this.matrix = matrix;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.blocky.solver;
+
+import com.blocky.model.Block;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Decides whether a position can still be solved. The static checks look at one piece at a time
+ * on an otherwise empty board: a piece with no gate of its color its axis can use, or one that sits
+ * where it can never slide into line with such a gate, jams the level for good. When they pass, a
+ * bounded search on the level's HintEngine settles it, reusing (and adding to) what hints learned.
+ */
+public final class DeadlockDetector {
+    public enum Verdict { SOLVABLE, DEADLOCKED, UNKNOWN }
+
+    public static final long DEFAULT_BUDGET_NANOS = 200_000_000L;
+
+    public static final class Result {
+        public final Verdict verdict;
+        /** The block that can never leave, when a static check found it. */
+        public final Block stuck;
+        /** Optimal drags left when SOLVABLE, otherwise -1. */
+        public final int movesLeft;
+        public final String reason;
+
+        Result(Verdict verdict, Block stuck, int movesLeft, String reason) {
+            this.verdict = verdict;
+            this.stuck = stuck;
+            this.movesLeft = movesLeft;
+            this.reason = reason;
+        }
+
+        @Override
+        public String toString() { return verdict + (reason == null ? "" : ": " + reason); }
+    }
+
+    private DeadlockDetector() { }
+
+    /** Static checks only; null when they cannot tell. */
+    public static Result staticCheck(Board board, BoardState s) {
+        for (int p = 0; p < s.pieceCount(); p++) {
+            if (s.hasExited(p)) continue;
+            if (!board.hasExit(p)) {
+                return new Result(Verdict.DEADLOCKED, board.piece(p), -1, "piece " + p + " has no gate it can leave through");
+            }
+            if (board.exitSteps(p, s.position(p)) < 0) {
+                return new Result(Verdict.DEADLOCKED, board.piece(p), -1, "piece " + p + " can never line up with its gate");
+            }
+        }
+        return null;
+    }
+
+    /** Static checks, then the search within the budget; UNKNOWN when it ran out or was cancelled. */
+    public static Result check(HintEngine engine, BoardState s, long budgetNanos, BooleanSupplier cancelled) {
+        Result r = staticCheck(engine.getBoard(), s);
+        if (r != null) return r;
+        return fromHint(engine.next(s, budgetNanos, cancelled));
+    }
+
+    /** What a finished (or timed out) hint search says about solvability. */
+    public static Result fromHint(Hint h) {
+        switch (h.status) {
+            case SOLVED: return new Result(Verdict.SOLVABLE, null, 0, null);
+            case MOVE: return new Result(Verdict.SOLVABLE, null, h.movesLeft, null);
+            case UNSOLVABLE: return new Result(Verdict.DEADLOCKED, null, -1, "no sequence of moves clears the board");
+            default: return new Result(Verdict.UNKNOWN, null, -1, "undecided after " + h.statesExplored + " states");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.blocky.solver;
+
+import java.util.Locale;
+
+/**
+ * Difficulty rating of a level derived from one solver run. The score grows with the optimal
+ * length, the number of different pieces that have to move, the average branching factor and the
+ * number of dead ends met on the way. Unsolvable levels score -1; levels the solver could not
+ * decide within its budget get the top score. FAILED stands for a level that could not be read or
+ * rated at all.
+ */
+public final class Difficulty {
+    public static final int UNSOLVABLE = -1;
+    public static final int UNDECIDED = -2;
+    public static final int UNRATED = -3;
+    public static final Difficulty FAILED = new Difficulty(UNRATED, 0, 0, 0, 0);
+
+    public final double score;
+    public final int moves;
+    public final int movedPieces;
+    public final double branching;
+    public final long deadEnds;   // states the solver expanded off the solution path, plus children proven dead
+    public final long states;
+
+    public Difficulty(int moves, int movedPieces, double branching, long deadEnds, long states) {
+        this.moves = moves;
+        this.movedPieces = movedPieces;
+        this.branching = branching;
+        this.deadEnds = deadEnds;
+        this.states = states;
+        this.score = moves == UNSOLVABLE || moves == UNRATED ? -1 : moves == UNDECIDED ? 100 : Math.round(rate(moves, movedPieces, branching, deadEnds) * 10) / 10.0;
+    }
+
+    private static double rate(int moves, int movedPieces, double branching, long deadEnds) {
+        double log2Branching = Math.log(Math.max(1, branching)) / Math.log(2);
+        return Math.min(100, 1.5 * moves + movedPieces + 2 * log2Branching + 3 * Math.log10(1 + deadEnds));
+    }
+
+    public boolean isSolvable() { return moves >= 0; }
+
+    public String label() {
+        if (moves == UNSOLVABLE) return "IMPOSSIBLE";
+        if (moves == UNRATED) return "UNRATED";
+        if (score < 20) return "EASY";
+        if (score < 40) return "MEDIUM";
+        if (score < 60) return "HARD";
+        return "EXPERT";
+    }
+
+    /** Compact form used by the on-disk cache. */
+    String encode() {
+        return String.format(Locale.ROOT, "%d,%d,%.4f,%d,%d", moves, movedPieces, branching, deadEnds, states);
+    }
+
+    static Difficulty decode(String s) {
+        String[] p = s.split(",");
+        return new Difficulty(Integer.parseInt(p[0]), Integer.parseInt(p[1]), Double.parseDouble(p[2]),
+                Long.parseLong(p[3]), Long.parseLong(p[4]));
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s %.1f (moves=%d pieces=%d branching=%.2f deadEnds=%d states=%d)",
+                label(), score, moves, movedPieces, branching, deadEnds, states);
+    }
+}
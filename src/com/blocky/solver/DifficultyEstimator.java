@@ -0,0 +1,202 @@
+package com.blocky.solver;
+
+import com.blocky.logic.LevelFactory;
+import com.blocky.model.Block;
+import com.blocky.model.ExitGate;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Rates levels with the solver and caches the result per canonical level hash (see CanonicalLevel), in memory and in a
+ * small properties file, so browsing a catalog only solves levels that are new or were edited.
+ * peek() never blocks: unknown levels are rated on a background thread and show up on a later call.
+ * A level that cannot be read or rated is remembered as Difficulty.FAILED until its file changes,
+ * or for the rest of the session when it has no file of its own.
+ */
+public final class DifficultyEstimator {
+    /** Bump when the rating or the hash changes, so stale cache entries are ignored. */
+    private static final String VERSION = "2";
+    public static final long MAX_STATES = 500_000;
+
+    private static DifficultyEstimator instance;
+
+    private final File cacheFile;
+    private final Map<String, Difficulty> cache = new ConcurrentHashMap<>();
+    private final Map<String, FileStamp> files = new ConcurrentHashMap<>();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet(); // hashes whose Loader failed, see peek(String, Loader)
+    private ExecutorService worker;
+
+    public static synchronized DifficultyEstimator getInstance() {
+        if (instance == null) instance = new DifficultyEstimator(new File("levels", ".difficulty"));
+        return instance;
+    }
+
+    /** cacheFile may be null for a memory-only cache. */
+    public DifficultyEstimator(File cacheFile) {
+        this.cacheFile = cacheFile;
+        if (cacheFile != null && cacheFile.exists()) load();
+    }
+
+    /** Rates the level, or returns the cached rating for identical content. */
+    public Difficulty estimate(List<Block> blocks, List<ExitGate> gates) {
+        Difficulty d = lookupOrRate(contentHash(blocks, gates), blocks, gates);
+        save();
+        return d;
+    }
+
+    private Difficulty lookupOrRate(String hash, List<Block> blocks, List<ExitGate> gates) {
+        return cache.computeIfAbsent(hash, h -> rate(blocks, gates));
+    }
+
+    /**
+     * Cached rating of a saved level, or null while it is still being rated; FAILED when it could
+     * not be. Cheap enough to call per frame.
+     */
+    public Difficulty peek(File levelFile) {
+        String path = levelFile.getPath();
+        FileStamp stamp = files.get(path);
+        if (stamp != null && stamp.matches(levelFile)) return stamp.hash == null ? Difficulty.FAILED : cache.get(stamp.hash);
+        if (pending.add(path)) {
+            worker().execute(() -> {
+                long modified = levelFile.lastModified(), length = levelFile.length();
+                try {
+                    List<Block> blocks = new ArrayList<>();
+                    List<ExitGate> gates = new ArrayList<>();
+                    LevelFactory.readLevelFile(levelFile, blocks, gates);
+                    String hash = contentHash(blocks, gates);
+                    lookupOrRate(hash, blocks, gates);
+                    files.put(path, new FileStamp(modified, length, hash));
+                } catch (Exception e) {
+                    System.err.println(path + ": not rated, " + e);
+                    files.put(path, new FileStamp(modified, length, null)); // not retried until the file changes
+                } finally {
+                    pending.remove(path);
+                }
+                // Write the cache once per batch instead of once per level
+                if (pending.isEmpty()) save();
+            });
+        }
+        return null;
+    }
+
+    /** Loads a level that is not a file of its own, e.g. from a LevelPack. */
+    public interface Loader { void load(List<Block> blocks, List<ExitGate> gates) throws Exception; }
+
+    /**
+     * Cached rating of a level whose content hash is already known, or null while loader's level is
+     * rated; FAILED when loading or rating it failed.
+     */
+    public Difficulty peek(String hash, Loader loader) {
+        Difficulty d = cache.get(hash);
+        if (d == null && failed.contains(hash)) return Difficulty.FAILED;
+        if (d != null || !pending.add(hash)) return d;
+        worker().execute(() -> {
+            try {
+                List<Block> blocks = new ArrayList<>();
+                List<ExitGate> gates = new ArrayList<>();
+                loader.load(blocks, gates);
+                lookupOrRate(hash, blocks, gates);
+            } catch (Exception e) {
+                System.err.println(hash + ": not rated, " + e);
+                failed.add(hash); // not retried: the hash stands for the content, which cannot change
+            } finally {
+                pending.remove(hash);
+            }
+            if (pending.isEmpty()) save();
+        });
+        return null;
+    }
+
+    public int cacheSize() { return cache.size(); }
+
+    /** One IDA* run with the blocking heuristic; deterministic, so the same level always gets the same score. */
+    public static Difficulty rate(List<Block> blocks, List<ExitGate> gates) {
+        InformedSolver solver = new InformedSolver(new Board(blocks, gates), Heuristics.BLOCKING).setMaxStates(MAX_STATES);
+        return rate(solver, solver.solveIdaStar());
+    }
+
+    /** Rating from a run the caller already made, e.g. when it also needs the solution itself. */
+    public static Difficulty rate(InformedSolver solver, Solution s) {
+        double branching = s.statesExplored == 0 ? 0 : (double) solver.getGenerated() / s.statesExplored;
+        if (s.status == Solution.Status.UNSOLVABLE) {
+            return new Difficulty(Difficulty.UNSOLVABLE, 0, branching, solver.getDeadEnds(), s.statesExplored);
+        }
+        if (s.status == Solution.Status.LIMIT_REACHED) {
+            return new Difficulty(Difficulty.UNDECIDED, 0, branching, solver.getDeadEnds(), s.statesExplored);
+        }
+        Set<Integer> moved = new HashSet<>();
+        for (Move m : s.moves) moved.add(m.piece);
+        long wrongTurns = Math.max(0, s.statesExplored - s.moveCount());
+        return new Difficulty(s.moveCount(), moved.size(), branching, wrongTurns + solver.getDeadEnds(), s.statesExplored);
+    }
+
+    /** Canonical hash, so mirrored, rotated, recolored or shifted copies share one cache entry. */
+    public static String contentHash(List<Block> blocks, List<ExitGate> gates) {
+        return CanonicalLevel.hash(blocks, gates);
+    }
+
+    private synchronized ExecutorService worker() {
+        if (worker == null) {
+            worker = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "difficulty-estimator");
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            });
+        }
+        return worker;
+    }
+
+    private void load() {
+        Properties p = new Properties();
+        try (InputStream in = new FileInputStream(cacheFile)) {
+            p.load(in);
+        } catch (Exception e) { e.printStackTrace(); return; }
+        String prefix = VERSION + ":";
+        for (String key : p.stringPropertyNames()) {
+            if (!key.startsWith(prefix)) continue;
+            try {
+                cache.put(key.substring(prefix.length()), Difficulty.decode(p.getProperty(key)));
+            } catch (RuntimeException ignored) { }
+        }
+    }
+
+    private synchronized void save() {
+        if (cacheFile == null) return;
+        Properties p = new Properties();
+        cache.forEach((hash, d) -> p.setProperty(VERSION + ":" + hash, d.encode()));
+        try {
+            if (cacheFile.getParentFile() != null) cacheFile.getParentFile().mkdirs();
+            try (OutputStream out = new FileOutputStream(cacheFile)) {
+                p.store(out, "Blocky level difficulty cache");
+            }
+        } catch (Exception e) { e.printStackTrace(); }
+    }
+
+    private static final class FileStamp {
+        final long modified, length;
+        final String hash; // null when the level failed to load or rate
+
+        FileStamp(long modified, long length, String hash) {
+            this.modified = modified;
+            this.length = length;
+            this.hash = hash;
+        }
+
+        boolean matches(File f) { return f.lastModified() == modified && f.length() == length; }
+    }
+}
@@ -0,0 +1,14 @@
+package com.blocky.solver;
+
+/**
+ * Lower bound on the number of drags left from a state, used by InformedSolver. Implementations
+ * must never overestimate, otherwise IDA* and A* stop returning optimal solutions.
+ */
+public interface Heuristic {
+    /** Returned for states that can never be solved; the search prunes them. */
+    int DEAD = Integer.MAX_VALUE;
+
+    String name();
+
+    int estimate(Board board, BoardState state);
+}
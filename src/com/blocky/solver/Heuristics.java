@@ -0,0 +1,40 @@
+package com.blocky.solver;
+
+/**
+ * Built-in admissible heuristics, from cheapest to most informed. One drag can carry a piece across
+ * the whole board, so cell distances are not admissible as move counts; the gate distance is only
+ * used to spot pieces that can no longer reach any gate of their color.
+ */
+public enum Heuristics implements Heuristic {
+    /** Every piece still on the board needs its own exit drag. */
+    REMAINING {
+        @Override
+        public int estimate(Board board, BoardState state) {
+            return state.remaining();
+        }
+    },
+
+    /** REMAINING, plus DEAD when a piece is cut off from every matching gate even on an empty board. */
+    GATE_DISTANCE {
+        @Override
+        public int estimate(Board board, BoardState state) {
+            int n = 0;
+            for (int p = 0; p < state.pieceCount(); p++) {
+                if (state.hasExited(p)) continue;
+                if (board.exitSteps(p, state.position(p)) < 0) return DEAD;
+                n++;
+            }
+            return n;
+        }
+    },
+
+    /** GATE_DISTANCE, plus one drag when every remaining piece is blocked by another one. */
+    BLOCKING {
+        @Override
+        public int estimate(Board board, BoardState state) {
+            int h = GATE_DISTANCE.estimate(board, state);
+            if (h == DEAD || h == 0) return h;
+            return board.findExit(state) == null ? h + 1 : h;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.blocky.solver;
+
+import com.blocky.model.Block;
+
+/**
+ * Answer of the HintEngine for one position: the next drag of an optimal solution, with the live
+ * block to drag and the pixel anchor to drop it on (for an exit, the spot where it meets the gate).
+ */
+public final class Hint {
+    public enum Status { MOVE, SOLVED, UNSOLVABLE, PENDING }
+
+    public final Status status;
+    public final Move move;
+    public final Block block;
+    public final int targetX, targetY;
+    /** Optimal number of drags left including this one, or -1 when not known. */
+    public final int movesLeft;
+    /** True when the position was already on a line proven by an earlier search. */
+    public final boolean cached;
+    public final long statesExplored;
+    public final long elapsedNanos;
+
+    Hint(Status status, Move move, Block block, int targetX, int targetY, int movesLeft, boolean cached, long statesExplored, long elapsedNanos) {
+        this.status = status;
+        this.move = move;
+        this.block = block;
+        this.targetX = targetX;
+        this.targetY = targetY;
+        this.movesLeft = movesLeft;
+        this.cached = cached;
+        this.statesExplored = statesExplored;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    static Hint of(Status status, long statesExplored, long elapsedNanos) {
+        return new Hint(status, null, null, 0, 0, -1, false, statesExplored, elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+        String s = status == Status.MOVE ? move + " left=" + movesLeft + (cached ? " (cached)" : "") : status.toString();
+        return s + " states=" + statesExplored + " time=" + (elapsedNanos / 1_000) + "us";
+    }
+}
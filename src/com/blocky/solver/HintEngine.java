@@ -0,0 +1,201 @@
+package com.blocky.solver;
+
+import com.blocky.model.Block;
+import com.blocky.model.ExitGate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Next optimal drag from the player's current position, reusing earlier searches of the same level.
+ * The search is IDA* that remembers what it learns: when a subtree fails under the bound, its cost
+ * estimate is raised in a TranspositionTable that is never cleared, and every state on a solution
+ * that was found keeps its next move and exact distance. A hint right after following the previous
+ * one is a map lookup; after another drag the search restarts from raised estimates. A call that
+ * runs out of its time budget returns PENDING and the next call continues from what was learned.
+ *
+ * IDA* never proves that a position is lost (longer and longer loops always fit under the next
+ * bound), so after the heuristic's static dead check a position gets a small breadth-first search,
+ * inside the same budget and cancel check. It settles small levels on its own and proves deadlocks;
+ * once it runs out of states the level counts as too big for it and IDA* handles every later call.
+ *
+ * Built once per level from the same Block objects the game moves (see Board.stateOf), so all
+ * tables are per level; each is fixed-size, and the proven lines are dropped when they pass
+ * MAX_PROVEN. Not thread-safe; one search at a time.
+ */
+public class HintEngine {
+    public static final long DEFAULT_BUDGET_NANOS = 50_000_000L;
+    private static final int TABLE_SIZE = 1 << 18;
+    private static final int CHECK_EVERY = 64; // expansions between deadline checks
+    private static final long EXHAUSTIVE_STATES = 10_000; // about one 50ms budget of breadth-first search
+    private static final int MAX_PROVEN = 1 << 16;
+
+    private static final int FOUND = -1;
+    private static final int ABORTED = -2;
+
+    private final Board board;
+    private final Heuristic heuristic;
+    private final MoveGenerator gen;
+    private final TranspositionTable learned = new TranspositionTable(TABLE_SIZE); // raised lower bounds
+    private final Map<BoardState, Step> proven = new HashMap<>();                  // states on a found solution
+    private final Solver exhaustive;
+    private boolean tooBig; // the breadth-first search ran out of states or time on this level
+
+    // Per-call
+    private long expanded, deadline;
+    private BooleanSupplier cancelled;
+    private int bound;
+    private final List<Move> path = new ArrayList<>();
+
+    public HintEngine(List<Block> blocks, List<ExitGate> gates) {
+        this(new Board(blocks, gates), Heuristics.BLOCKING);
+    }
+
+    public HintEngine(Board board, Heuristic heuristic) {
+        this.board = board;
+        this.heuristic = heuristic;
+        this.gen = new MoveGenerator(board);
+        this.exhaustive = new Solver(board).setMaxStates(EXHAUSTIVE_STATES).setTranspositionTable(new TranspositionTable(1 << 16));
+    }
+
+    public Board getBoard() { return board; }
+
+    /** Positions whose next optimal move is already known. */
+    public int provenStates() { return proven.size(); }
+
+    public Hint next(List<Block> live) {
+        return next(board.stateOf(live), DEFAULT_BUDGET_NANOS, () -> false);
+    }
+
+    /** Searches until a move is proven, the budget runs out (PENDING) or cancelled returns true (PENDING). */
+    public Hint next(BoardState start, long budgetNanos, BooleanSupplier cancelled) {
+        long t0 = System.nanoTime();
+        if (start.isSolved()) return Hint.of(Hint.Status.SOLVED, 0, System.nanoTime() - t0);
+        Step known = proven.get(start);
+        if (known != null) return hint(known, true, 0, t0);
+        if (exhaustive.knownDistance(start) == -1 || estimate(start) == Heuristic.DEAD) {
+            return Hint.of(Hint.Status.UNSOLVABLE, 0, System.nanoTime() - t0);
+        }
+
+        this.deadline = t0 + budgetNanos;
+        this.cancelled = cancelled;
+        expanded = 0;
+        if (!tooBig) {
+            Solution s = exhaustive.solve(start, () -> System.nanoTime() > deadline || cancelled.getAsBoolean());
+            if (s.status == Solution.Status.UNSOLVABLE) return Hint.of(Hint.Status.UNSOLVABLE, s.statesExplored, System.nanoTime() - t0);
+            if (s.isSolvable()) {
+                path.clear();
+                path.addAll(s.moves);
+                remember(start);
+                return hint(proven.get(start), false, s.statesExplored, t0);
+            }
+            if (cancelled.getAsBoolean()) return Hint.of(Hint.Status.PENDING, s.statesExplored, System.nanoTime() - t0);
+            tooBig = true;
+        }
+
+        for (bound = estimate(start); bound != Heuristic.DEAD; ) {
+            path.clear();
+            int next = search(start, 0, bound);
+            if (next == ABORTED) return Hint.of(Hint.Status.PENDING, expanded, System.nanoTime() - t0);
+            if (next == FOUND) {
+                remember(start);
+                return hint(proven.get(start), false, expanded, t0);
+            }
+            bound = next;
+        }
+        return Hint.of(Hint.Status.UNSOLVABLE, expanded, System.nanoTime() - t0);
+    }
+
+    /** Returns FOUND, ABORTED, or the smallest f above the bound seen below this node (DEAD if none). */
+    private int search(BoardState s, int g, int h) {
+        int f = g + h;
+        if (f > bound) return f;
+        if (s.isSolved()) return FOUND;
+
+        // h is exact here, so following the known line fits in the bound
+        if (proven.containsKey(s)) {
+            for (Step step = proven.get(s); step != null; step = proven.get(s)) {
+                path.add(step.move);
+                s = apply(s, step.move);
+            }
+            return FOUND;
+        }
+        if (++expanded % CHECK_EVERY == 0 && (System.nanoTime() > deadline || cancelled.getAsBoolean())) return ABORTED;
+
+        List<Move> moves = new ArrayList<>();
+        List<BoardState> states = new ArrayList<>();
+        gen.expand(s, (move, next) -> {
+            moves.add(move);
+            states.add(next);
+            return true;
+        });
+        int[] hs = new int[moves.size()];
+        Integer[] order = new Integer[moves.size()];
+        for (int i = 0; i < hs.length; i++) {
+            hs[i] = estimate(states.get(i));
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(hs[a], hs[b]));
+
+        int min = Heuristic.DEAD;
+        for (int i : order) {
+            if (hs[i] == Heuristic.DEAD) break;
+            path.add(moves.get(i));
+            int t = search(states.get(i), g + 1, hs[i]);
+            if (t == FOUND || t == ABORTED) return t;
+            path.remove(path.size() - 1);
+            min = Math.min(min, t);
+        }
+        // Every path below s costs at least min, so s needs at least min - g more moves
+        learn(s, min == Heuristic.DEAD ? Heuristic.DEAD : min - g);
+        return min;
+    }
+
+    private int estimate(BoardState s) {
+        Step step = proven.get(s);
+        if (step != null) return step.left;
+        int h = heuristic.estimate(board, s);
+        if (h == Heuristic.DEAD) return h;
+        int known = learned.get(s.zobrist());
+        return known == TranspositionTable.MISSING ? h : Math.max(h, known);
+    }
+
+    private void learn(BoardState s, int h) {
+        int known = learned.get(s.zobrist());
+        if (known == TranspositionTable.MISSING || h > known) learned.put(s.zobrist(), h, h == Heuristic.DEAD ? TranspositionTable.PROVEN_DEPTH : h);
+    }
+
+    // Every suffix of an optimal solution is optimal, so each state on the path gets its exact distance
+    private void remember(BoardState start) {
+        if (proven.size() + path.size() > MAX_PROVEN) proven.clear();
+        BoardState s = start;
+        for (int i = 0; i < path.size(); i++) {
+            proven.put(s, new Step(path.get(i), path.size() - i));
+            s = apply(s, path.get(i));
+        }
+    }
+
+    private BoardState apply(BoardState s, Move m) {
+        return board.apply(s, m.piece, m.isExit() ? BoardState.EXITED : m.toRow * board.cols + m.toCol);
+    }
+
+    private Hint hint(Step step, boolean cached, long states, long t0) {
+        Move m = step.move;
+        return new Hint(Hint.Status.MOVE, m, board.piece(m.piece), board.pixelX(m.toCol), board.pixelY(m.toRow),
+                step.left, cached, states, System.nanoTime() - t0);
+    }
+
+    private static final class Step {
+        final Move move;
+        final int left;
+
+        Step(Move move, int left) {
+            this.move = move;
+            this.left = left;
+        }
+    }
+}
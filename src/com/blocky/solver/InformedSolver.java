@@ -0,0 +1,256 @@
+package com.blocky.solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Heuristic search for levels where plain BFS runs out of states. IDA* keeps memory flat: only the
+ * current path plus a fixed-size TranspositionTable that skips states already searched with an
+ * equal or smaller cost in the same iteration. A* keeps an open list that can be capped; when the
+ * cap drops states the result is flagged as not proven optimal unless its cost is still below
+ * every dropped estimate. statesExplored counts expanded nodes, so runs with different heuristics
+ * can be compared directly (see compare()).
+ */
+public class InformedSolver {
+    public enum Algorithm { IDA_STAR, A_STAR }
+
+    public static final int DEFAULT_TABLE_SIZE = 1 << 20;
+
+    private static final int FOUND = -1;
+    private static final int ABORTED = -2;
+
+    private final Board board;
+    private final Heuristic heuristic;
+    private final MoveGenerator gen;
+    private long maxStates = Solver.DEFAULT_MAX_STATES;
+    private int maxOpen = Integer.MAX_VALUE;
+    private TranspositionTable table;
+
+    // Per-run counters
+    private long expanded, evaluations, generated, deadEnds;
+    private int bound, iteration;
+    private final List<Move> path = new ArrayList<>();
+
+    public InformedSolver(Board board, Heuristic heuristic) {
+        this.board = board;
+        this.heuristic = heuristic;
+        this.gen = new MoveGenerator(board);
+    }
+
+    public Board getBoard() { return board; }
+    public Heuristic getHeuristic() { return heuristic; }
+
+    /** Upper bound on expanded nodes before giving up with LIMIT_REACHED. */
+    public InformedSolver setMaxStates(long maxStates) {
+        this.maxStates = maxStates;
+        return this;
+    }
+
+    /** Caps the A* open list; the worst quarter is dropped whenever it overflows. */
+    public InformedSolver setMaxOpen(int maxOpen) {
+        this.maxOpen = Math.max(16, maxOpen);
+        return this;
+    }
+
+    /** Table IDA* uses to skip transpositions. Created with DEFAULT_TABLE_SIZE entries if not set. */
+    public InformedSolver setTranspositionTable(TranspositionTable table) {
+        this.table = table;
+        return this;
+    }
+
+    public long getEvaluations() { return evaluations; }
+    /** Children produced by the move generator during the last run. */
+    public long getGenerated() { return generated; }
+    /** Children the heuristic proved unsolvable during the last run. */
+    public long getDeadEnds() { return deadEnds; }
+
+    public Solution solve(Algorithm algorithm) {
+        return algorithm == Algorithm.A_STAR ? solveAStar() : solveIdaStar();
+    }
+
+    // --- IDA* ---
+    public Solution solveIdaStar() {
+        long t0 = System.nanoTime();
+        BoardState start = board.initialState();
+        expanded = evaluations = generated = deadEnds = 0;
+        path.clear();
+        int h = evaluate(start);
+        if (h == Heuristic.DEAD) return new Solution(Solution.Status.UNSOLVABLE, null, 0, System.nanoTime() - t0);
+        if (table == null) table = new TranspositionTable(DEFAULT_TABLE_SIZE);
+        table.clear();
+
+        bound = h;
+        for (iteration = 1; ; iteration++) {
+            int next = search(start, 0, h);
+            if (next == FOUND) return new Solution(Solution.Status.SOLVED, new ArrayList<>(path), expanded, System.nanoTime() - t0);
+            if (next == ABORTED) return new Solution(Solution.Status.LIMIT_REACHED, null, expanded, System.nanoTime() - t0);
+            if (next == Heuristic.DEAD) return new Solution(Solution.Status.UNSOLVABLE, null, expanded, System.nanoTime() - t0);
+            bound = next;
+        }
+    }
+
+    /** Returns FOUND, ABORTED, or the smallest f above the bound seen below this node (DEAD if none). */
+    private int search(BoardState s, int g, int h) {
+        int f = g + h;
+        if (f > bound) return f;
+        if (s.isSolved()) return FOUND;
+
+        // Same iteration, reached before with a cost no higher: that subtree was already searched
+        long key = s.zobrist();
+        if (table.depth(key) == iteration && table.get(key) <= g) return Heuristic.DEAD;
+        table.put(key, g, iteration);
+        if (++expanded > maxStates) return ABORTED;
+
+        List<Successor> children = successors(s);
+        if (children == null) return Heuristic.DEAD;
+        int min = Heuristic.DEAD;
+        for (Successor child : children) {
+            path.add(child.move);
+            int t = search(child.state, g + 1, child.h);
+            if (t == FOUND || t == ABORTED) return t;
+            path.remove(path.size() - 1);
+            min = Math.min(min, t);
+        }
+        return min;
+    }
+
+    // --- A* ---
+    public Solution solveAStar() {
+        long t0 = System.nanoTime();
+        BoardState start = board.initialState();
+        expanded = evaluations = generated = deadEnds = 0;
+        int h = evaluate(start);
+        if (h == Heuristic.DEAD) return new Solution(Solution.Status.UNSOLVABLE, null, 0, System.nanoTime() - t0);
+
+        PriorityQueue<Node> open = new PriorityQueue<>();
+        Map<BoardState, Integer> best = new HashMap<>();
+        open.add(new Node(start, null, null, 0, h));
+        best.put(start, 0);
+        int droppedF = Heuristic.DEAD;
+
+        while (!open.isEmpty()) {
+            Node node = open.poll();
+            if (node.g > best.getOrDefault(node.state, Integer.MAX_VALUE)) continue; // stale entry
+            if (node.state.isSolved()) {
+                List<Move> moves = new ArrayList<>();
+                for (Node n = node; n.move != null; n = n.parent) moves.add(n.move);
+                Collections.reverse(moves);
+                return new Solution(Solution.Status.SOLVED, moves, expanded, System.nanoTime() - t0, node.g <= droppedF);
+            }
+            if (++expanded > maxStates) return new Solution(Solution.Status.LIMIT_REACHED, null, expanded, System.nanoTime() - t0);
+
+            List<Successor> children = successors(node.state);
+            if (children == null) continue;
+            for (Successor child : children) {
+                int g = node.g + 1;
+                Integer known = best.get(child.state);
+                if (known != null && known <= g) continue;
+                best.put(child.state, g);
+                open.add(new Node(child.state, node, child.move, g, g + child.h));
+            }
+            if (open.size() > maxOpen) droppedF = Math.min(droppedF, trim(open, best));
+        }
+        // With dropped states an empty open list proves nothing
+        Solution.Status status = droppedF == Heuristic.DEAD ? Solution.Status.UNSOLVABLE : Solution.Status.LIMIT_REACHED;
+        return new Solution(status, null, expanded, System.nanoTime() - t0);
+    }
+
+    /** Keeps the best three quarters of the open list and returns the lowest f that was dropped. */
+    private int trim(PriorityQueue<Node> open, Map<BoardState, Integer> best) {
+        int keep = maxOpen - maxOpen / 4;
+        List<Node> kept = new ArrayList<>(keep);
+        while (kept.size() < keep) kept.add(open.poll());
+        int droppedF = open.isEmpty() ? Heuristic.DEAD : open.peek().f;
+        for (Node n : open) best.remove(n.state, n.g); // may be generated again later
+        open.clear();
+        open.addAll(kept);
+        return droppedF;
+    }
+
+    private static final class Node implements Comparable<Node> {
+        final BoardState state;
+        final Node parent;
+        final Move move;
+        final int g, f;
+
+        Node(BoardState state, Node parent, Move move, int g, int f) {
+            this.state = state;
+            this.parent = parent;
+            this.move = move;
+            this.g = g;
+            this.f = f;
+        }
+
+        @Override
+        public int compareTo(Node o) {
+            if (f != o.f) return Integer.compare(f, o.f);
+            return Integer.compare(o.g, g); // deeper first among equal estimates
+        }
+    }
+
+    // --- Shared ---
+    private static final class Successor {
+        final Move move;
+        final BoardState state;
+        final int h, steps;
+
+        Successor(Move move, BoardState state, int h, int steps) {
+            this.move = move;
+            this.state = state;
+            this.h = h;
+            this.steps = steps;
+        }
+    }
+
+    /**
+     * Children that are not dead, most promising first (lowest estimate, then fewest cells left to
+     * the gates). Collected up front because the generator's scratch buffers are reused below.
+     */
+    private List<Successor> successors(BoardState s) {
+        List<Move> moves = new ArrayList<>();
+        List<BoardState> states = new ArrayList<>();
+        gen.expand(s, (move, next) -> {
+            moves.add(move);
+            states.add(next);
+            return true;
+        });
+        generated += moves.size();
+        List<Successor> live = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            BoardState next = states.get(i);
+            int h = evaluate(next);
+            if (h == Heuristic.DEAD) deadEnds++;
+            else live.add(new Successor(moves.get(i), next, h, gateSteps(next)));
+        }
+        if (live.isEmpty()) return null;
+        live.sort((a, b) -> a.h != b.h ? Integer.compare(a.h, b.h) : Integer.compare(a.steps, b.steps));
+        return live;
+    }
+
+    private int evaluate(BoardState s) {
+        evaluations++;
+        return heuristic.estimate(board, s);
+    }
+
+    private int gateSteps(BoardState s) {
+        int sum = 0;
+        for (int p = 0; p < s.pieceCount(); p++) {
+            if (!s.hasExited(p)) sum += Math.max(0, board.exitSteps(p, s.position(p)));
+        }
+        return sum;
+    }
+
+    /** Runs the same level once per heuristic; the expanded node counts show which one prunes. */
+    public static Map<String, Solution> compare(Board board, Algorithm algorithm, long maxStates, Heuristic... heuristics) {
+        Map<String, Solution> results = new LinkedHashMap<>();
+        for (Heuristic h : heuristics) {
+            results.put(h.name(), new InformedSolver(board, h).setMaxStates(maxStates).solve(algorithm));
+        }
+        return results;
+    }
+}
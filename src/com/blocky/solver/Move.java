@@ -0,0 +1,28 @@
+package com.blocky.solver;
+
+/**
+ * One drag of one piece: from its anchor cell to another reachable anchor, or out through a gate.
+ */
+public final class Move {
+    public final int piece;
+    public final int fromRow, fromCol;
+    public final int toRow, toCol;
+    public final int gate; // gate index when the piece exits, otherwise -1
+
+    public Move(int piece, int fromRow, int fromCol, int toRow, int toCol, int gate) {
+        this.piece = piece;
+        this.fromRow = fromRow;
+        this.fromCol = fromCol;
+        this.toRow = toRow;
+        this.toCol = toCol;
+        this.gate = gate;
+    }
+
+    public boolean isExit() { return gate >= 0; }
+
+    @Override
+    public String toString() {
+        String s = "piece " + piece + " (" + fromRow + "," + fromCol + ") -> (" + toRow + "," + toCol + ")";
+        return isExit() ? s + " EXIT gate " + gate : s;
+    }
+}
@@ -0,0 +1,125 @@
+package com.blocky.solver;
+
+import com.blocky.logic.BitBoard;
+import com.blocky.model.Block;
+import java.util.Arrays;
+
+/**
+ * Expands a BoardState into all states reachable with one drag. A drag slides one piece through
+ * free cells (respecting its axis restriction) to any reachable anchor; reaching an aligned gate
+ * of its color makes it exit, exactly like checkGateInteraction during a real drag.
+ * Keeps scratch buffers, so use one instance per thread.
+ */
+final class MoveGenerator {
+    interface Sink {
+        /** Return false to stop the expansion early. */
+        boolean accept(Move move, BoardState next);
+    }
+
+    private final Board board;
+    private final BitBoard occ;
+    private final int[] seen;
+    private final int[] queue;
+    private int stamp = 0;
+
+    MoveGenerator(Board board) {
+        this.board = board;
+        int cells = board.rows * board.cols;
+        this.occ = new BitBoard(board.rows);
+        this.seen = new int[cells];
+        this.queue = new int[cells];
+    }
+
+    void expand(BoardState s, Sink sink) {
+        // Exiting never hurts: removing a piece only frees cells for the others, so whenever a piece
+        // can leave, leaving right away is part of some optimal solution and is the only successor.
+        Move exit = findExit(s);
+        if (exit != null) {
+            sink.accept(exit, board.apply(s, exit.piece, BoardState.EXITED));
+            return;
+        }
+        for (int p = 0; p < s.pos.length; p++) {
+            if (s.pos[p] == BoardState.EXITED) continue;
+            if (flood(s, p, sink) == STOPPED) return;
+        }
+    }
+
+    /** First exit move available in this state, or null. Leaves the occupancy of s filled in. */
+    Move findExit(BoardState s) {
+        fillOccupancy(s);
+        for (int p = 0; p < s.pos.length; p++) {
+            if (s.pos[p] == BoardState.EXITED) continue;
+            Move exit = flood(s, p, null);
+            if (exit != null) return exit;
+        }
+        return null;
+    }
+
+    void fillOccupancy(BoardState s) {
+        occ.clear();
+        for (int p = 0; p < s.pos.length; p++) {
+            if (s.pos[p] == BoardState.EXITED) continue;
+            occ.or(s.pos[p] / board.cols, s.pos[p] % board.cols, board.shapeMasks(p));
+        }
+    }
+
+    /** Placement test against the static layer and every piece on the occupancy board. */
+    boolean fits(int p, int row, int col) {
+        return board.fitsStatic(p, row, col) && !occ.intersects(row, col, board.shapeMasks(p));
+    }
+
+    private static final Move STOPPED = new Move(-1, 0, 0, 0, 0, -1);
+
+    /**
+     * Flood-fills the anchors piece p can reach. Without a sink it only looks for an exit and
+     * returns it (or null). With a sink every reachable anchor is reported; returns STOPPED if the
+     * sink asked to stop.
+     */
+    private Move flood(BoardState s, int p, Sink sink) {
+        int cols = board.cols;
+        int start = s.pos[p];
+        int startRow = start / cols, startCol = start % cols;
+        occ.andNot(startRow, startCol, board.shapeMasks(p));
+        try {
+            return floodFrom(s, p, sink, start, startRow, startCol);
+        } finally {
+            occ.or(startRow, startCol, board.shapeMasks(p));
+        }
+    }
+
+    private Move floodFrom(BoardState s, int p, Sink sink, int start, int startRow, int startCol) {
+        int cols = board.cols;
+        boolean horizontal = board.axis(p) != Block.Axis.VERTICAL;
+        boolean vertical = board.axis(p) != Block.Axis.HORIZONTAL;
+
+        if (++stamp == Integer.MAX_VALUE) { Arrays.fill(seen, 0); stamp = 1; }
+        int head = 0, tail = 0;
+        queue[tail++] = start;
+        seen[start] = stamp;
+
+        while (head < tail) {
+            int a = queue[head++];
+            int r = a / cols, c = a % cols;
+            for (int d = 0; d < 4; d++) {
+                if ((d < 2 && !horizontal) || (d >= 2 && !vertical)) continue;
+                int nr = r + (d == 2 ? -1 : d == 3 ? 1 : 0);
+                int nc = c + (d == 0 ? -1 : d == 1 ? 1 : 0);
+                if (nr < 0 || nc < 0 || nr >= board.rows || nc >= cols) continue;
+                int na = nr * cols + nc;
+                if (seen[na] == stamp) continue;
+                seen[na] = stamp;
+                if (!fits(p, nr, nc)) continue;
+
+                int gate = board.exitAt(p, nr, nc);
+                if (gate >= 0) {
+                    // The piece leaves as soon as it overlaps the gate; never expand past it
+                    if (sink == null) return new Move(p, startRow, startCol, nr, nc, gate);
+                    continue;
+                }
+                queue[tail++] = na;
+                if (sink != null && !sink.accept(new Move(p, startRow, startCol, nr, nc, -1), board.apply(s, p, na))) return STOPPED;
+            }
+        }
+        return null;
+    }
+}
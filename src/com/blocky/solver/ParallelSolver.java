@@ -0,0 +1,182 @@
+package com.blocky.solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Level-synchronous parallel BFS. Every BFS layer is split recursively over a ForkJoinPool (work
+ * stealing balances uneven expansions) and all workers share one ConcurrentHashMap as the visited
+ * set. Since a layer only holds states of equal depth, the first goal found is still optimal.
+ * Thread count comes from -Dblocky.solver.threads (default: all cores).
+ */
+public class ParallelSolver {
+    public static final String THREADS_PROPERTY = "blocky.solver.threads";
+    private static final int SPLIT_THRESHOLD = 16;
+
+    private final Board board;
+    private final int threads;
+    private long maxStates = Solver.DEFAULT_MAX_STATES;
+    private Report lastReport;
+
+    public ParallelSolver(Board board) {
+        this(board, configuredThreads());
+    }
+
+    public ParallelSolver(Board board, int threads) {
+        this.board = board;
+        this.threads = Math.max(1, threads);
+    }
+
+    public static int configuredThreads() {
+        return Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelSolver setMaxStates(long maxStates) {
+        this.maxStates = maxStates;
+        return this;
+    }
+
+    public int getThreads() { return threads; }
+
+    /** Throughput of the last solve() call. */
+    public Report getLastReport() { return lastReport; }
+
+    public Solution solve() {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return solve(pool, board.initialState());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public Solution solve(ForkJoinPool pool, BoardState start) {
+        long t0 = System.nanoTime();
+        Search search = new Search();
+        lastReport = null;
+        for (int p = 0; p < board.pieceCount(); p++) {
+            if (!start.hasExited(p) && !board.hasExit(p)) return finish(search, Solution.Status.UNSOLVABLE, null, t0);
+        }
+        if (start.isSolved()) return finish(search, Solution.Status.SOLVED, new ArrayList<>(), t0);
+
+        search.visited.put(start, new Node(null, null));
+        List<BoardState> layer = Collections.singletonList(start);
+        while (!layer.isEmpty() && search.goal.get() == null) {
+            if (search.visited.size() > maxStates) return finish(search, Solution.Status.LIMIT_REACHED, null, t0);
+            BoardState[] items = layer.toArray(new BoardState[0]);
+            layer = pool.invoke(search.new ExpandTask(items, 0, items.length));
+        }
+
+        BoardState goal = search.goal.get();
+        if (goal == null) return finish(search, Solution.Status.UNSOLVABLE, null, t0);
+        List<Move> path = new ArrayList<>();
+        for (Node n = search.visited.get(goal); n.move != null; n = search.visited.get(n.parent)) path.add(n.move);
+        Collections.reverse(path);
+        return finish(search, Solution.Status.SOLVED, path, t0);
+    }
+
+    private Solution finish(Search search, Solution.Status status, List<Move> path, long t0) {
+        long elapsed = System.nanoTime() - t0;
+        Map<String, Long> perThread = new TreeMap<>();
+        search.expandedPerThread.forEach((name, count) -> perThread.put(name, count.sum()));
+        lastReport = new Report(threads, perThread, elapsed);
+        return new Solution(status, path, search.visited.size(), elapsed);
+    }
+
+    private static final class Node {
+        final BoardState parent;
+        final Move move;
+        Node(BoardState parent, Move move) { this.parent = parent; this.move = move; }
+    }
+
+    /** State shared by the tasks of one solve() call. */
+    private final class Search {
+        final ConcurrentHashMap<BoardState, Node> visited = new ConcurrentHashMap<>();
+        final AtomicReference<BoardState> goal = new AtomicReference<>();
+        final ConcurrentHashMap<String, LongAdder> expandedPerThread = new ConcurrentHashMap<>();
+        // One scratch generator per worker; dropped with the Search, so a caller's pool keeps nothing
+        final ConcurrentHashMap<Thread, MoveGenerator> generators = new ConcurrentHashMap<>();
+
+        final class ExpandTask extends RecursiveTask<List<BoardState>> {
+            private static final long serialVersionUID = 1L;
+            private final BoardState[] layer;
+            private final int from, to;
+
+            ExpandTask(BoardState[] layer, int from, int to) {
+                this.layer = layer;
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected List<BoardState> compute() {
+                if (to - from > SPLIT_THRESHOLD) {
+                    int mid = (from + to) >>> 1;
+                    ExpandTask left = new ExpandTask(layer, from, mid);
+                    left.fork();
+                    List<BoardState> right = new ExpandTask(layer, mid, to).compute();
+                    List<BoardState> merged = left.join();
+                    merged.addAll(right);
+                    return merged;
+                }
+                MoveGenerator gen = generators.computeIfAbsent(Thread.currentThread(), t -> new MoveGenerator(board));
+                List<BoardState> next = new ArrayList<>();
+                int expanded = 0;
+                for (int i = from; i < to && goal.get() == null; i++, expanded++) {
+                    BoardState current = layer[i];
+                    gen.expand(current, (move, succ) -> {
+                        if (visited.putIfAbsent(succ, new Node(current, move)) != null) return true;
+                        if (succ.isSolved()) { goal.compareAndSet(null, succ); return false; }
+                        next.add(succ);
+                        return true;
+                    });
+                }
+                expandedPerThread.computeIfAbsent(Thread.currentThread().getName(), k -> new LongAdder()).add(expanded);
+                return next;
+            }
+        }
+    }
+
+    /** States expanded per worker thread and the resulting throughput. */
+    public static final class Report {
+        public final int threads;
+        public final Map<String, Long> expandedPerThread;
+        public final long elapsedNanos;
+
+        Report(int threads, Map<String, Long> expandedPerThread, long elapsedNanos) {
+            this.threads = threads;
+            this.expandedPerThread = Collections.unmodifiableMap(expandedPerThread);
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long expanded() {
+            long total = 0;
+            for (long n : expandedPerThread.values()) total += n;
+            return total;
+        }
+
+        public double statesPerSecond() {
+            return elapsedNanos == 0 ? 0 : expanded() * 1e9 / elapsedNanos;
+        }
+
+        public double statesPerSecondPerThread() {
+            return statesPerSecond() / threads;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format("threads=%d expanded=%d time=%dms rate=%.0f states/s (%.0f per thread)",
+                    threads, expanded(), elapsedNanos / 1_000_000, statesPerSecond(), statesPerSecondPerThread()));
+            expandedPerThread.forEach((name, n) -> sb.append(String.format("%n  %s: %d (%.0f states/s)", name, n, n * 1e9 / Math.max(1, elapsedNanos))));
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.blocky.solver;
+
+import java.util.Collections;
+import java.util.List;
+
+public final class Solution {
+    public enum Status { SOLVED, UNSOLVABLE, LIMIT_REACHED }
+
+    public final Status status;
+    public final List<Move> moves;
+    public final long statesExplored;
+    public final long elapsedNanos;
+    /** False when a memory-bounded search had to drop states that might have led to a shorter solution. */
+    public final boolean optimal;
+
+    public Solution(Status status, List<Move> moves, long statesExplored, long elapsedNanos) {
+        this(status, moves, statesExplored, elapsedNanos, true);
+    }
+
+    public Solution(Status status, List<Move> moves, long statesExplored, long elapsedNanos, boolean optimal) {
+        this.optimal = optimal;
+        this.status = status;
+        this.moves = moves == null ? Collections.<Move>emptyList() : Collections.unmodifiableList(moves);
+        this.statesExplored = statesExplored;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public boolean isSolvable() { return status == Status.SOLVED; }
+
+    /** Minimum number of moves, or -1 when no solution was found. */
+    public int moveCount() { return isSolvable() ? moves.size() : -1; }
+
+    @Override
+    public String toString() {
+        return status + " moves=" + moveCount() + (optimal ? "" : " (not proven optimal)") + " states=" + statesExplored + " time=" + (elapsedNanos / 1_000_000) + "ms";
+    }
+}
@@ -0,0 +1,146 @@
+package com.blocky.solver;
+
+import com.blocky.logic.LevelFactory;
+import com.blocky.model.Block;
+import com.blocky.model.ExitGate;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Headless optimal solver: breadth-first search over BoardStates where one move is one drag.
+ * Works on any blocks/gates lists, so it does not touch the GameEngine singleton.
+ */
+public class Solver {
+    public static final long DEFAULT_MAX_STATES = 2_000_000;
+    private static final int CHECK_EVERY = 64; // expansions between stop checks
+
+    private final Board board;
+    private long maxStates = DEFAULT_MAX_STATES;
+    private TranspositionTable table;
+
+    public Solver(Board board) {
+        this.board = board;
+    }
+
+    public Solver(List<Block> blocks, List<ExitGate> gates) {
+        this(new Board(blocks, gates));
+    }
+
+    public Board getBoard() { return board; }
+
+    public Solver setMaxStates(long maxStates) {
+        this.maxStates = maxStates;
+        return this;
+    }
+
+    /**
+     * Remembers proven results: the exact remaining distance of every state on an optimal path, and
+     * UNSOLVABLE (-1) for start states whose search was exhausted. The table can be shared between
+     * solves of the same level, e.g. by the editor or the hint service.
+     */
+    public Solver setTranspositionTable(TranspositionTable table) {
+        this.table = table;
+        return this;
+    }
+
+    public TranspositionTable getTranspositionTable() { return table; }
+
+    /** Proven number of moves left from this state, -1 if proven unsolvable, MISSING if unknown. */
+    public int knownDistance(BoardState state) {
+        return table == null ? TranspositionTable.MISSING : table.get(state.zobrist());
+    }
+
+    public Solution solve() {
+        return solve(board.initialState());
+    }
+
+    public Solution solve(BoardState start) {
+        return solve(start, () -> false);
+    }
+
+    /** Same, but gives up with LIMIT_REACHED as soon as stop returns true (checked every few expansions). */
+    public Solution solve(BoardState start, BooleanSupplier stop) {
+        long t0 = System.nanoTime();
+        for (int p = 0; p < board.pieceCount(); p++) {
+            if (!start.hasExited(p) && !board.hasExit(p)) {
+                return new Solution(Solution.Status.UNSOLVABLE, null, 0, System.nanoTime() - t0);
+            }
+        }
+        if (start.isSolved()) return new Solution(Solution.Status.SOLVED, new ArrayList<>(), 1, System.nanoTime() - t0);
+        if (knownDistance(start) == -1) return new Solution(Solution.Status.UNSOLVABLE, null, 0, System.nanoTime() - t0);
+
+        Map<BoardState, Node> visited = new HashMap<>();
+        ArrayDeque<BoardState> frontier = new ArrayDeque<>();
+        visited.put(start, new Node(null, null));
+        frontier.add(start);
+        MoveGenerator gen = new MoveGenerator(board);
+        BoardState[] goal = new BoardState[1];
+        long polled = 0;
+
+        while (!frontier.isEmpty() && goal[0] == null) {
+            if (visited.size() > maxStates) {
+                return new Solution(Solution.Status.LIMIT_REACHED, null, visited.size(), System.nanoTime() - t0);
+            }
+            if (++polled % CHECK_EVERY == 0 && stop.getAsBoolean()) {
+                return new Solution(Solution.Status.LIMIT_REACHED, null, visited.size(), System.nanoTime() - t0);
+            }
+            BoardState current = frontier.poll();
+            gen.expand(current, (move, next) -> {
+                if (visited.containsKey(next)) return true;
+                visited.put(next, new Node(current, move));
+                if (next.isSolved()) { goal[0] = next; return false; }
+                frontier.add(next);
+                return true;
+            });
+        }
+
+        long elapsed = System.nanoTime() - t0;
+        if (goal[0] == null) {
+            // Exhausted: every state reached from start is a dead end as well
+            if (table != null) for (BoardState dead : visited.keySet()) table.put(dead.zobrist(), -1, TranspositionTable.PROVEN_DEPTH);
+            return new Solution(Solution.Status.UNSOLVABLE, null, visited.size(), elapsed);
+        }
+
+        List<Move> path = new ArrayList<>();
+        int remaining = 0;
+        for (Node n = visited.get(goal[0]); n.move != null; n = visited.get(n.parent)) {
+            path.add(n.move);
+            remaining++;
+            if (table != null) table.put(n.parent.zobrist(), remaining, remaining);
+        }
+        Collections.reverse(path);
+        return new Solution(Solution.Status.SOLVED, path, visited.size(), elapsed);
+    }
+
+    private static final class Node {
+        final BoardState parent;
+        final Move move;
+        Node(BoardState parent, Move move) { this.parent = parent; this.move = move; }
+    }
+
+    // --- Convenience entry points ---
+    public static Solution solve(List<Block> blocks, List<ExitGate> gates) {
+        return new Solver(blocks, gates).solve();
+    }
+
+    public static Solution solveLevel(int level) {
+        List<Block> blocks = new ArrayList<>();
+        List<ExitGate> gates = new ArrayList<>();
+        LevelFactory.loadLevel(level, blocks, gates);
+        return solve(blocks, gates);
+    }
+
+    public static Solution solveFile(File file) throws IOException {
+        List<Block> blocks = new ArrayList<>();
+        List<ExitGate> gates = new ArrayList<>();
+        LevelFactory.readLevelFile(file, blocks, gates); // text or .blv
+        return solve(blocks, gates);
+    }
+}
@@ -0,0 +1,117 @@
+package com.blocky.solver;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size, open-addressing table from 64-bit keys (Zobrist hashes) to an int value plus an int
+ * depth, backed only by primitive arrays. A store probes a small window after the home slot; when
+ * the window is full it overwrites the entry with the lowest depth (deeper searches cost more to
+ * redo). Every entry can be evicted; results that cost a whole search to redo are stored with
+ * PROVEN_DEPTH, which outranks any search depth. Nothing in it depends on the solver, so any
+ * component holding a hash can use it. Not thread-safe.
+ */
+public final class TranspositionTable {
+    public static final int MISSING = Integer.MIN_VALUE;
+    /** Depth for proven results (e.g. dead states); deeper than any search, but still replaceable. */
+    public static final int PROVEN_DEPTH = 1 << 20;
+    private static final int PROBES = 4;
+    private static final long EMPTY = 0L;
+    private static final long ZERO_KEY = 0x9E3779B97F4A7C15L; // stands in for a real key of 0
+
+    private final long[] keys;
+    private final long[] data; // depth in the high 32 bits, value in the low 32 bits
+    private final int mask;
+
+    private long lookups, hits, stores, collisions, overwrites;
+    private int used;
+
+    /** Capacity is rounded up to a power of two. */
+    public TranspositionTable(int capacity) {
+        int size = Integer.highestOneBit(Math.max(PROBES, capacity - 1)) << 1;
+        keys = new long[size];
+        data = new long[size];
+        mask = size - 1;
+    }
+
+    public int capacity() { return keys.length; }
+
+    public int get(long key) {
+        key = normalize(key);
+        lookups++;
+        int home = index(key);
+        for (int i = 0; i < PROBES; i++) {
+            int slot = (home + i) & mask;
+            long k = keys[slot];
+            if (k == key) { hits++; return (int) data[slot]; }
+            if (k == EMPTY) return MISSING;
+        }
+        return MISSING;
+    }
+
+    /** Depth stored with the key, or MISSING. */
+    public int depth(long key) {
+        key = normalize(key);
+        int home = index(key);
+        for (int i = 0; i < PROBES; i++) {
+            int slot = (home + i) & mask;
+            if (keys[slot] == key) return (int) (data[slot] >> 32);
+            if (keys[slot] == EMPTY) return MISSING;
+        }
+        return MISSING;
+    }
+
+    public void put(long key, int value, int depth) {
+        key = normalize(key);
+        stores++;
+        int home = index(key);
+        int victim = home;
+        int victimDepth = Integer.MAX_VALUE;
+        for (int i = 0; i < PROBES; i++) {
+            int slot = (home + i) & mask;
+            long k = keys[slot];
+            if (k == key || k == EMPTY) {
+                if (k == EMPTY) used++;
+                if (i > 0) collisions++;
+                keys[slot] = key;
+                data[slot] = pack(value, depth);
+                return;
+            }
+            int d = (int) (data[slot] >> 32);
+            if (d < victimDepth) { victimDepth = d; victim = slot; }
+        }
+        collisions++;
+        overwrites++;
+        keys[victim] = key;
+        data[victim] = pack(value, depth);
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(data, 0L);
+        used = 0;
+        lookups = hits = stores = collisions = overwrites = 0;
+    }
+
+    public double hitRate() { return lookups == 0 ? 0 : (double) hits / lookups; }
+    /** Share of stores that could not use their home slot (probed further or evicted another key). */
+    public double collisionRate() { return stores == 0 ? 0 : (double) collisions / stores; }
+    public double loadFactor() { return (double) used / keys.length; }
+    public long overwrites() { return overwrites; }
+
+    public String stats() {
+        return String.format("capacity=%d load=%.1f%% lookups=%d hitRate=%.1f%% stores=%d collisionRate=%.1f%% overwrites=%d",
+                keys.length, loadFactor() * 100, lookups, hitRate() * 100, stores, collisionRate() * 100, overwrites);
+    }
+
+    private int index(long key) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+    private static long normalize(long key) {
+        return key == EMPTY ? ZERO_KEY : key;
+    }
+
+    private static long pack(int value, int depth) {
+        return ((long) depth << 32) | (value & 0xFFFFFFFFL);
+    }
+}
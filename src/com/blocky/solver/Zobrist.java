@@ -0,0 +1,42 @@
+package com.blocky.solver;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys for (piece index, anchor cell). The last slot of every piece stands for "exited",
+ * so a move or an exit updates a hash with two XORs. Keys come from a fixed seed, so hashes are
+ * stable between runs and can be cached.
+ */
+public final class Zobrist {
+    public static final long DEFAULT_SEED = 0x5EED_B10C_C0DEL;
+
+    private final long[][] keys;
+    private final int cells;
+
+    public Zobrist(int pieces, int cells) {
+        this(pieces, cells, DEFAULT_SEED);
+    }
+
+    public Zobrist(int pieces, int cells, long seed) {
+        this.cells = cells;
+        this.keys = new long[pieces][cells + 1];
+        SplittableRandom rnd = new SplittableRandom(seed);
+        for (long[] row : keys) for (int i = 0; i < row.length; i++) row[i] = rnd.nextLong();
+    }
+
+    /** Key for a piece at an anchor cell, or for the exited slot when cell is BoardState.EXITED. */
+    public long key(int piece, int cell) {
+        return keys[piece][cell < 0 ? cells : cell];
+    }
+
+    public long hash(short[] pos) {
+        long h = 0;
+        for (int p = 0; p < pos.length; p++) h ^= key(p, pos[p]);
+        return h;
+    }
+
+    /** Incremental update for one piece moving (or exiting) from one cell to another. */
+    public long update(long hash, int piece, int from, int to) {
+        return hash ^ key(piece, from) ^ key(piece, to);
+    }
+}
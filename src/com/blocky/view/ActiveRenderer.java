@@ -0,0 +1,81 @@
+package com.blocky.view;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Active rendering path (-Dblocky.render=active): a Canvas whose BufferStrategy back buffers
+ * (accelerated VolatileImages where the pipeline supports them) are drawn by BoardPanel.render and
+ * presented from a dedicated thread at a target frame rate. Frames are paced against absolute
+ * deadlines, so a late frame does not push back the ones after it, and Toolkit.sync() hands each
+ * frame to the display right away. BoardPanel stays the scene and the input handler; it is just
+ * never added to the window.
+ */
+public class ActiveRenderer extends Canvas {
+    private static final long serialVersionUID = 1L;
+    private final BoardPanel scene;
+    private final long periodNanos;
+    private final FrameStats stats = new FrameStats("active");
+    private volatile boolean running;
+    private Thread thread;
+
+    public ActiveRenderer(BoardPanel scene, int targetFps) {
+        this.scene = scene;
+        this.periodNanos = 1_000_000_000L / Math.max(1, targetFps);
+        setPreferredSize(scene.getPreferredSize());
+        setBackground(Color.BLACK);
+        setIgnoreRepaint(true); // nothing is painted through the AWT repaint path
+        scene.attachInput(this);
+    }
+
+    public FrameStats getStats() { return stats; }
+
+    /** Starts the render thread; the canvas must be displayable (its frame packed or shown). */
+    public synchronized void start() {
+        if (running) return;
+        createBufferStrategy(2);
+        running = true;
+        thread = new Thread(this::run, "blocky-render");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.join();
+            thread = null;
+        }
+    }
+
+    private void run() {
+        BufferStrategy strategy = getBufferStrategy();
+        long deadline = System.nanoTime();
+        while (running) {
+            long start = System.nanoTime();
+            // A VolatileImage back buffer can be lost at any time (display change, GPU reset); redraw until it sticks
+            do {
+                do {
+                    Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                    try {
+                        scene.render(g, getWidth(), getHeight()); // the engine's published Frame, no lock
+                    } finally {
+                        g.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+            Toolkit.getDefaultToolkit().sync();
+            stats.record(start, System.nanoTime());
+
+            deadline += periodNanos;
+            long wait = deadline - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            else if (wait < -periodNanos) deadline = System.nanoTime(); // too far behind: skip instead of bursting
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.blocky.view;
+
+import com.blocky.model.Block;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of pre-rendered blocks. A sprite is keyed by the identity of the shape
+ * matrix, the color id, the selection, the restriction arrow, the size and the device scale rounded
+ * to a 1/BUCKETS step, so a frame blits one image per block instead of drawing three rounded
+ * rectangles per cell. At most CAPACITY sprites are kept: cycling colors and shapes in the editor
+ * only evicts old ones. The exit animation's block.scale is not part of the key; it is applied when
+ * the sprite is blitted, so a shrinking block reuses its sprite instead of filling the cache.
+ */
+public class BlockSprites {
+    public static final int CAPACITY = 256;
+    private static final int BUCKETS = 20;
+    // Room around the block for the shadow (6px down-right) and antialiasing
+    private static final int MARGIN = 2, SHADOW = 8;
+
+    /** Draws the block with its top-left corner at (x, y) on a graphics already scaled to the sprite. */
+    interface Painter { void paint(Graphics2D g2, Block block, int x, int y); }
+
+    private final Map<Key, BufferedImage> sprites = new LinkedHashMap<Key, BufferedImage>(CAPACITY * 4 / 3 + 1, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, BufferedImage> eldest) {
+            if (size() <= CAPACITY) return false;
+            evictions++;
+            return true;
+        }
+    };
+    private long hits, misses, evictions;
+
+    /**
+     * Draws block at its position on g2 (in level coordinates), scaled by block.scale around its
+     * center, rendering its sprite with painter on a miss.
+     */
+    void draw(Graphics2D g2, Block block, Painter painter) {
+        AffineTransform t = g2.getTransform();
+        double deviceScale = Math.max(Math.hypot(t.getScaleX(), t.getShearY()), Math.hypot(t.getShearX(), t.getScaleY()));
+        int bucket = Math.max(1, (int) Math.round(deviceScale * BUCKETS));
+        Key key = new Key(block, bucket);
+        BufferedImage img = sprites.get(key);
+        if (img != null) {
+            hits++;
+        } else {
+            misses++;
+            img = render(g2.getDeviceConfiguration(), block, (double) bucket / BUCKETS, painter);
+            sprites.put(key, img);
+        }
+        double k = block.scale, s = k * BUCKETS / bucket;
+        double cx = block.getX() + block.getWidth() / 2, cy = block.getY() + block.getHeight() / 2;
+        AffineTransform at = new AffineTransform(s, 0, 0, s, cx + k * (block.getX() - MARGIN - cx), cy + k * (block.getY() - MARGIN - cy));
+        g2.drawImage(img, at, null);
+    }
+
+    private static BufferedImage render(GraphicsConfiguration gc, Block block, double scale, Painter painter) {
+        int w = (int) Math.ceil((block.getWidth() + SHADOW + 2 * MARGIN) * scale);
+        int h = (int) Math.ceil((block.getHeight() + SHADOW + 2 * MARGIN) * scale);
+        BufferedImage img = gc.createCompatibleImage(Math.max(1, w), Math.max(1, h), Transparency.TRANSLUCENT);
+        Graphics2D g = img.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.scale(scale, scale);
+            painter.paint(g, block, MARGIN, MARGIN);
+        } finally {
+            g.dispose();
+        }
+        return img;
+    }
+
+    public int size() { return sprites.size(); }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+
+    /** Share of lookups served from the cache, 0 before the first one. */
+    public double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private static final class Key {
+        final int[][] shape; // compared by identity: LevelFactory and the editor replace matrices, never edit them
+        final int colorId, width, height, bucket;
+        final boolean selected;
+        final Block.Axis restriction;
+
+        Key(Block b, int bucket) {
+            this.shape = b.shapeMatrix;
+            this.colorId = b.getColorId();
+            this.width = b.getWidth();
+            this.height = b.getHeight();
+            this.bucket = bucket;
+            this.selected = b.isSelected;
+            this.restriction = b.restriction;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return shape == k.shape && colorId == k.colorId && width == k.width && height == k.height
+                    && bucket == k.bucket && selected == k.selected && restriction == k.restriction;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = System.identityHashCode(shape);
+            h = 31 * h + colorId;
+            h = 31 * h + width;
+            h = 31 * h + height;
+            h = 31 * h + bucket;
+            h = 31 * h + (selected ? 1 : 0);
+            return 31 * h + restriction.hashCode();
+        }
+    }
+}
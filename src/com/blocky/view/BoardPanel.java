@@ -3,7 +3,9 @@ package com.blocky.view;
 import com.blocky.interfaces.IObserver;
 import com.blocky.logic.GameEngine;
 import com.blocky.model.Block;
+import com.blocky.model.Entity;
 import com.blocky.model.ExitGate;
+import com.blocky.model.ShapeCatalog;
 
 import javax.swing.*;
 import java.awt.*;
@@ -15,9 +17,17 @@ import java.util.List;
 
 public class BoardPanel extends JPanel implements IObserver {
 
-    private float scaleFactor = 1.0f;
-    private int xOffset = 0;
-    private int yOffset = 0;
+    // Written by whichever thread renders, read by the input handlers
+    private volatile float scaleFactor = 1.0f;
+    private volatile int xOffset = 0;
+    private volatile int yOffset = 0;
+    private int surfaceWidth, surfaceHeight; // size of whatever render() last drew on
+    private final FrameStats stats = new FrameStats("swing");
+    private final StaticLayer staticLayer = new StaticLayer();
+    private final BlockSprites sprites = new BlockSprites();
+    private static final Color CELL_HIGHLIGHT = new Color(255, 255, 255, 100);
+    private static final BasicStroke CELL_STROKE = new BasicStroke(3);
+    private final MouseAdapter input;
     
     private List<MenuParticle> menuParticles = new ArrayList<>();
     private Random random = new Random();
@@ -31,6 +41,7 @@ public class BoardPanel extends JPanel implements IObserver {
     private Rectangle btnExit = new Rectangle(250, 800, 300, 70);
     
     private Rectangle btnBack = new Rectangle(300, 750, 200, 60);
+    private Rectangle btnDaily = new Rectangle(250, 660, 300, 70);
 
     // --- EDITOR BUTTONS ---
     // Layout: Wall(20), Gate(110), Block(200), Undo(300), Redo(390), Save(480), Delete(570), Back(780)
@@ -47,10 +58,16 @@ public class BoardPanel extends JPanel implements IObserver {
     private Rectangle btnEditorBack = new Rectangle(780, 20, 100, 50); 
     
     private Rectangle btnCreateLevel = new Rectangle(250, 650, 300, 70);
+    private static final int LIST_BOTTOM = 965; // saved level rows below this are off the surface
+    private static final int LIST_TOP = 200, LIST_ROW_STEP = 70, LIST_ROWS = (LIST_BOTTOM - LIST_TOP) / LIST_ROW_STEP + 1;
+    private Rectangle btnListUp = new Rectangle(690, LIST_TOP, 80, 60);
+    private Rectangle btnListDown = new Rectangle(690, LIST_TOP + (LIST_ROWS - 1) * LIST_ROW_STEP, 80, 60);
+    private volatile int levelListFirst; // saved level shown in the top row; the wheel and UP/DOWN move it
     
     // --- HUD BUTTONS ---
     private Rectangle btnHudMenu = new Rectangle(730, 10, 50, 50);
     private Rectangle btnHudRestart = new Rectangle(670, 10, 50, 50);
+    private Rectangle btnHudHint = new Rectangle(610, 10, 50, 50);
 
     // --- MODAL BUTTONS ---
     private Rectangle btnModalResume = new Rectangle(250, 350, 300, 70);
@@ -81,21 +98,36 @@ public class BoardPanel extends JPanel implements IObserver {
     public BoardPanel() {
         this.setPreferredSize(new Dimension(900, 965));
         this.setBackground(Color.BLACK);
-        MouseAdapter ma = new MouseAdapter() {
+        input = new MouseAdapter() {
             @Override public void mousePressed(MouseEvent e) { handleMouseInput(e, "PRESS"); }
             @Override public void mouseDragged(MouseEvent e) { handleMouseInput(e, "DRAG"); }
             @Override public void mouseMoved(MouseEvent e) { handleMouseInput(e, "MOVE"); }
+            @Override public void mouseWheelMoved(MouseWheelEvent e) { scrollLevelList(e.getWheelRotation() * 3); }
             @Override public void mouseReleased(MouseEvent e) { 
-                GameEngine.getInstance().releaseBlock();
+                synchronized (GameEngine.getInstance().lock) {
+                    GameEngine.getInstance().releaseBlock();
+                }
                 sliderDragTarget = null;
             }
         };
-        this.addMouseListener(ma);
-        this.addMouseMotionListener(ma);
+        attachInput(this);
         GameEngine.getInstance().addObserver(this);
         initMenuParticles();
     }
     
+    /** Routes mouse input from a component (this panel, or ActiveRenderer's canvas) to the game. */
+    public void attachInput(Component c) {
+        c.addMouseListener(input);
+        c.addMouseMotionListener(input);
+        c.addMouseWheelListener(input);
+    }
+
+    public StaticLayer getStaticLayer() { return staticLayer; }
+
+    public BlockSprites getSprites() { return sprites; }
+
+    public FrameStats getStats() { return stats; }
+
     private void initMenuParticles() {
         for(int i=0; i<25; i++) {
             menuParticles.add(new MenuParticle(
@@ -108,7 +140,21 @@ public class BoardPanel extends JPanel implements IObserver {
         }
     }
 
+    // Input changes the engine, which the simulation thread steps concurrently; GameLoop publishes
+    // the frame after its next step, if the input changed anything. A dialog the input asks for runs
+    // after the lock is released: it blocks the EDT, not the game and the renderer
     private void handleMouseInput(MouseEvent e, String action) {
+        GameEngine engine = GameEngine.getInstance();
+        Runnable dialog;
+        synchronized (engine.lock) {
+            if (action.equals("PRESS")) engine.invalidateFrame(); // buttons, editor tools; drags damage what they move
+            dialog = processMouseInput(e, action);
+        }
+        if (dialog != null) dialog.run();
+    }
+
+    // Returns the dialog to show once the lock is released, else null; the dialog takes the lock itself to apply its answer
+    private Runnable processMouseInput(MouseEvent e, String action) {
         int rawX = e.getX();
         int rawY = e.getY();
         int logicX = (int) ((e.getX() - xOffset) / scaleFactor);
@@ -123,47 +169,55 @@ public class BoardPanel extends JPanel implements IObserver {
                 else if (btnEditor.contains(logicX, logicY)) engine.startEditor();
                 else if (btnExit.contains(logicX, logicY)) System.exit(0);
                 else if (btnReset.contains(logicX, logicY)) {
-                    int response = JOptionPane.showConfirmDialog(this, "Are you sure you want to reset your progress?", "Confirm Reset", JOptionPane.YES_NO_OPTION);
-                    if (response == JOptionPane.YES_OPTION) {
-                        engine.resetProgress();
-                    }
+                    return () -> {
+                        int response = JOptionPane.showConfirmDialog(this, "Are you sure you want to reset your progress?", "Confirm Reset", JOptionPane.YES_NO_OPTION);
+                        if (response == JOptionPane.YES_OPTION) {
+                            synchronized (engine.lock) { engine.resetProgress(); }
+                        }
+                    };
                 }
             } else if (engine.state == GameEngine.GameState.LEVEL_SELECT) {
                 for (int i = 1; i <= engine.TOTAL_LEVELS; i++) {
                     int row = (i - 1) / 5; int col = (i - 1) % 5;
                     Rectangle btn = new Rectangle(110 + col * 120, 300 + row * 120, 100, 100);
                     if (btn.contains(logicX, logicY) && i <= engine.maxUnlockedLevel) { 
-                        engine.startGame(i); return; 
+                        engine.startGame(i); return null; 
                     }
                 }
-                if (btnBack.contains(logicX, logicY)) engine.goToMenu();
+                if (btnDaily.contains(logicX, logicY)) engine.playDailyPuzzle(java.time.LocalDate.now());
+                else if (btnBack.contains(logicX, logicY)) engine.goToMenu();
             } else if (engine.state == GameEngine.GameState.EDITOR_LEVEL_SELECT) {
                 if (btnCreateLevel.contains(logicX, logicY)) engine.createEditorLevel();
                 else if (btnBack.contains(logicX, logicY)) engine.goToMenu();
+                else if (btnListUp.contains(logicX, logicY)) scrollLevelList(-(LIST_ROWS - 1));
+                else if (btnListDown.contains(logicX, logicY)) scrollLevelList(LIST_ROWS - 1);
                 else {
                     java.util.List<String> levels = engine.getSavedLevels();
-                    int startY = 200;
                     int rowH = 60;
-                    for (int i = 0; i < levels.size(); i++) {
-                        int y = startY + i * (rowH + 10);
+                    int first = firstListedLevel(levels.size());
+                    for (int i = first; i < levels.size(); i++) {
+                        int y = LIST_TOP + (i - first) * LIST_ROW_STEP;
+                        if (y > LIST_BOTTOM) break;
                         Rectangle btnPlay = new Rectangle(410, y, 80, rowH);
                         Rectangle btnEdit = new Rectangle(500, y, 80, rowH);
                         Rectangle btnDel = new Rectangle(590, y, 80, rowH);
-                        if (btnPlay.contains(logicX, logicY)) { engine.playEditorLevel(levels.get(i)); return; }
-                        if (btnEdit.contains(logicX, logicY)) { engine.loadEditorLevel(levels.get(i)); return; }
+                        if (btnPlay.contains(logicX, logicY)) { engine.playEditorLevel(levels.get(i)); return null; }
+                        if (btnEdit.contains(logicX, logicY)) { engine.loadEditorLevel(levels.get(i)); return null; }
                         if (btnDel.contains(logicX, logicY)) { 
-                            int response = JOptionPane.showConfirmDialog(this, "Are you sure you want to delete the level '" + levels.get(i) + "'?", "Confirm Delete", JOptionPane.YES_NO_OPTION);
-                            if (response == JOptionPane.YES_OPTION) {
-                                engine.deleteSavedLevel(levels.get(i)); 
-                            }
-                            return; 
+                            String name = levels.get(i);
+                            return () -> {
+                                int response = JOptionPane.showConfirmDialog(this, "Are you sure you want to delete the level '" + name + "'?", "Confirm Delete", JOptionPane.YES_NO_OPTION);
+                                if (response == JOptionPane.YES_OPTION) {
+                                    synchronized (engine.lock) { engine.deleteSavedLevel(name); }
+                                }
+                            };
                         }
                     }
                 }
             } else if (engine.state == GameEngine.GameState.EDITOR) {
                 if (engine.placingNewObject) {
                     engine.placingNewObject = false;
-                    return;
+                    return null;
                 }
 
                 // UI Check (Screen Space)
@@ -179,12 +233,14 @@ public class BoardPanel extends JPanel implements IObserver {
                         lastSaveMessage = "Saved: " + engine.currentEditingLevelName;
                         lastSaveTime = System.currentTimeMillis();
                     } else {
-                        String name = JOptionPane.showInputDialog(this, "Enter map name:");
-                        if (name != null && !name.trim().isEmpty()) {
-                            engine.saveLevel(name);
-                            lastSaveMessage = "Saved: " + name;
-                            lastSaveTime = System.currentTimeMillis();
-                        }
+                        return () -> {
+                            String name = JOptionPane.showInputDialog(this, "Enter map name:");
+                            if (name != null && !name.trim().isEmpty()) {
+                                synchronized (engine.lock) { engine.saveLevel(name); }
+                                lastSaveMessage = "Saved: " + name;
+                                lastSaveTime = System.currentTimeMillis();
+                            }
+                        };
                     }
                 }
                 else if (btnEditorBack.contains(rawX, rawY)) engine.goToMenu();
@@ -195,7 +251,7 @@ public class BoardPanel extends JPanel implements IObserver {
                         int sx = engine.selectedBlock.getX() + engine.selectedBlock.getWidth() + 20;
                         int sy = engine.selectedBlock.getY();
                         
-                        if (engine.selectedBlock.getColor().equals(Theme.WALL_COLOR)) {
+                        if (engine.selectedBlock.getKind() == Entity.Kind.WALL) {
                              if (sx + 150 > 900) sx = engine.selectedBlock.getX() - 170;
 
                              if (new Rectangle(sx, sy, 30, 30).contains(logicX, logicY)) { 
@@ -276,11 +332,12 @@ public class BoardPanel extends JPanel implements IObserver {
             } else if (engine.state == GameEngine.GameState.PLAYING) {
                 if (btnHudMenu.contains(logicX, logicY)) engine.pauseGame();
                 else if (btnHudRestart.contains(logicX, logicY)) engine.restartLevel();
+                else if (btnHudHint.contains(logicX, logicY)) engine.requestHint();
                 else engine.selectBlock(logicX, logicY);
             } else if (engine.state == GameEngine.GameState.PAUSED) {
                 if (btnModalResume.contains(logicX, logicY)) engine.resumeGame();
                 else if (btnModalMenu.contains(logicX, logicY)) engine.goToMenu();
-                else if (engine.currentLevel == -1) {
+                else if (engine.currentLevel == -1 && engine.currentCustomLevelName != null) {
                     // Custom Level Logic
                     if (btnModalEdit.contains(logicX, logicY)) engine.loadEditorLevel(engine.currentCustomLevelName);
                     else if (btnModalExitCustom.contains(logicX, logicY)) System.exit(0);
@@ -295,7 +352,7 @@ public class BoardPanel extends JPanel implements IObserver {
                 if (btnModalExit.contains(logicX, logicY)) engine.goToMenu();
             } else if (engine.state == GameEngine.GameState.CUSTOM_LEVEL_COMPLETE) {
                 if (btnCustomPlayAgain.contains(logicX, logicY)) engine.restartLevel();
-                else if (btnCustomEdit.contains(logicX, logicY)) engine.loadEditorLevel(engine.currentCustomLevelName);
+                else if (btnCustomEdit.contains(logicX, logicY) && engine.currentCustomLevelName != null) engine.loadEditorLevel(engine.currentCustomLevelName);
                 else if (btnCustomMenu.contains(logicX, logicY)) engine.goToMenu();
             } else if (engine.state == GameEngine.GameState.GAME_OVER) {
                 if (btnModalRestart.contains(logicX, logicY)) engine.restartLevel();
@@ -306,6 +363,7 @@ public class BoardPanel extends JPanel implements IObserver {
                 engine.dragBlock(logicX, logicY);
             }
             else if (engine.state == GameEngine.GameState.EDITOR) {
+                if (engine.selectedBlock != null || engine.selectedGate != null) engine.invalidateFrame();
                 if (engine.placingNewObject) {
                     int snapX = (logicX / 45) * 45;
                     int snapY = (logicY / 45) * 45;
@@ -322,27 +380,46 @@ public class BoardPanel extends JPanel implements IObserver {
                 }
             }
         }
+        return null;
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        Graphics2D g2 = (Graphics2D) g;
+        long start = System.nanoTime();
+        render((Graphics2D) g, getWidth(), getHeight());
+        stats.record(start, System.nanoTime());
+    }
+
+    /** Draws the engine's last published Frame on a width x height surface; needs no lock. */
+    public void render(Graphics2D g2, int width, int height) {
+        surfaceWidth = width;
+        surfaceHeight = height;
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR); // sprites drawn off their scale bucket
 
         g2.setColor(new Color(20, 20, 25));
-        g2.fillRect(0, 0, getWidth(), getHeight());
+        g2.fillRect(0, 0, width, height);
 
         GameEngine engine = GameEngine.getInstance();
+        GameEngine.Frame f = engine.acquireFrame(); // one consistent step, whatever the simulation does meanwhile
+        try {
+            render(g2, engine, f, width, height);
+        } finally {
+            engine.releaseFrame(f);
+        }
+    }
+
+    private void render(Graphics2D g2, GameEngine engine, GameEngine.Frame f, int width, int height) {
         AffineTransform componentIdentity = g2.getTransform();
 
-        float sx = (float)getWidth() / 1000f;
-        float sy = (float)getHeight() / 1075f; 
+        float sx = (float)width / 1000f;
+        float sy = (float)height / 1075f; 
         scaleFactor = Math.min(sx, sy);
-        xOffset = (int)((getWidth() - 800 * scaleFactor) / 2);
+        xOffset = (int)((width - 800 * scaleFactor) / 2);
         
-        if (engine.state == GameEngine.GameState.MENU || engine.state == GameEngine.GameState.LEVEL_SELECT || engine.state == GameEngine.GameState.EDITOR || engine.state == GameEngine.GameState.EDITOR_LEVEL_SELECT) {
-            yOffset = (int)((getHeight() - 860 * scaleFactor) / 2);
+        if (f.state == GameEngine.GameState.MENU || f.state == GameEngine.GameState.LEVEL_SELECT || f.state == GameEngine.GameState.EDITOR || f.state == GameEngine.GameState.EDITOR_LEVEL_SELECT) {
+            yOffset = (int)((height - 860 * scaleFactor) / 2);
         } else {
             yOffset = 0; 
         }
@@ -350,19 +427,19 @@ public class BoardPanel extends JPanel implements IObserver {
         g2.translate(xOffset, yOffset);
         g2.scale(scaleFactor, scaleFactor);
 
-        switch (engine.state) {
-            case MENU: drawMenu(g2, engine); break;
-            case LEVEL_SELECT: drawLevelSelect(g2, engine); break;
+        switch (f.state) {
+            case MENU: drawMenu(g2, f); break;
+            case LEVEL_SELECT: drawLevelSelect(g2, engine, f); break;
             case EDITOR_LEVEL_SELECT: drawEditorLevelSelect(g2, engine); break;
-            case EDITOR: drawEditor(g2, engine, componentIdentity); break;
-            case PLAYING: drawGame(g2, engine); break;
-            case PAUSED: drawGame(g2, engine); drawPauseModal(g2); break;
-            case LEVEL_COMPLETE: drawGame(g2, engine); drawLevelComplete(g2); break;
-            case CUSTOM_LEVEL_COMPLETE: drawGame(g2, engine); drawCustomLevelComplete(g2); break;
-            case GAME_COMPLETED: drawGame(g2, engine); drawGameCompleted(g2); break;
-            case GAME_OVER: drawGame(g2, engine); drawGameOver(g2); break;
-        }
-        for(Particle p : engine.particles) p.draw(g2);
+            case EDITOR: drawEditor(g2, f, componentIdentity); break;
+            case PLAYING: drawGame(g2, f, componentIdentity); break;
+            case PAUSED: drawGame(g2, f, componentIdentity); drawPauseModal(g2, f); break;
+            case LEVEL_COMPLETE: drawGame(g2, f, componentIdentity); drawLevelComplete(g2, f); break;
+            case CUSTOM_LEVEL_COMPLETE: drawGame(g2, f, componentIdentity); drawCustomLevelComplete(g2, f); break;
+            case GAME_COMPLETED: drawGame(g2, f, componentIdentity); drawGameCompleted(g2); break;
+            case GAME_OVER: drawGame(g2, f, componentIdentity); drawGameOver(g2); break;
+        }
+        for(Particle p : f.particles) p.draw(g2);
         g2.setTransform(componentIdentity);
     }
 
@@ -383,7 +460,7 @@ public class BoardPanel extends JPanel implements IObserver {
         drawModernButton(g2, btnModalExit, "MAIN MENU", Theme.BLUE_BLOCK);
     }
 
-    private void drawLevelComplete(Graphics2D g2) {
+    private void drawLevelComplete(Graphics2D g2, GameEngine.Frame f) {
         g2.setColor(new Color(0, 0, 0, 150));
         g2.fillRect(-1000, -1000, 4000, 4000);
         g2.setColor(Color.WHITE);
@@ -395,7 +472,7 @@ public class BoardPanel extends JPanel implements IObserver {
         FontMetrics fm = g2.getFontMetrics();
         g2.drawString("VICTORY!", 220 + (360 - fm.stringWidth("VICTORY!"))/2, 315);
         
-        if (GameEngine.getInstance().showReward) {
+        if (f.showReward) {
             g2.setColor(Color.GRAY);
             g2.setFont(new Font("Arial", Font.BOLD, 20));
             g2.drawString("REWARD", 360, 380);
@@ -417,7 +494,7 @@ public class BoardPanel extends JPanel implements IObserver {
         drawModernButton(g2, btnModalClaimX2, "GO TO MENU", Theme.BLUE_BLOCK);
     }
     
-    private void drawCustomLevelComplete(Graphics2D g2) {
+    private void drawCustomLevelComplete(Graphics2D g2, GameEngine.Frame f) {
         g2.setColor(new Color(0, 0, 0, 180));
         g2.fillRect(-1000, -1000, 4000, 4000);
         g2.setColor(new Color(40, 40, 45));
@@ -430,7 +507,7 @@ public class BoardPanel extends JPanel implements IObserver {
         FontMetrics fm = g2.getFontMetrics();
         g2.drawString("LEVEL COMPLETE", 200 + (400 - fm.stringWidth("LEVEL COMPLETE")) / 2, 320);
         drawModernButton(g2, btnCustomPlayAgain, "PLAY AGAIN", Theme.GREEN_BLOCK);
-        drawModernButton(g2, btnCustomEdit, "EDIT LEVEL", Theme.BLUE_BLOCK);
+        if (f.currentCustomLevelName != null) drawModernButton(g2, btnCustomEdit, "EDIT LEVEL", Theme.BLUE_BLOCK);
         drawModernButton(g2, btnCustomMenu, "GO TO MENU", Theme.ORANGE_BLOCK);
     }
 
@@ -453,35 +530,83 @@ public class BoardPanel extends JPanel implements IObserver {
         drawModernButton(g2, btnModalMenuOver, "MAIN MENU", Theme.ORANGE_BLOCK);
     }
 
-    private void drawGame(Graphics2D g2, GameEngine engine) {
-        g2.setColor(new Color(25, 25, 30));
-        g2.fillRect(-1000, 60, 3000, 2000); 
-        g2.setColor(new Color(35, 35, 40));
-        for(int i=-1000; i<=2000; i+=60) g2.drawLine(i, -1000, i, 2000);
-        for(int i=-1000; i<=2000; i+=60) g2.drawLine(-1000, i, 2000, i);
-        for (ExitGate gate : engine.gates) drawGateHole(g2, gate);
-        for (Block b : engine.blocks) if (b.getColor().equals(Theme.WALL_COLOR)) drawWallBlock(g2, b);
-        for (Block b : engine.blocks) if (!b.getColor().equals(Theme.WALL_COLOR)) draw3DBlock(g2, b);
-        for (ExitGate gate : engine.gates) drawGateTeeth(g2, gate);
+    private void drawGame(Graphics2D g2, GameEngine.Frame f, AffineTransform identity) {
+        // Background, grid and walls come from the static layer, re-rendered only when the level or the view changes
+        if (!staticLayer.isValid(f.layoutVersion, identity, g2.getTransform(), surfaceWidth, surfaceHeight)) {
+            staticLayer.rebuild(g2.getDeviceConfiguration(), f.layoutVersion, identity, g2.getTransform(), surfaceWidth, surfaceHeight, g -> drawStaticLayer(g, f));
+        }
+        staticLayer.drawBackground(g2);
+        List<Block> movables = f.movables;
+        for (int i = 0; i < movables.size(); i++) draw3DBlock(g2, movables.get(i));
+        int phase = f.teethPhase; // advanced by GameEngine.update(), which damages the gates when it does
+        for (int i = 0; i < f.gates.size(); i++) {
+            ExitGate gate = f.gates.get(i);
+            staticLayer.drawTeeth(g2, i, gate.getBounds(), phase, g -> drawGateTeeth(g, gate, phase));
+        }
+        if (f.hintBlock != null && f.currentHint.status == com.blocky.solver.Hint.Status.MOVE) drawHint(g2, f.currentHint, f.hintBlock);
+        if (f.stuckBlock != null) {
+            Block b = f.stuckBlock;
+            g2.setColor(Theme.RED_BLOCK);
+            g2.setStroke(new BasicStroke(4));
+            g2.drawRect(b.getX() - 3, b.getY() - 3, b.getWidth() + 6, b.getHeight() + 6);
+        }
         g2.setColor(new Color(15, 15, 20));
         g2.fillRect(-1000, 0, 3000, 60); 
         g2.setColor(Color.WHITE);
         g2.setFont(new Font("Consolas", Font.BOLD, 30));
-        long m = engine.timeRemaining / 60000, s = (engine.timeRemaining / 1000) % 60;
+        long m = f.timeRemaining / 60000, s = (f.timeRemaining / 1000) % 60;
         g2.drawString(String.format("TIME: %02d:%02d", m, s), 20, 40);
         g2.setColor(new Color(255, 200, 0));
         g2.fillOval(300, 15, 35, 35);
         g2.setColor(new Color(255, 230, 50));
         g2.fillOval(305, 20, 25, 25);
         g2.setColor(Color.WHITE);
-        g2.drawString("" + engine.coins, 345, 42);
-        drawIconButton(g2, btnHudRestart, "RESTART", new Color(200, 150, 50));
+        g2.drawString("" + f.coins, 345, 42);
+        boolean stuck = f.solvability != null && f.solvability.verdict == com.blocky.solver.DeadlockDetector.Verdict.DEADLOCKED;
+        int blink = stuck ? (int)(55 * Math.abs(Math.sin(System.currentTimeMillis() / 200.0))) : 0;
+        drawIconButton(g2, btnHudRestart, "RESTART", stuck ? new Color(200 + blink, 60, 50) : new Color(200, 150, 50));
         drawIconButton(g2, btnHudMenu, "MENU", new Color(50, 150, 200));
+        // Pulses while the hint is being searched
+        int pulse = f.hintPending ? (int)(60 * Math.abs(Math.sin(System.currentTimeMillis() / 150.0))) : 0;
+        drawIconButton(g2, btnHudHint, "HINT", new Color(90 + pulse, 170 + pulse / 2, 90));
+
+        com.blocky.solver.Hint hint = f.currentHint;
+        if (stuck) {
+            g2.setFont(new Font("Arial", Font.BOLD, 18));
+            g2.setColor(Theme.RED_BLOCK);
+            g2.drawString("STUCK - RESTART", 600 - g2.getFontMetrics().stringWidth("STUCK - RESTART"), 42);
+        } else if (hint != null) {
+            String text = hint.status == com.blocky.solver.Hint.Status.MOVE ? hint.movesLeft + " MOVES LEFT"
+                    : hint.status == com.blocky.solver.Hint.Status.UNSOLVABLE ? "NO WAY OUT" : "NO HINT";
+            g2.setFont(new Font("Arial", Font.BOLD, 18));
+            g2.setColor(hint.status == com.blocky.solver.Hint.Status.MOVE ? Theme.GREEN_BLOCK : Theme.RED_BLOCK);
+            g2.drawString(text, 600 - g2.getFontMetrics().stringWidth(text), 42);
+        }
     }
 
-    private void drawPauseModal(Graphics2D g2) {
-        GameEngine engine = GameEngine.getInstance();
-        boolean isCustom = (engine.currentLevel == -1);
+    // Ghost of the block at the drop spot, with an arrow from where it is now
+    private void drawHint(Graphics2D g2, com.blocky.solver.Hint hint, Block b) {
+        int cs = Block.CELL_SIZE;
+        int alpha = 90 + (int)(60 * Math.sin(System.currentTimeMillis() / 200.0));
+        g2.setColor(new Color(255, 255, 255, alpha));
+        for (int r = 0; r < b.shapeMatrix.length; r++) {
+            for (int c = 0; c < b.shapeMatrix[r].length; c++) {
+                if (b.shapeMatrix[r][c] == 1) g2.fillRoundRect(hint.targetX + c * cs, hint.targetY + r * cs, cs, cs, 10, 10);
+            }
+        }
+        g2.setColor(new Color(255, 255, 255, 220));
+        g2.setStroke(new BasicStroke(4, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g2.drawRect(b.getX(), b.getY(), b.getWidth(), b.getHeight());
+        int x1 = b.getX() + b.getWidth() / 2, y1 = b.getY() + b.getHeight() / 2;
+        int x2 = hint.targetX + b.getWidth() / 2, y2 = hint.targetY + b.getHeight() / 2;
+        g2.drawLine(x1, y1, x2, y2);
+        double a = Math.atan2(y2 - y1, x2 - x1);
+        g2.drawLine(x2, y2, (int)(x2 - 14 * Math.cos(a - Math.PI / 6)), (int)(y2 - 14 * Math.sin(a - Math.PI / 6)));
+        g2.drawLine(x2, y2, (int)(x2 - 14 * Math.cos(a + Math.PI / 6)), (int)(y2 - 14 * Math.sin(a + Math.PI / 6)));
+    }
+
+    private void drawPauseModal(Graphics2D g2, GameEngine.Frame f) {
+        boolean isCustom = (f.currentLevel == -1 && f.currentCustomLevelName != null);
         
         g2.setColor(new Color(0, 0, 0, 180));
         g2.fillRect(-1000, -1000, 4000, 4000);
@@ -523,6 +648,10 @@ public class BoardPanel extends JPanel implements IObserver {
                 g2.drawLine((int)(cx + 10 * Math.cos(a)), (int)(cy + 10 * Math.sin(a)), (int)(cx + 14 * Math.cos(a)), (int)(cy + 14 * Math.sin(a)));
             }
             g2.drawOval(cx-4, cy-4, 8, 8);
+        } else if (type.equals("HINT")) {
+            g2.drawOval(cx-8, cy-13, 16, 16);
+            g2.drawLine(cx-4, cy+7, cx+4, cy+7);
+            g2.drawLine(cx-3, cy+11, cx+3, cy+11);
         } else if (type.equals("RESTART")) {
             g2.drawArc(cx-10, cy-10, 20, 20, 45, 270);
             g2.drawLine(cx+4, cy-4, cx+10, cy);
@@ -539,12 +668,25 @@ public class BoardPanel extends JPanel implements IObserver {
         g2.fillOval(b.getX()+5, b.getY()+h-11, 6, 6); g2.fillOval(b.getX()+w-11, b.getY()+h-11, 6, 6);
     }
 
+    private void drawStaticLayer(Graphics2D g2, GameEngine.Frame f) {
+        g2.setColor(new Color(25, 25, 30));
+        g2.fillRect(-1000, 60, 3000, 2000); 
+        g2.setColor(new Color(35, 35, 40));
+        for(int i=-1000; i<=2000; i+=60) g2.drawLine(i, -1000, i, 2000);
+        for(int i=-1000; i<=2000; i+=60) g2.drawLine(-1000, i, 2000, i);
+        for (ExitGate gate : f.gates) drawGateHole(g2, gate);
+        for (Block b : f.walls) drawWallBlock(g2, b);
+    }
+
     private void drawGateHole(Graphics2D g2, ExitGate gate) { }
 
-    private void drawGateTeeth(Graphics2D g2, ExitGate gate) {
+    // Editor teeth: one pixel every 20ms, repeating every StaticLayer.TEETH_PHASES pixels (in play, see GameEngine.teethPhase)
+    private int gateTeethPhase() {
+        return (int)((System.currentTimeMillis() / 20) % StaticLayer.TEETH_PHASES);
+    }
+
+    private void drawGateTeeth(Graphics2D g2, ExitGate gate, int offset) {
         Rectangle r = gate.getBounds();
-        long time = System.currentTimeMillis();
-        int offset = (int)((time / 20) % 20);
         g2.setColor(new Color(140, 140, 140));
         Shape oldClip = g2.getClip(); g2.setClip(r);
         if (gate.side == 0 || gate.side == 2) {
@@ -569,31 +711,32 @@ public class BoardPanel extends JPanel implements IObserver {
     private void draw3DBlock(Graphics2D g2, Block block) {
         Shape originalClip = g2.getClip();
         g2.clipRect(0, 60, 2000, 2000);
-        AffineTransform old = g2.getTransform();
-        g2.translate(block.getX() + block.getWidth()/2, block.getY() + block.getHeight()/2);
-        g2.scale(block.scale, block.scale);
-        g2.translate(-(block.getX() + block.getWidth()/2), -(block.getY() + block.getHeight()/2));
+        sprites.draw(g2, block, this::paintBlock); // applies block.scale itself
+        g2.setClip(originalClip);
+    }
+
+    // One block with its top-left corner at (x, y); rendered once per BlockSprites entry
+    private void paintBlock(Graphics2D g2, Block block, int x0, int y0) {
         int cs = Block.CELL_SIZE;
         Color c = block.isSelected ? block.getColor().brighter() : block.getColor();
+        Color shadow = c.darker().darker();
         for(int r=0; r<block.shapeMatrix.length; r++) {
             for(int col=0; col<block.shapeMatrix[r].length; col++) {
                 if(block.shapeMatrix[r][col] == 1) {
-                    int x = block.getX() + col*cs, y = block.getY() + r*cs;
-                    g2.setColor(c.darker().darker()); g2.fillRoundRect(x+6, y+6, cs, cs, 10, 10);
+                    int x = x0 + col*cs, y = y0 + r*cs;
+                    g2.setColor(shadow); g2.fillRoundRect(x+6, y+6, cs, cs, 10, 10);
                     g2.setColor(c); g2.fillRoundRect(x, y, cs, cs, 10, 10);
-                    g2.setColor(new Color(255,255,255,100)); g2.setStroke(new BasicStroke(3)); g2.drawRoundRect(x+2, y+2, cs-4, cs-4, 8, 8);
+                    g2.setColor(CELL_HIGHLIGHT); g2.setStroke(CELL_STROKE); g2.drawRoundRect(x+2, y+2, cs-4, cs-4, 8, 8);
                 }
             }
         }
         if (block.restriction != Block.Axis.NONE) {
-            double sx = 0, sy = 0; int cnt = 0;
-            for(int r=0; r<block.shapeMatrix.length; r++) for(int col=0; col<block.shapeMatrix[r].length; col++) if(block.shapeMatrix[r][col] == 1) { sx += col; sy += r; cnt++; }
-            int cx = block.getX() + (int)((sx/cnt) * cs + cs/2), cy = block.getY() + (int)((sy/cnt) * cs + cs/2);
+            ShapeCatalog.Shape shape = ShapeCatalog.of(block.shapeMatrix);
+            int cx = x0 + (int)(shape.centroidCol * cs + cs/2), cy = y0 + (int)(shape.centroidRow * cs + cs/2);
             g2.setColor(new Color(255, 255, 255, 230)); g2.setStroke(new BasicStroke(6, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-            if (block.restriction == Block.Axis.HORIZONTAL) drawArrow(g2, block.getX() + 15, cy, block.getX() + block.getWidth() - 15, cy);
-            else if (block.restriction == Block.Axis.VERTICAL) drawArrow(g2, cx, block.getY() + 15, cx, block.getY() + block.getHeight() - 15);
+            if (block.restriction == Block.Axis.HORIZONTAL) drawArrow(g2, x0 + 15, cy, x0 + block.getWidth() - 15, cy);
+            else if (block.restriction == Block.Axis.VERTICAL) drawArrow(g2, cx, y0 + 15, cx, y0 + block.getHeight() - 15);
         }
-        g2.setTransform(old); g2.setClip(originalClip);
     }
 
     private void drawArrow(Graphics2D g2, int x1, int y1, int x2, int y2) {
@@ -605,7 +748,7 @@ public class BoardPanel extends JPanel implements IObserver {
         g2.drawLine(x1, y1, (int)(x1 + s * Math.cos(a + Math.PI / 6)), (int)(y1 + s * Math.sin(a + Math.PI / 6)));
     }
 
-    private void drawEditor(Graphics2D g2, GameEngine engine, AffineTransform identity) {
+    private void drawEditor(Graphics2D g2, GameEngine.Frame f, AffineTransform identity) {
         // Draw World (Transformed)
         g2.setColor(new Color(25, 25, 30));
         g2.fillRect(-1000, -1000, 4000, 4000);
@@ -614,24 +757,24 @@ public class BoardPanel extends JPanel implements IObserver {
         for(int i=-1000; i<=2000; i+=45) g2.drawLine(-1000, i, 2000, i);
         
         // 1. Draw All Objects
-        for (ExitGate gate : engine.gates) {
-            drawGateTeeth(g2, gate);
-            if (gate == engine.selectedGate) {
+        for (ExitGate gate : f.gates) {
+            drawGateTeeth(g2, gate, gateTeethPhase());
+            if (gate == f.selectedGate) {
                 g2.setColor(Color.WHITE); g2.setStroke(new BasicStroke(2));
                 g2.drawRect(gate.getBounds().x - 2, gate.getBounds().y - 2, gate.getBounds().width + 4, gate.getBounds().height + 4);
             }
         }
-        for (Block b : engine.blocks) {
-            if (b.getColor().equals(Theme.WALL_COLOR)) drawWallBlock(g2, b); else draw3DBlock(g2, b);
-            if (b == engine.selectedBlock) {
+        for (Block b : f.blocks) {
+            if (b.getKind() == Entity.Kind.WALL) drawWallBlock(g2, b); else draw3DBlock(g2, b);
+            if (b == f.selectedBlock) {
                 g2.setColor(Color.WHITE); g2.setStroke(new BasicStroke(2));
                 g2.drawRect(b.getX() - 2, b.getY() - 2, b.getWidth() + 4, b.getHeight() + 4);
             }
         }
 
         // 2. Draw Context Menus (Always on Top)
-        if (engine.selectedGate != null) {
-            ExitGate gate = engine.selectedGate;
+        if (f.selectedGate != null) {
+            ExitGate gate = f.selectedGate;
             int sx = gate.getBounds().x + gate.getBounds().width + 20;
             if (sx + 150 > 900) sx = gate.getBounds().x - 170; // Clamp Right
 
@@ -643,12 +786,12 @@ public class BoardPanel extends JPanel implements IObserver {
             drawModernButton(g2, new Rectangle(sx, sy + 32, 150, 30), "ROTATE", Color.GRAY);
         }
         
-        if (engine.selectedBlock != null) {
-            Block b = engine.selectedBlock;
+        if (f.selectedBlock != null) {
+            Block b = f.selectedBlock;
             int sx = b.getX() + b.getWidth() + 20;
             int sy = b.getY();
             
-            if (b.getColor().equals(Theme.WALL_COLOR)) {
+            if (b.getKind() == Entity.Kind.WALL) {
                 if (sx + 150 > 900) sx = b.getX() - 170; // Clamp Right
                 drawContextSliders(g2, sx, sy, b.getWidth(), b.getHeight());
             } else {
@@ -670,7 +813,7 @@ public class BoardPanel extends JPanel implements IObserver {
         g2.setTransform(identity);
         
         g2.setColor(new Color(50, 50, 60)); 
-        g2.fillRect(0, 0, getWidth(), 80); // Full width background relative to panel
+        g2.fillRect(0, 0, surfaceWidth, 80); // Full width background relative to panel
 
         drawModernButton(g2, btnAddWall, "Wall", Color.GRAY);
         drawModernButton(g2, btnAddGate, "Gate", Theme.BLUE_BLOCK);
@@ -687,10 +830,10 @@ public class BoardPanel extends JPanel implements IObserver {
         // SAVE NOTIFICATION
         if (System.currentTimeMillis() - lastSaveTime < 2500 && !lastSaveMessage.isEmpty()) {
             g2.setColor(new Color(0, 0, 0, 180));
-            g2.fillRoundRect(getWidth() - 320, getHeight() - 60, 300, 40, 10, 10);
+            g2.fillRoundRect(surfaceWidth - 320, surfaceHeight - 60, 300, 40, 10, 10);
             g2.setColor(Color.WHITE);
             g2.setFont(new Font("Arial", Font.BOLD, 16));
-            g2.drawString(lastSaveMessage, getWidth() - 300, getHeight() - 35);
+            g2.drawString(lastSaveMessage, surfaceWidth - 300, surfaceHeight - 35);
         }
 
         g2.setTransform(worldTransform); // Restore for any further drawing
@@ -721,7 +864,7 @@ public class BoardPanel extends JPanel implements IObserver {
         g2.drawString(tH, x + 30 + (120 - fm.stringWidth(tH))/2, y2+22);
     }
     
-    private void drawMenu(Graphics2D g2, GameEngine engine) {
+    private void drawMenu(Graphics2D g2, GameEngine.Frame f) {
         // 1. Modern Background (Radial Gradient)
         java.awt.RadialGradientPaint rgp = new java.awt.RadialGradientPaint(
             new java.awt.geom.Point2D.Float(400, 400), 800,
@@ -792,7 +935,7 @@ public class BoardPanel extends JPanel implements IObserver {
         // 6. Buttons
         drawModernButton(g2, btnNewGame, "NEW GAME", Theme.GREEN_BLOCK);
         
-        if (engine.hasSave()) drawModernButton(g2, btnContinue, "CONTINUE", Theme.BLUE_BLOCK);
+        if (f.hasSave) drawModernButton(g2, btnContinue, "CONTINUE", Theme.BLUE_BLOCK);
         else {
             // Disabled state look
             g2.setColor(new java.awt.Color(40, 40, 45)); 
@@ -812,13 +955,13 @@ public class BoardPanel extends JPanel implements IObserver {
         drawModernButton(g2, btnExit, "EXIT", Theme.RED_BLOCK);
     }
 
-    private void drawLevelSelect(Graphics2D g2, GameEngine engine) {
+    private void drawLevelSelect(Graphics2D g2, GameEngine engine, GameEngine.Frame f) {
         drawTitle(g2, "LEVELS", 100);
         for(int i=1; i<=engine.TOTAL_LEVELS; i++) {
             int r=(i-1)/5, c=(i-1)%5;
             Rectangle btn = new Rectangle(110+c*120, 300+r*120, 100, 100);
-            if (i < engine.maxUnlockedLevel) drawModernButton(g2, btn, ""+i, Theme.GREEN_BLOCK);
-            else if (i == engine.maxUnlockedLevel) drawModernButton(g2, btn, ""+i, Theme.ORANGE_BLOCK);
+            if (i < f.maxUnlockedLevel) drawModernButton(g2, btn, ""+i, Theme.GREEN_BLOCK);
+            else if (i == f.maxUnlockedLevel) drawModernButton(g2, btn, ""+i, Theme.ORANGE_BLOCK);
             else {
                 g2.setColor(new Color(60, 60, 65)); g2.fillRoundRect(btn.x, btn.y, btn.width, btn.height, 20, 20);
                 g2.setColor(Color.GRAY); g2.setFont(new Font("Arial", Font.BOLD, 24));
@@ -826,28 +969,34 @@ public class BoardPanel extends JPanel implements IObserver {
                 g2.drawString("LOCK", btn.x + (btn.width - fm.stringWidth("LOCK")) / 2, btn.y + (btn.height + fm.getAscent()) / 2 - 5);
             }
         }
+        if (f.dailyGenerating != null) drawModernButton(g2, btnDaily, "GENERATING...", Color.GRAY); // not stored yet, see playDailyPuzzle
+        else drawModernButton(g2, btnDaily, "DAILY PUZZLE", Theme.CYAN_BLOCK);
         drawModernButton(g2, btnBack, "BACK", Color.GRAY);
     }
 
+    // The saved level list is not part of the Frame: getSavedLevels and getSavedLevelDifficulty are safe without lock
     private void drawEditorLevelSelect(Graphics2D g2, GameEngine engine) {
         drawTitle(g2, "MY LEVELS", 100);
         
         java.util.List<String> levels = engine.getSavedLevels();
-        int startY = 200;
         int rowH = 60;
+        int first = firstListedLevel(levels.size());
         
         g2.setFont(new Font("Arial", Font.PLAIN, 24));
         FontMetrics fm = g2.getFontMetrics();
         
-        for (int i = 0; i < levels.size(); i++) {
+        for (int i = first; i < levels.size(); i++) {
+            int y = LIST_TOP + (i - first) * LIST_ROW_STEP;
+            if (y > LIST_BOTTOM) break; // a level pack can hold far more rows than fit; see scrollLevelList
+            g2.setFont(new Font("Arial", Font.PLAIN, 24));
             String name = levels.get(i);
-            int y = startY + i * (rowH + 10);
             
             // Name BG
             g2.setColor(new Color(60, 60, 70));
             g2.fillRoundRect(150, y, 250, rowH, 10, 10);
             g2.setColor(Color.WHITE);
             g2.drawString(name, 170, y + 40);
+            drawDifficultyBadge(g2, engine.getSavedLevelDifficulty(name), 390, y);
             
             // Play Button
             Rectangle btnPlay = new Rectangle(410, y, 80, rowH);
@@ -862,10 +1011,53 @@ public class BoardPanel extends JPanel implements IObserver {
             drawModernButton(g2, btnDel, "DEL", Theme.RED_BLOCK);
         }
         
+        if (levels.size() > LIST_ROWS) {
+            drawModernButton(g2, btnListUp, "UP", first > 0 ? Theme.PURPLE_BLOCK : Color.DARK_GRAY);
+            drawModernButton(g2, btnListDown, "DOWN", first + LIST_ROWS < levels.size() ? Theme.PURPLE_BLOCK : Color.DARK_GRAY);
+            String shown = (first + 1) + "-" + Math.min(levels.size(), first + LIST_ROWS) + " / " + levels.size();
+            g2.setColor(Color.GRAY);
+            g2.setFont(new Font("Arial", Font.BOLD, 14));
+            g2.drawString(shown, btnListUp.x, btnListUp.y + btnListUp.height + 20);
+        }
+        
         drawModernButton(g2, btnCreateLevel, "CREATE NEW", Theme.ORANGE_BLOCK);
         drawModernButton(g2, btnBack, "BACK", Color.GRAY);
     }
 
+    // Top row of the saved level list, kept so the last page is full after levels were deleted
+    private int firstListedLevel(int count) {
+        return Math.max(0, Math.min(levelListFirst, count - LIST_ROWS));
+    }
+
+    // Moves the saved level list by rows (negative: up); the list is not part of the Frame, see drawEditorLevelSelect
+    private void scrollLevelList(int rows) {
+        GameEngine engine = GameEngine.getInstance();
+        if (engine.getFrame().state != GameEngine.GameState.EDITOR_LEVEL_SELECT) return;
+        levelListFirst = firstListedLevel(engine.getSavedLevels().size()) + rows;
+        levelListFirst = firstListedLevel(engine.getSavedLevels().size());
+        repaint();
+    }
+
+    // Right-aligned at x inside the name box; "..." while the level is still being rated
+    private void drawDifficultyBadge(Graphics2D g2, com.blocky.solver.Difficulty d, int x, int y) {
+        String label = d == null ? "..." : d.label();
+        String score = d == null || !d.isSolvable() ? "" : String.format(java.util.Locale.ROOT, "%.1f", d.score);
+        Color c = Color.GRAY;
+        if (d != null) {
+            switch (label) {
+                case "EASY": c = Theme.GREEN_BLOCK; break;
+                case "MEDIUM": c = Theme.YELLOW_BLOCK; break;
+                case "HARD": c = Theme.ORANGE_BLOCK; break;
+                case "EXPERT": c = Theme.RED_BLOCK; break;
+            }
+        }
+        g2.setFont(new Font("Arial", Font.BOLD, 12));
+        FontMetrics fm = g2.getFontMetrics();
+        g2.setColor(c);
+        g2.drawString(label, x - fm.stringWidth(label), y + 25);
+        g2.drawString(score, x - fm.stringWidth(score), y + 42);
+    }
+
     private void drawModernButton(Graphics2D g2, Rectangle r, String t, Color c) {
         g2.setColor(c); g2.fillRoundRect(r.x, r.y, r.width, r.height, 20, 20);
         g2.setColor(new Color(0,0,0,60)); g2.setStroke(new BasicStroke(2)); g2.drawRoundRect(r.x+2, r.y+2, r.width-4, r.height-4, 18, 18);
@@ -880,7 +1072,27 @@ public class BoardPanel extends JPanel implements IObserver {
         g2.drawString(t, (800 - fm.stringWidth(t)) / 2, y);
     }
 
-    @Override public void refreshView() { repaint(); }
+    /**
+     * Repaints what changed: during play only the damage GameEngine recorded, mapped through the
+     * current scale and offset (Swing merges it with any other pending area); everything otherwise.
+     * Also GameLoop's frame callback.
+     */
+    @Override public void refreshView() {
+        GameEngine engine = GameEngine.getInstance();
+        Rectangle dirty;
+        synchronized (engine.lock) {
+            dirty = engine.takeDamage();
+            if (engine.state != GameEngine.GameState.PLAYING) dirty = null;
+            else if (dirty != null && !dirty.isEmpty()) {
+                // Out to whole pixels, plus one for antialiasing
+                int x0 = (int) Math.floor(dirty.x * scaleFactor) + xOffset - 1, y0 = (int) Math.floor(dirty.y * scaleFactor) + yOffset - 1;
+                int x1 = (int) Math.ceil((dirty.x + dirty.width) * scaleFactor) + xOffset + 1, y1 = (int) Math.ceil((dirty.y + dirty.height) * scaleFactor) + yOffset + 1;
+                dirty = new Rectangle(x0, y0, x1 - x0, y1 - y0);
+            }
+        }
+        if (dirty == null) repaint();
+        else if (!dirty.isEmpty()) repaint(dirty);
+    }
     
     private class MenuParticle {
         float x, y;
@@ -0,0 +1,71 @@
+package com.blocky.view;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Frame time percentiles over the last SAMPLES frames, one instance per render path so the Swing
+ * and active modes can be compared. Frame time is the interval between the starts of consecutive
+ * frames (what the player sees); render time is how long drawing a frame took. With
+ * -Dblocky.frameStats=true the summary is printed every REPORT_NANOS.
+ */
+public class FrameStats {
+    private static final int SAMPLES = 1024;
+    private static final long REPORT_NANOS = 5_000_000_000L;
+    private static final boolean REPORT = Boolean.getBoolean("blocky.frameStats");
+
+    private final String name;
+    private final long[] frameNanos = new long[SAMPLES];
+    private final long[] renderNanos = new long[SAMPLES];
+    private int count;
+    private long frames;
+    private long lastStart = -1, lastReport;
+
+    public FrameStats(String name) {
+        this.name = name;
+    }
+
+    public synchronized void record(long startNanos, long endNanos) {
+        if (lastStart >= 0) {
+            int slot = (int) (frames % SAMPLES);
+            frameNanos[slot] = startNanos - lastStart;
+            renderNanos[slot] = endNanos - startNanos;
+            frames++;
+            count = (int) Math.min(SAMPLES, frames);
+        } else {
+            lastReport = startNanos;
+        }
+        lastStart = startNanos;
+        if (REPORT && endNanos - lastReport >= REPORT_NANOS) {
+            lastReport = endNanos;
+            System.out.println(summary());
+        }
+    }
+
+    /** p-th percentile (0-100) of the recorded frame times in nanoseconds, 0 before the second frame. */
+    public synchronized long framePercentile(double p) {
+        return percentile(frameNanos, p);
+    }
+
+    public synchronized long renderPercentile(double p) {
+        return percentile(renderNanos, p);
+    }
+
+    public synchronized long frameCount() { return frames; }
+
+    public synchronized String summary() {
+        long p50 = framePercentile(50);
+        return String.format(Locale.ROOT, "[%s] frames=%d fps=%.1f frame p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms render p50=%.2fms p99=%.2fms",
+                name, frames, p50 == 0 ? 0 : 1e9 / p50, p50 / 1e6, framePercentile(95) / 1e6, framePercentile(99) / 1e6,
+                framePercentile(100) / 1e6, renderPercentile(50) / 1e6, renderPercentile(99) / 1e6);
+    }
+
+    // Nearest-rank percentile over the filled part of the ring
+    private long percentile(long[] samples, double p) {
+        if (count == 0) return 0;
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p / 100 * count);
+        return sorted[Math.max(0, Math.min(count - 1, rank - 1))];
+    }
+}
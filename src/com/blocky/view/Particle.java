@@ -19,6 +19,24 @@ public class Particle {
         this.vy = Math.sin(angle) * speed;
     }
 
+    private Particle(Particle p) {
+        copyFrom(p);
+    }
+
+    /** A copy to draw while this one keeps moving. */
+    public Particle copy() { return new Particle(this); }
+
+    /** Makes this particle a copy of p, keeping this object. */
+    public void copyFrom(Particle p) {
+        this.x = p.x;
+        this.y = p.y;
+        this.vx = p.vx;
+        this.vy = p.vy;
+        this.color = p.color;
+        this.alpha = p.alpha;
+        this.size = p.size;
+    }
+
     public boolean update() {
         x += vx;
         y += vy;
@@ -27,6 +45,11 @@ public class Particle {
         return alpha <= 0;
     }
 
+    /** Area the particle covers when drawn, in level coordinates. */
+    public Rectangle getBounds() {
+        return new Rectangle((int)x - 1, (int)y - 1, (int)size + 2, (int)size + 2);
+    }
+
     public void draw(Graphics2D g2) {
         if (alpha > 0) {
             g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
@@ -0,0 +1,114 @@
+package com.blocky.view;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cached images of the parts of a level that do not move while it is played: the background with
+ * its grid and the walls in one opaque image, and each gate's teeth as small sprites, one per
+ * animation phase (the teeth slide, so they cannot be frozen into the background; they are also
+ * drawn over the blocks). Images are made in device pixels for the current view transform, so a
+ * frame only blits them. Everything is dropped when GameEngine.layoutVersion changes (level load,
+ * editor edits), when the scale or offset changes or when the surface is resized.
+ */
+public class StaticLayer {
+    public static final int TEETH_PHASES = 20;
+
+    /** Draws on a graphics the caller has already transformed. */
+    interface Painter { void paint(Graphics2D g2); }
+
+    private int version = -1;
+    private int width, height;
+    private AffineTransform base, world;
+    private BufferedImage background;
+    private Rectangle backgroundBounds;
+    private final List<BufferedImage[]> teeth = new ArrayList<>();
+    private final List<Rectangle> teethBounds = new ArrayList<>();
+    private int builds;
+
+    /** True when the images were made for this layout version, view transforms and surface size. */
+    boolean isValid(int version, AffineTransform base, AffineTransform world, int width, int height) {
+        return background != null && this.version == version && this.width == width && this.height == height
+                && base.equals(this.base) && world.equals(this.world);
+    }
+
+    /**
+     * Renders the background for a width x height surface: base maps the surface to the device,
+     * world maps the level to the device. Gate sprites are made later, phase by phase, as they are drawn.
+     */
+    void rebuild(GraphicsConfiguration gc, int version, AffineTransform base, AffineTransform world, int width, int height, Painter painter) {
+        this.version = version;
+        this.width = width;
+        this.height = height;
+        this.base = new AffineTransform(base);
+        this.world = new AffineTransform(world);
+        teeth.clear();
+        teethBounds.clear();
+        backgroundBounds = base.createTransformedShape(new Rectangle(0, 0, width, height)).getBounds();
+        background = snapshot(gc, backgroundBounds, Transparency.OPAQUE, g -> {
+            AffineTransform t = g.getTransform();
+            g.transform(base);
+            g.setColor(new Color(20, 20, 25));
+            g.fillRect(0, 0, width, height);
+            g.setTransform(t);
+            g.transform(world);
+            painter.paint(g);
+        });
+        builds++;
+    }
+
+    /** How many times the background was rendered; a steady count means frames are only blitting. */
+    public int getBuilds() { return builds; }
+
+    void drawBackground(Graphics2D g2) {
+        blit(g2, background, backgroundBounds);
+    }
+
+    /** Draws phase of gate number index, whose level bounds are area, rendering it with painter the first time. */
+    void drawTeeth(Graphics2D g2, int index, Rectangle area, int phase, Painter painter) {
+        while (teeth.size() <= index) {
+            teeth.add(new BufferedImage[TEETH_PHASES]);
+            teethBounds.add(null);
+        }
+        BufferedImage[] phases = teeth.get(index);
+        if (phases[phase] == null) {
+            // Grown for the outline stroke and its antialiasing
+            Rectangle box = world.createTransformedShape(new Rectangle(area.x - 3, area.y - 3, area.width + 6, area.height + 6)).getBounds();
+            teethBounds.set(index, box);
+            phases[phase] = snapshot(g2.getDeviceConfiguration(), box, Transparency.TRANSLUCENT, g -> {
+                g.transform(world);
+                painter.paint(g);
+            });
+        }
+        blit(g2, phases[phase], teethBounds.get(index));
+    }
+
+    // Image covering the device rectangle bounds; painter starts in device coordinates
+    private static BufferedImage snapshot(GraphicsConfiguration gc, Rectangle bounds, int transparency, Painter painter) {
+        BufferedImage img = gc.createCompatibleImage(Math.max(1, bounds.width), Math.max(1, bounds.height), transparency);
+        Graphics2D g = img.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.translate(-bounds.x, -bounds.y);
+            painter.paint(g);
+        } finally {
+            g.dispose();
+        }
+        return img;
+    }
+
+    private static void blit(Graphics2D g2, BufferedImage img, Rectangle bounds) {
+        AffineTransform t = g2.getTransform();
+        g2.setTransform(new AffineTransform());
+        g2.drawImage(img, bounds.x, bounds.y, null);
+        g2.setTransform(t);
+    }
+}
@@ -16,7 +16,7 @@ public class Theme {
     public static final Color PINK_BLOCK = new Color(253, 121, 168);
 
     // Culoare BARIERĂ (Zid) - Gri închis metalic
-    public static final Color WALL_COLOR = new Color(80, 80, 90);
+    public static final Color WALL_COLOR = com.blocky.model.ColorIds.WALL_COLOR;
 
     public static Color getSideColor(Color c) {
         return c.darker().darker();